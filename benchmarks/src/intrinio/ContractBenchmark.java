@@ -0,0 +1,61 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Contract handling on the hot path: looking up the interned contract of a message (what used to be formatContract),
+//and translating between the standard and server formats as join and leave do
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContractBenchmark {
+	private byte[] tradeBytes;
+	private ByteBuffer tradeBuffer;
+	private String standardFormat;
+
+	@Setup
+	public void setup() {
+		tradeBytes = Messages.trade();
+		tradeBuffer = Messages.direct(tradeBytes);
+		standardFormat = OptionContract.intern(tradeBytes, 0).toString();
+	}
+
+	@Benchmark
+	public OptionContract internBytes() {
+		return OptionContract.intern(tradeBytes, 0);
+	}
+
+	@Benchmark
+	public OptionContract internBuffer() {
+		return OptionContract.intern(tradeBuffer, 0);
+	}
+
+	@Benchmark
+	public String standardFormat() {
+		return OptionContract.intern(tradeBuffer, 0).toString();
+	}
+
+	@Benchmark
+	public String toServerFormat() {
+		return OptionContractDictionary.toServerFormat(standardFormat);
+	}
+
+	@Benchmark
+	public String parseToServerFormat() {
+		return OptionContract.parse(standardFormat).toServerFormat();
+	}
+}
@@ -0,0 +1,84 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+	private byte[] tradeBytes;
+	private byte[] quoteBytes;
+	private byte[] refreshBytes;
+	private byte[] unusualActivityBytes;
+	private ByteBuffer tradeBuffer;
+	private ByteBuffer quoteBuffer;
+	private ByteBuffer refreshBuffer;
+	private ByteBuffer unusualActivityBuffer;
+
+	@Setup
+	public void setup() {
+		tradeBytes = Messages.trade();
+		quoteBytes = Messages.quote();
+		refreshBytes = Messages.refresh();
+		unusualActivityBytes = Messages.unusualActivity();
+		tradeBuffer = Messages.direct(tradeBytes);
+		quoteBuffer = Messages.direct(quoteBytes);
+		refreshBuffer = Messages.direct(refreshBytes);
+		unusualActivityBuffer = Messages.direct(unusualActivityBytes);
+	}
+
+	@Benchmark
+	public Trade tradeBytes() {
+		return Trade.parse(tradeBytes);
+	}
+
+	@Benchmark
+	public Trade tradeBuffer() {
+		return Trade.parse(tradeBuffer);
+	}
+
+	@Benchmark
+	public Quote quoteBytes() {
+		return Quote.parse(quoteBytes);
+	}
+
+	@Benchmark
+	public Quote quoteBuffer() {
+		return Quote.parse(quoteBuffer);
+	}
+
+	@Benchmark
+	public Refresh refreshBytes() {
+		return Refresh.parse(refreshBytes);
+	}
+
+	@Benchmark
+	public Refresh refreshBuffer() {
+		return Refresh.parse(refreshBuffer);
+	}
+
+	@Benchmark
+	public UnusualActivity unusualActivityBytes() {
+		return UnusualActivity.parse(unusualActivityBytes);
+	}
+
+	@Benchmark
+	public UnusualActivity unusualActivityBuffer() {
+		return UnusualActivity.parse(unusualActivityBuffer);
+	}
+}
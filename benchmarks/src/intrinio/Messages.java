@@ -0,0 +1,105 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+//Single messages laid out exactly as documented in the parse methods, and frames built from them
+final class Messages {
+	static final String CONTRACT = "AAPL_230616C172.50";
+
+	private Messages() {}
+
+	private static ByteBuffer header(int size, String contract, int type) {
+		ByteBuffer bytes = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		byte[] contractBytes = contract.getBytes(StandardCharsets.US_ASCII);
+		bytes.put(0, (byte) contractBytes.length);
+		bytes.put(1, contractBytes);
+		bytes.put(22, (byte) type);
+		return bytes;
+	}
+
+	static byte[] trade() {
+		return trade(CONTRACT);
+	}
+
+	static byte[] trade(String contract) {
+		ByteBuffer bytes = header(72, contract, 0);
+		bytes.put(23, (byte) 0x04).put(24, (byte) 0x04);
+		bytes.putInt(25, 12_345).putInt(29, 10).putLong(33, 1_686_929_400_123_456_789L).putLong(41, 52_000L);
+		bytes.putInt(49, 12_400).putInt(53, 12_300).putInt(57, 1_845_500);
+		bytes.put(61, (byte) 8).put(62, (byte) 0).put(63, (byte) 0).put(64, (byte) 0).put(65, (byte) 'C');
+		return bytes.array();
+	}
+
+	static byte[] quote() {
+		return quote(CONTRACT);
+	}
+
+	static byte[] quote(String contract) {
+		ByteBuffer bytes = header(52, contract, 1);
+		bytes.put(23, (byte) 0x04);
+		bytes.putInt(24, 12_400).putInt(28, 25).putInt(32, 12_300).putInt(36, 40).putLong(40, 1_686_929_400_123_456_789L);
+		return bytes.array();
+	}
+
+	static byte[] refresh() {
+		return refresh(CONTRACT);
+	}
+
+	static byte[] refresh(String contract) {
+		ByteBuffer bytes = header(52, contract, 2);
+		bytes.put(23, (byte) 0x04);
+		bytes.putInt(24, 25_000).putInt(28, 11_000).putInt(32, 12_000).putInt(36, 13_000).putInt(40, 10_500);
+		return bytes.array();
+	}
+
+	static byte[] unusualActivity() {
+		return unusualActivity(CONTRACT);
+	}
+
+	static byte[] unusualActivity(String contract) {
+		ByteBuffer bytes = header(74, contract, 4);
+		bytes.put(23, (byte) 1).put(24, (byte) 0x04).put(25, (byte) 0x04);
+		bytes.putLong(26, 1_234_500_000L).putInt(34, 100).putInt(38, 12_345).putInt(42, 12_400).putInt(46, 12_300).putInt(50, 1_845_500);
+		bytes.putLong(54, 1_686_929_400_123_456_789L);
+		return bytes.array();
+	}
+
+	//Contracts spread over a few underlyings, e.g. MSFT_230616C105.50
+	static String[] contracts(int count) {
+		String[] underlyings = {"AAPL", "MSFT", "SPY", "QQQ", "TSLA", "AMZN", "NVDA", "META"};
+		String[] contracts = new String[count];
+		for (int i = 0; i < count; i++) {
+			contracts[i] = underlyings[i % underlyings.length] + "_230616" + (i % 2 == 0 ? 'C' : 'P') + (100 + i) + ".50";
+		}
+		return contracts;
+	}
+
+	//A whole websocket frame of mostly quotes, like the live feed: every 8th message is a trade, every 16th unusual activity,
+	//every 32nd a refresh. count is at most 127.
+	static byte[] frame(int count, String[] contracts) {
+		byte[][] messages = new byte[count][];
+		int length = 1;
+		for (int i = 0; i < count; i++) {
+			String contract = contracts[i % contracts.length];
+			if (i % 8 == 0) messages[i] = trade(contract);
+			else if (i % 16 == 7) messages[i] = unusualActivity(contract);
+			else if (i % 32 == 15) messages[i] = refresh(contract);
+			else messages[i] = quote(contract);
+			length += messages[i].length;
+		}
+		byte[] frame = new byte[length];
+		frame[0] = (byte) count;
+		int offset = 1;
+		for (byte[] message : messages) {
+			System.arraycopy(message, 0, frame, offset, message.length);
+			offset += message.length;
+		}
+		return frame;
+	}
+
+	static ByteBuffer direct(byte[] bytes) {
+		return ByteBuffer.allocateDirect(bytes.length).put(0, bytes);
+	}
+}
@@ -0,0 +1,132 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Synthetic frames from the websocket listener to the event handlers, wired the way Client wires them: reassembly, the overflow
+//controller, the frame queue, and processing threads that decode and dispatch. One op is one 32 message frame fully handled.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineBenchmark {
+	private static final int FRAMES = 256;
+
+	@Param({"1", "4", "8"})
+	public int threads;
+
+	//RECORD: OnTrade, OnQuote, ... VIEW: the flyweight views
+	@Param({"RECORD", "VIEW"})
+	public String callbacks;
+
+	private FrameQueue queue;
+	private FrameAssembler frameAssembler;
+	private OverflowController overflowController;
+	private ByteBuffer frame;
+	private Thread[] processors;
+	private volatile boolean isRunning;
+	private final AtomicLong processed = new AtomicLong(0L);
+	private long published = 0L;
+	//handlers store what they get here so the work cannot be optimized away
+	private Object sink;
+	private long sum;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		queue = new DequeFrameQueue(1024, WaitStrategy.BLOCKING);
+		frameAssembler = new FrameAssembler(queue);
+		DemandController demandController = new DemandController(queue, 1, 0);
+		overflowController = new OverflowController(queue, 0, OverflowPolicy.BLOCK, null, demandController);
+		frame = Messages.direct(Messages.frame(32, Messages.contracts(64)));
+		EventHandlers handlers = handlers();
+		isRunning = true;
+		processors = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			processors[i] = WorkerThreads.create(ExecutionMode.PLATFORM, ThreadRole.PROCESSOR, i, handlers.onThreadStart, () -> process(handlers));
+			processors[i].start();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		isRunning = false;
+		for (Thread processor : processors) {
+			processor.join();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FRAMES)
+	public long pipeline() throws InterruptedException {
+		for (int i = 0; i < FRAMES; i++) {
+			frame.position(0);
+			overflowController.publish(frameAssembler.append(frame, true));
+		}
+		published += FRAMES;
+		while (processed.get() < published) {
+			Thread.yield();
+		}
+		return sum;
+	}
+
+	private void process(EventHandlers handlers) {
+		FrameProcessor processor = new FrameProcessor(handlers, ShardingMode.NONE);
+		try {
+			while (isRunning) {
+				Frame next = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (next != null) {
+					overflowController.frameTaken();
+					try {
+						processor.process(next);
+					} finally {
+						queue.release(next);
+					}
+					processed.incrementAndGet();
+				}
+			}
+		} catch (InterruptedException e) {
+		}
+	}
+
+	private EventHandlers handlers() {
+		EventHandlers handlers = new EventHandlers();
+		if ("VIEW".equals(callbacks)) {
+			handlers.onTradeView = trade -> sum += trade.priceMantissa();
+			handlers.onQuoteView = quote -> sum += quote.askPriceMantissa();
+			handlers.onRefreshView = refresh -> sum += refresh.openInterest();
+			handlers.onUnusualActivityView = unusualActivity -> sum += unusualActivity.totalValueMantissa();
+			handlers.useOnTradeView = true;
+			handlers.useOnQuoteView = true;
+			handlers.useOnRefreshView = true;
+			handlers.useOnUnusualActivityView = true;
+		} else {
+			handlers.onTrade = trade -> sink = trade;
+			handlers.onQuote = quote -> sink = quote;
+			handlers.onRefresh = refresh -> sink = refresh;
+			handlers.onUnusualActivity = unusualActivity -> sink = unusualActivity;
+			handlers.useOnTrade = true;
+			handlers.useOnQuote = true;
+			handlers.useOnRefresh = true;
+			handlers.useOnUnusualActivity = true;
+		}
+		return handlers;
+	}
+}
@@ -0,0 +1,59 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Reassembling one 32 message websocket frame, delivered in the given number of fragments, into a pooled frame
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReassemblyBenchmark {
+	@Param({"1", "4"})
+	public int fragments;
+
+	private FrameQueue queue;
+	private FrameAssembler frameAssembler;
+	private ByteBuffer[] fragmentBuffers;
+
+	@Setup
+	public void setup() {
+		queue = new DequeFrameQueue(16, WaitStrategy.BLOCKING);
+		frameAssembler = new FrameAssembler(queue);
+		ByteBuffer frame = Messages.direct(Messages.frame(32, Messages.contracts(64)));
+		int length = frame.capacity();
+		fragmentBuffers = new ByteBuffer[fragments];
+		for (int i = 0; i < fragments; i++) {
+			int start = length * i / fragments;
+			int end = length * (i + 1) / fragments;
+			fragmentBuffers[i] = frame.slice(start, end - start);
+		}
+	}
+
+	@Benchmark
+	public int reassemble() {
+		Frame frame = null;
+		for (int i = 0; i < fragments; i++) {
+			ByteBuffer fragment = fragmentBuffers[i];
+			fragment.position(0);
+			frame = frameAssembler.append(fragment, i == fragments - 1);
+		}
+		int length = frame.getLength();
+		queue.release(frame);
+		return length;
+	}
+}
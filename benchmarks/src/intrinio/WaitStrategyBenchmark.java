@@ -0,0 +1,75 @@
+package intrinio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Round trip of a frame to a worker thread and back through two frame queues, i.e. two hand-offs with the given wait strategy
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WaitStrategyBenchmark {
+	@Param({"BLOCKING", "SLEEPING", "YIELDING", "BUSY_SPIN"})
+	public WaitStrategy waitStrategy;
+
+	@Param({"DEQUE", "RING"})
+	public String queueType;
+
+	private FrameQueue requests;
+	private FrameQueue responses;
+	private Thread echo;
+	private volatile boolean isRunning;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		requests = newQueue();
+		responses = newQueue();
+		isRunning = true;
+		echo = new Thread(() -> {
+			try {
+				while (isRunning) {
+					Frame request = requests.poll(100, TimeUnit.MILLISECONDS);
+					if (request != null) {
+						requests.release(request);
+						responses.publish(responses.claim());
+					}
+				}
+			} catch (InterruptedException e) {
+			}
+		}, "echo");
+		echo.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		isRunning = false;
+		echo.join();
+	}
+
+	@Benchmark
+	public Frame roundTrip() throws InterruptedException {
+		requests.publish(requests.claim());
+		Frame response = responses.poll(1, TimeUnit.SECONDS);
+		responses.release(response);
+		return response;
+	}
+
+	private FrameQueue newQueue() {
+		return "RING".equals(queueType) ? new RingFrameQueue(64, waitStrategy) : new DequeFrameQueue(64, waitStrategy);
+	}
+}
@@ -0,0 +1,32 @@
+package intrinio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+//Flight recorder event spanning the decode and dispatch of one frame's messages on a processing thread, handlers included
+@Name("intrinio.FrameDecoded")
+@Label("Frame Decoded")
+@Category({ "Intrinio", "Realtime Options" })
+@Description("Decoding and dispatching the messages of one frame")
+@Enabled(false)
+@StackTrace(false)
+final class FrameDecodedEvent extends jdk.jfr.Event {
+	@Label("Message Count")
+	int messageCount;
+
+	@Label("Trades")
+	int trades;
+
+	@Label("Quotes")
+	int quotes;
+
+	@Label("Refreshes")
+	int refreshes;
+
+	@Label("Unusual Activity")
+	int unusualActivities;
+}
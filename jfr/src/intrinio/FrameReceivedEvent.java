@@ -0,0 +1,25 @@
+package intrinio;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+//Flight recorder event for every complete frame off the websocket. Disabled unless a recording enables it.
+@Name("intrinio.FrameReceived")
+@Label("Frame Received")
+@Category({ "Intrinio", "Realtime Options" })
+@Description("A complete frame after reassembly")
+@Enabled(false)
+@StackTrace(false)
+final class FrameReceivedEvent extends jdk.jfr.Event {
+	@Label("Size")
+	@DataAmount
+	int size;
+
+	@Label("Message Count")
+	int messageCount;
+}
@@ -0,0 +1,24 @@
+package intrinio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+//Flight recorder event for a handler call that takes longer than the threshold (1 ms unless the recording sets another).
+//Recorded with a stack trace, which points at the call in FrameProcessor and so tells which handler it was.
+@Name("intrinio.HandlerInvocation")
+@Label("Slow Handler Invocation")
+@Category({ "Intrinio", "Realtime Options" })
+@Description("A call to a registered handler that exceeded the threshold")
+@Enabled(false)
+@Threshold("1 ms")
+final class HandlerInvocationEvent extends jdk.jfr.Event {
+	@Label("Event Type")
+	String eventType;
+
+	@Label("Batch")
+	boolean isBatch;
+}
@@ -0,0 +1,104 @@
+package intrinio;
+
+//The flight recorder events behind FlightEvents. Each one is created and checked with isEnabled before any other work,
+//so until a recording enables it an event costs that check.
+final class JfrFlightEvents extends FlightEvents {
+	void frameReceived(int size, int messageCount) {
+		FrameReceivedEvent event = new FrameReceivedEvent();
+		if (event.isEnabled()) {
+			event.size = size;
+			event.messageCount = messageCount;
+			event.commit();
+		}
+	}
+
+	Object beginFrameDecoded() {
+		FrameDecodedEvent event = new FrameDecodedEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	void endFrameDecoded(Object decoded, int messageCount, int trades, int quotes, int refreshes, int unusualActivities) {
+		FrameDecodedEvent event = (FrameDecodedEvent) decoded;
+		event.end();
+		event.messageCount = messageCount;
+		event.trades = trades;
+		event.quotes = quotes;
+		event.refreshes = refreshes;
+		event.unusualActivities = unusualActivities;
+		event.commit();
+	}
+
+	boolean isTracingHandlers() {
+		return new HandlerInvocationEvent().isEnabled();
+	}
+
+	Object beginHandler() {
+		HandlerInvocationEvent event = new HandlerInvocationEvent();
+		event.begin();
+		return event;
+	}
+
+	void endHandler(Object invocation, EventLane lane, boolean isBatch) {
+		HandlerInvocationEvent event = (HandlerInvocationEvent) invocation;
+		event.end();
+		//under the threshold, skip filling it in
+		if (event.shouldCommit()) {
+			event.eventType = lane.name();
+			event.isBatch = isBatch;
+			event.commit();
+		}
+	}
+
+	Object beginQueueHighWater() {
+		QueueHighWaterEvent event = new QueueHighWaterEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	void commitQueueHighWater(Object highWaterMark, String queue, int highWater, int capacity) {
+		QueueHighWaterEvent event = (QueueHighWaterEvent) highWaterMark;
+		event.end();
+		event.queue = queue;
+		event.highWater = highWater;
+		event.capacity = capacity;
+		event.commit();
+	}
+
+	Object beginReconnect() {
+		ReconnectEvent event = new ReconnectEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	void endReconnect(Object reconnect, boolean wasReady, boolean isConnected) {
+		ReconnectEvent event = (ReconnectEvent) reconnect;
+		event.wasReady = wasReady;
+		event.isConnected = isConnected;
+		event.commit();
+	}
+
+	Object beginTokenRefresh() {
+		TokenRefreshEvent event = new TokenRefreshEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	void endTokenRefresh(Object refresh, boolean isAuthorized) {
+		TokenRefreshEvent event = (TokenRefreshEvent) refresh;
+		event.isAuthorized = isAuthorized;
+		event.commit();
+	}
+}
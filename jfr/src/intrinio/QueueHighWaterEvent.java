@@ -0,0 +1,27 @@
+package intrinio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+//Flight recorder event with the deepest a queue got over about a second of publishing. Spans that second.
+@Name("intrinio.QueueHighWater")
+@Label("Queue High-Water Mark")
+@Category({ "Intrinio", "Realtime Options" })
+@Description("The most frames waiting in a queue over the event's duration")
+@Enabled(false)
+@StackTrace(false)
+final class QueueHighWaterEvent extends jdk.jfr.Event {
+	@Label("Queue")
+	String queue;
+
+	@Label("High-Water Mark")
+	int highWater;
+
+	@Label("Capacity")
+	@Description("The configured queue capacity, 0 if unbounded")
+	int capacity;
+}
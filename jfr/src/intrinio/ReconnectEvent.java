@@ -0,0 +1,21 @@
+package intrinio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Flight recorder event spanning a websocket reconnection attempt
+@Name("intrinio.Reconnect")
+@Label("Websocket Reconnect")
+@Category({ "Intrinio", "Realtime Options" })
+@Description("An attempt to reconnect the websocket")
+@Enabled(false)
+final class ReconnectEvent extends jdk.jfr.Event {
+	@Label("Already Connected")
+	boolean wasReady;
+
+	@Label("Connected")
+	boolean isConnected;
+}
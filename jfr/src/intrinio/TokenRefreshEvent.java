@@ -0,0 +1,18 @@
+package intrinio;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+//Flight recorder event spanning one request for a new auth token
+@Name("intrinio.TokenRefresh")
+@Label("Token Refresh")
+@Category({ "Intrinio", "Realtime Options" })
+@Description("A request to the auth endpoint for a new token")
+@Enabled(false)
+final class TokenRefreshEvent extends jdk.jfr.Event {
+	@Label("Authorized")
+	boolean isAuthorized;
+}
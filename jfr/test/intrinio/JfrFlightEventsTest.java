@@ -0,0 +1,65 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JfrFlightEventsTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void loadedByTheClientAndRecordsNothingUnlessEnabled() {
+		assertSame(JfrFlightEvents.class, FlightEvents.INSTANCE.getClass());
+		assertNull(FlightEvents.INSTANCE.beginFrameDecoded());
+		assertNull(FlightEvents.INSTANCE.beginReconnect());
+		assertFalse(FlightEvents.INSTANCE.isTracingHandlers());
+	}
+
+	@Test
+	void recordsEnabledEvents() throws Exception {
+		Path file = directory.resolve("events.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("intrinio.FrameReceived");
+			recording.enable("intrinio.HandlerInvocation").withThreshold(Duration.ZERO);
+			recording.enable("intrinio.Reconnect");
+			recording.start();
+			FlightEvents.INSTANCE.frameReceived(1000, 7);
+			Object handler = FlightEvents.INSTANCE.beginHandler();
+			FlightEvents.INSTANCE.endHandler(handler, EventLane.QUOTE, true);
+			FlightEvents.INSTANCE.endReconnect(FlightEvents.INSTANCE.beginReconnect(), false, true);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		assertEquals(3, events.size());
+		for (RecordedEvent event : events) {
+			switch (event.getEventType().getName()) {
+				case "intrinio.FrameReceived":
+					assertEquals(1000, event.getInt("size"));
+					assertEquals(7, event.getInt("messageCount"));
+					break;
+				case "intrinio.HandlerInvocation":
+					assertEquals("QUOTE", event.getString("eventType"));
+					assertEquals(true, event.getBoolean("isBatch"));
+					break;
+				default:
+					assertEquals("intrinio.Reconnect", event.getEventType().getName());
+					assertEquals(false, event.getBoolean("wasReady"));
+					assertEquals(true, event.getBoolean("isConnected"));
+			}
+		}
+	}
+}
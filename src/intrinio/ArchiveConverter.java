@@ -0,0 +1,147 @@
+package intrinio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+//Converts a recorded journal directory into a columnar archive for long term storage: one file per partition of underlyings,
+//part-<partition>.archive (see ArchiveWriter and ArchiveLayout for the format). Client.replayArchive reads it back.
+//The journal is read once, on the calling thread, and each message copied to its partition's writer. Full blocks are encoded and
+//written by fork-join tasks, one per partition, while reading goes on; at most two batches of blocks are held at a time.
+public final class ArchiveConverter {
+	static final String PARTITION_PREFIX = "part-";
+	static final String PARTITION_SUFFIX = ".archive";
+	//full blocks, across every partition, to collect before handing them to the encoding tasks
+	private static final int BATCH_BLOCKS = Math.max(4, 2 * ForkJoinPool.getCommonPoolParallelism());
+
+	private ArchiveConverter() {}
+
+	//Returns the number of messages archived. The archive directory must not already hold an archive.
+	public static long convert(String journalDirectory, String archiveDirectory, int partitionCount) throws Exception {
+		if (partitionCount < 1 || partitionCount > 9999) {
+			throw new Exception("The partition count must be between 1 and 9999");
+		}
+		Path directory = Paths.get(archiveDirectory);
+		Files.createDirectories(directory);
+		if (!getPartitions(directory).isEmpty()) {
+			throw new Exception("The archive directory already holds an archive: " + archiveDirectory);
+		}
+		ArchiveWriter[] writers = new ArchiveWriter[partitionCount];
+		for (int i = 0; i < partitionCount; i++) {
+			writers[i] = new ArchiveWriter(getPartitionPath(directory, i), partitionCount, i);
+		}
+		try {
+			ForkJoinTask<Void> encoding = null;
+			int readyBlocks = 0;
+			FrameJournalReader reader = new FrameJournalReader(journalDirectory);
+			while (reader.next()) {
+				ByteBuffer buffer = reader.getBuffer();
+				int start = reader.getFrameOffset();
+				int count = buffer.get(start);
+				int offset = start + 1;
+				for (int i = 0; i < count; i++) {
+					ArchiveLayout layout = ArchiveLayout.of(buffer.get(offset + 22));
+					if (layout == null) {
+						break;
+					}
+					if (writers[partitionOf(buffer, offset, partitionCount)].add(buffer, offset, layout) && ++readyBlocks == BATCH_BLOCKS) {
+						encoding = encode(writers, encoding);
+						readyBlocks = 0;
+					}
+					offset += layout.getMessageSize();
+				}
+			}
+			for (ArchiveWriter writer : writers) {
+				writer.finish();
+			}
+			encode(writers, encoding).join();
+			long messages = 0L;
+			for (ArchiveWriter writer : writers) {
+				writer.close();
+				messages += writer.getMessageCount();
+			}
+			return messages;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	//Waits for the previous batch to be written, then starts encoding the blocks that have filled since
+	private static ForkJoinTask<Void> encode(ArchiveWriter[] writers, ForkJoinTask<Void> previous) {
+		if (previous != null) {
+			previous.join();
+		}
+		for (ArchiveWriter writer : writers) {
+			writer.handOff();
+		}
+		return ForkJoinPool.commonPool().submit(new EncodeTask(writers, 0, writers.length));
+	}
+
+	//Usage: ArchiveConverter journalDirectory archiveDirectory [partitionCount]
+	public static void main(String[] args) throws Exception {
+		int partitionCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		long start = System.nanoTime();
+		long messages = convert(args[0], args[1], partitionCount);
+		Client.Log("Archive - Converted %d messages into %d partitions in %d ms", messages, partitionCount, (System.nanoTime() - start) / 1_000_000L);
+	}
+
+	//The partition files of an archive directory in partition order
+	static List<Path> getPartitions(Path directory) throws IOException {
+		List<Path> partitions = new ArrayList<Path>();
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, PARTITION_PREFIX + "*" + PARTITION_SUFFIX)) {
+			for (Path path : paths) {
+				partitions.add(path);
+			}
+		}
+		partitions.sort(Comparator.comparing(Path::toString));
+		return partitions;
+	}
+
+	static Path getPartitionPath(Path directory, int partition) {
+		return directory.resolve(String.format("%s%04d%s", PARTITION_PREFIX, partition, PARTITION_SUFFIX));
+	}
+
+	//Partitions by the same underlying hash as ShardingMode.UNDERLYING
+	static int partitionOf(ByteBuffer buffer, int messageOffset, int partitionCount) {
+		return ShardingMode.UNDERLYING.shardOf(buffer, messageOffset, partitionCount);
+	}
+
+	//Splits the partitions in halves down to one per task, which encodes and writes that partition's handed off blocks
+	private static final class EncodeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final ArchiveWriter[] writers;
+		private final int from;
+		private final int to;
+
+		EncodeTask(ArchiveWriter[] writers, int from, int to) {
+			this.writers = writers;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EncodeTask(writers, from, middle), new EncodeTask(writers, middle, to));
+				return;
+			}
+			try {
+				writers[from].encode();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package intrinio;
+
+//The columns of each event type in a columnar archive. Every message field after the contract is one column, and is stored as:
+//BYTE - runs of [varint run length][byte]
+//INT - zigzag varint
+//INT_DELTA, LONG_DELTA - zigzag varint of the change since the same contract's previous value in the block
+//TIME - zigzag varint of the change since the previous value of this event type in the block
+//Prices stay the scaled ints of the feed, next to their PriceType column, so decoding gives back the original message bytes.
+enum ArchiveLayout {
+	TRADE(TradeView.MESSAGE_SIZE,
+			new int[] { 22, 23, 24, 25, 29, 33, 41, 49, 53, 57, 61, 65 },
+			new byte[] { ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.INT_DELTA, ArchiveLayout.INT, ArchiveLayout.TIME,
+					ArchiveLayout.LONG_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT, ArchiveLayout.BYTE }),
+	QUOTE(QuoteView.MESSAGE_SIZE,
+			new int[] { 22, 23, 24, 28, 32, 36, 40 },
+			new byte[] { ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.INT_DELTA, ArchiveLayout.INT, ArchiveLayout.INT_DELTA, ArchiveLayout.INT, ArchiveLayout.TIME }),
+	REFRESH(RefreshView.MESSAGE_SIZE,
+			new int[] { 22, 23, 24, 28, 32, 36, 40 },
+			new byte[] { ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA }),
+	UNUSUAL_ACTIVITY(UnusualActivityView.MESSAGE_SIZE,
+			new int[] { 22, 23, 24, 25, 26, 34, 38, 42, 46, 50, 54 },
+			new byte[] { ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.BYTE, ArchiveLayout.LONG_DELTA, ArchiveLayout.INT,
+					ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.INT_DELTA, ArchiveLayout.TIME });
+
+	static final byte BYTE = 0;
+	static final byte INT = 1;
+	static final byte INT_DELTA = 2;
+	static final byte LONG_DELTA = 3;
+	static final byte TIME = 4;
+	private static final ArchiveLayout[] LAYOUTS = values();
+
+	private final int messageSize;
+	private final int[] fieldOffsets;
+	private final byte[] fieldKinds;
+
+	ArchiveLayout(int messageSize, int[] fieldOffsets, byte[] fieldKinds) {
+		this.messageSize = messageSize;
+		this.fieldOffsets = fieldOffsets;
+		this.fieldKinds = fieldKinds;
+	}
+
+	int getMessageSize() {
+		return messageSize;
+	}
+
+	int getFieldCount() {
+		return fieldOffsets.length;
+	}
+
+	int getFieldOffset(int field) {
+		return fieldOffsets[field];
+	}
+
+	byte getFieldKind(int field) {
+		return fieldKinds[field];
+	}
+
+	//message type [22]: null for anything that is not a known event
+	static ArchiveLayout of(byte type) {
+		EventLane lane = EventLane.of(type);
+		return lane == null ? null : LAYOUTS[lane.ordinal()];
+	}
+}
@@ -0,0 +1,241 @@
+package intrinio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//Decodes the blocks of one archive partition (see ArchiveWriter) back into the original message bytes in recorded order, laid
+//out as frames of up to 127 messages so they go through FrameProcessor like live data. The partition is read through a read-only
+//mapping, and each block is copied out of it once before decoding.
+final class ArchiveReader {
+	private static final int MAX_MESSAGES_PER_FRAME = 127;
+	private static final ArchiveLayout[] LAYOUTS = ArchiveLayout.values();
+
+	private final MappedByteBuffer file;
+	private final byte[] underlying;
+	private int filePosition = ArchiveWriter.FILE_HEADER_SIZE;
+	private byte[] block = new byte[1 << 20];
+	private int position;
+	private byte[] frames = new byte[1 << 20];
+	private ByteBuffer framesView = ByteBuffer.wrap(frames).order(ByteOrder.LITTLE_ENDIAN);
+	private final int[] frameOffsets = new int[(ArchiveWriter.BLOCK_EVENTS + MAX_MESSAGES_PER_FRAME - 1) / MAX_MESSAGES_PER_FRAME];
+	private int frameCount;
+	private int messageCount;
+	private int[] contractOffsets = new int[1024];
+	private boolean[] isKept = new boolean[1024];
+	private final byte[] eventLayouts = new byte[ArchiveWriter.BLOCK_EVENTS];
+	private final int[] eventContractIds = new int[ArchiveWriter.BLOCK_EVENTS];
+	//where each event goes in frames, or -1 when it is filtered out
+	private final int[] eventOffsets = new int[ArchiveWriter.BLOCK_EVENTS];
+	//the events of one type
+	private final int[] selected = new int[ArchiveWriter.BLOCK_EVENTS];
+	private int[] previousInts = new int[1024];
+	private long[] previousLongs = new long[1024];
+
+	//With an underlying, only its events are kept
+	ArchiveReader(Path path, String underlying) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			file.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		if (file.capacity() < ArchiveWriter.FILE_HEADER_SIZE || file.getInt(0) != ArchiveWriter.MAGIC || file.getInt(4) != ArchiveWriter.VERSION) {
+			throw new IOException("Not a version " + ArchiveWriter.VERSION + " archive partition: " + path);
+		}
+		this.underlying = underlying == null ? null : underlying.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	int getPartitionCount() {
+		return file.getInt(8);
+	}
+
+	//Decodes the next block that has any events left after filtering. False at the end.
+	boolean next() {
+		while (filePosition + ArchiveWriter.BLOCK_HEADER_SIZE <= file.capacity()) {
+			int count = file.getInt(filePosition);
+			int length = file.getInt(filePosition + 4);
+			if (block.length < length) {
+				block = new byte[Math.max(length, block.length * 2)];
+			}
+			file.get(filePosition + ArchiveWriter.BLOCK_HEADER_SIZE, block, 0, length);
+			filePosition += ArchiveWriter.BLOCK_HEADER_SIZE + length;
+			position = 0;
+			decode(count);
+			if (messageCount > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	ByteBuffer getFrames() {
+		return framesView;
+	}
+
+	int getFrameCount() {
+		return frameCount;
+	}
+
+	int getFrameOffset(int frame) {
+		return frameOffsets[frame];
+	}
+
+	int getMessageCount() {
+		return messageCount;
+	}
+
+	private void decode(int count) {
+		int contractCount = (int) readVarLong();
+		if (contractOffsets.length < contractCount) {
+			int capacity = Math.max(contractCount, contractOffsets.length * 2);
+			contractOffsets = new int[capacity];
+			isKept = new boolean[capacity];
+			previousInts = new int[capacity];
+			previousLongs = new long[capacity];
+		}
+		for (int id = 0; id < contractCount; id++) {
+			contractOffsets[id] = position;
+			isKept[id] = isUnderlying(position);
+			position += block[position] + 1;
+		}
+		readVarLong();
+		for (int i = 0; i < count;) {
+			int run = (int) readVarLong();
+			Arrays.fill(eventLayouts, i, i + run, block[position++]);
+			i += run;
+		}
+		readVarLong();
+		messageCount = 0;
+		frameCount = 0;
+		int length = 0;
+		for (int i = 0; i < count; i++) {
+			int id = (int) readVarLong();
+			eventContractIds[i] = id;
+			if (isKept[id]) {
+				if (messageCount % MAX_MESSAGES_PER_FRAME == 0) {
+					//room for the message count of a new frame
+					frameOffsets[frameCount++] = length++;
+				}
+				eventOffsets[i] = length;
+				length += LAYOUTS[eventLayouts[i]].getMessageSize();
+				messageCount++;
+			} else {
+				eventOffsets[i] = -1;
+			}
+		}
+		if (messageCount == 0) {
+			return;
+		}
+		if (frames.length < length) {
+			frames = new byte[Math.max(length, frames.length * 2)];
+			framesView = ByteBuffer.wrap(frames).order(ByteOrder.LITTLE_ENDIAN);
+		} else {
+			//padding is not stored
+			Arrays.fill(frames, 0, length, (byte) 0);
+		}
+		for (int frame = 0; frame < frameCount; frame++) {
+			frames[frameOffsets[frame]] = (byte) Math.min(MAX_MESSAGES_PER_FRAME, messageCount - frame * MAX_MESSAGES_PER_FRAME);
+		}
+		for (int i = 0; i < count; i++) {
+			if (eventOffsets[i] >= 0) {
+				int contract = contractOffsets[eventContractIds[i]];
+				System.arraycopy(block, contract, frames, eventOffsets[i], block[contract] + 1);
+			}
+		}
+		for (ArchiveLayout layout : LAYOUTS) {
+			int selectedCount = 0;
+			for (int i = 0; i < count; i++) {
+				if (eventLayouts[i] == layout.ordinal()) {
+					selected[selectedCount++] = i;
+				}
+			}
+			if (selectedCount > 0) {
+				decodeColumns(layout, selectedCount, contractCount);
+			}
+		}
+	}
+
+	//The field columns of the selected events, all of layout
+	private void decodeColumns(ArchiveLayout layout, int selectedCount, int contractCount) {
+		for (int field = 0; field < layout.getFieldCount(); field++) {
+			int fieldOffset = layout.getFieldOffset(field);
+			byte kind = layout.getFieldKind(field);
+			readVarLong();
+			Arrays.fill(previousInts, 0, contractCount, 0);
+			Arrays.fill(previousLongs, 0, contractCount, 0L);
+			long previousTime = 0L;
+			for (int j = 0; j < selectedCount; j++) {
+				int i = selected[j];
+				int id = eventContractIds[i];
+				switch (kind) {
+					case ArchiveLayout.BYTE: {
+						int run = (int) readVarLong();
+						byte value = block[position++];
+						for (int k = j; k < j + run; k++) {
+							int offset = eventOffsets[selected[k]];
+							if (offset >= 0) frames[offset + fieldOffset] = value;
+						}
+						j += run - 1;
+						break;
+					}
+					case ArchiveLayout.INT: {
+						int value = ArchiveWriter.unzigzag((int) readVarLong());
+						if (eventOffsets[i] >= 0) framesView.putInt(eventOffsets[i] + fieldOffset, value);
+						break;
+					}
+					case ArchiveLayout.INT_DELTA: {
+						int value = previousInts[id] + ArchiveWriter.unzigzag((int) readVarLong());
+						previousInts[id] = value;
+						if (eventOffsets[i] >= 0) framesView.putInt(eventOffsets[i] + fieldOffset, value);
+						break;
+					}
+					case ArchiveLayout.LONG_DELTA: {
+						long value = previousLongs[id] + ArchiveWriter.unzigzag(readVarLong());
+						previousLongs[id] = value;
+						if (eventOffsets[i] >= 0) framesView.putLong(eventOffsets[i] + fieldOffset, value);
+						break;
+					}
+					default: {
+						long value = previousTime + ArchiveWriter.unzigzag(readVarLong());
+						previousTime = value;
+						if (eventOffsets[i] >= 0) framesView.putLong(eventOffsets[i] + fieldOffset, value);
+					}
+				}
+			}
+		}
+	}
+
+	//Contract [length, bytes] at offset, compared to the underlying up to its '_'
+	private boolean isUnderlying(int offset) {
+		if (underlying == null) {
+			return true;
+		}
+		int length = block[offset];
+		if (length <= underlying.length || block[offset + 1 + underlying.length] != '_') {
+			return false;
+		}
+		for (int i = 0; i < underlying.length; i++) {
+			if (block[offset + 1 + i] != underlying[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private long readVarLong() {
+		long value = 0L;
+		int shift = 0;
+		byte b;
+		do {
+			b = block[position++];
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+}
@@ -0,0 +1,316 @@
+package intrinio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+//Writes one partition of a columnar archive. The file is [int magic][int version][int partition count][int partition], then
+//blocks of up to BLOCK_EVENTS events in recorded order: [int event count][int payload length], and a payload of
+//[varint contract count][contract length, contract bytes]..., then [varint length][column bytes] for the event types as runs of
+//[varint run length][byte ArchiveLayout], the contract ids, and each field of each ArchiveLayout in the block in turn, over the
+//events of that type. Little-endian.
+//Staging (add, handOff, finish) happens on one thread and encoding (encode) on another, never both at once: a block that
+//fills is set aside, handed off with the others, and encoded and written while the next ones are staged.
+final class ArchiveWriter {
+	static final int MAGIC = 0x52414F49;
+	static final int VERSION = 2;
+	static final int FILE_HEADER_SIZE = 16;
+	static final int BLOCK_HEADER_SIZE = 8;
+	static final int BLOCK_EVENTS = 65536;
+	private static final ArchiveLayout[] LAYOUTS = ArchiveLayout.values();
+
+	//Up to BLOCK_EVENTS messages of any type, as recorded
+	private static final class Block {
+		final byte[] layouts = new byte[BLOCK_EVENTS];
+		final int[] offsets = new int[BLOCK_EVENTS];
+		byte[] raw = new byte[1 << 20];
+		ByteBuffer view = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+		int count = 0;
+		int size = 0;
+
+		void add(ByteBuffer buffer, int messageOffset, ArchiveLayout layout) {
+			int messageSize = layout.getMessageSize();
+			if (size + messageSize > raw.length) {
+				raw = Arrays.copyOf(raw, raw.length * 2);
+				view = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			buffer.get(messageOffset, raw, size, messageSize);
+			layouts[count] = (byte) layout.ordinal();
+			offsets[count++] = size;
+			size += messageSize;
+		}
+	}
+
+	private final FileChannel channel;
+	//staging side
+	private Block staged;
+	private final ArrayList<Block> ready = new ArrayList<Block>();
+	private final ArrayList<Block> spares = new ArrayList<Block>();
+	private long messageCount = 0L;
+	//encoding side
+	private final ArrayList<Block> handedOff = new ArrayList<Block>();
+	private final ColumnBuffer payload = new ColumnBuffer(1 << 20);
+	private final ColumnBuffer column = new ColumnBuffer(1 << 18);
+	private final HashMap<String, Integer> contractIds = new HashMap<String, Integer>();
+	private final int[] eventContractIds = new int[BLOCK_EVENTS];
+	//the events of one type
+	private final int[] selected = new int[BLOCK_EVENTS];
+	private int[] previousInts = new int[1024];
+	private long[] previousLongs = new long[1024];
+
+	ArchiveWriter(Path path, int partitionCount, int partition) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		write(ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).putInt(MAGIC).putInt(VERSION).putInt(partitionCount).putInt(partition).flip());
+	}
+
+	//Returns true when this message fills a block, which is then ready to hand off
+	boolean add(ByteBuffer buffer, int messageOffset, ArchiveLayout layout) {
+		if (staged == null) {
+			staged = takeSpare();
+		}
+		staged.add(buffer, messageOffset, layout);
+		messageCount++;
+		if (staged.count == BLOCK_EVENTS) {
+			ready.add(staged);
+			staged = null;
+			return true;
+		}
+		return false;
+	}
+
+	long getMessageCount() {
+		return messageCount;
+	}
+
+	//Sets the partly filled block aside too, once every message has been added
+	void finish() {
+		if (staged != null) {
+			ready.add(staged);
+			staged = null;
+		}
+	}
+
+	//Passes the blocks set aside so far to the encoding side, taking back the ones it has already written.
+	//Must not be called while encode is running.
+	void handOff() {
+		spares.addAll(handedOff);
+		handedOff.clear();
+		handedOff.addAll(ready);
+		ready.clear();
+	}
+
+	//Encodes and writes the blocks last handed off, in the order they filled
+	void encode() throws IOException {
+		for (Block block : handedOff) {
+			write(block);
+		}
+	}
+
+	void close() throws IOException {
+		channel.force(false);
+		channel.close();
+	}
+
+	private Block takeSpare() {
+		if (spares.isEmpty()) {
+			return new Block();
+		}
+		Block block = spares.remove(spares.size() - 1);
+		block.count = 0;
+		block.size = 0;
+		return block;
+	}
+
+	private void write(Block block) throws IOException {
+		int count = block.count;
+		byte[] raw = block.raw;
+		ByteBuffer view = block.view;
+		byte[] layouts = block.layouts;
+		int[] offsets = block.offsets;
+		//message layout: contract length [0], contract [1-21]
+		contractIds.clear();
+		column.clear();
+		for (int i = 0; i < count; i++) {
+			int offset = offsets[i];
+			String contract = new String(raw, offset + 1, raw[offset], StandardCharsets.ISO_8859_1);
+			Integer id = contractIds.get(contract);
+			if (id == null) {
+				id = contractIds.size();
+				contractIds.put(contract, id);
+				column.put(raw, offset, raw[offset] + 1);
+			}
+			eventContractIds[i] = id;
+		}
+		int contractCount = contractIds.size();
+		payload.clear();
+		payload.putVarLong(contractCount);
+		payload.put(column);
+		column.clear();
+		for (int i = 0; i < count; i++) {
+			int run = 1;
+			while (i + run < count && layouts[i + run] == layouts[i]) run++;
+			column.putVarLong(run);
+			column.put(layouts[i]);
+			i += run - 1;
+		}
+		payload.putVarLong(column.size());
+		payload.put(column);
+		column.clear();
+		for (int i = 0; i < count; i++) {
+			column.putVarLong(eventContractIds[i]);
+		}
+		payload.putVarLong(column.size());
+		payload.put(column);
+		if (previousInts.length < contractCount) {
+			previousInts = new int[Math.max(contractCount, previousInts.length * 2)];
+			previousLongs = new long[previousInts.length];
+		}
+		for (ArchiveLayout layout : LAYOUTS) {
+			int selectedCount = 0;
+			for (int i = 0; i < count; i++) {
+				if (layouts[i] == layout.ordinal()) {
+					selected[selectedCount++] = i;
+				}
+			}
+			if (selectedCount > 0) {
+				writeColumns(layout, selectedCount, raw, view, offsets);
+			}
+		}
+		write(ByteBuffer.allocate(BLOCK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN).putInt(count).putInt(payload.size()).flip());
+		write(payload.wrap());
+	}
+
+	//The field columns of the selected events, all of layout
+	private void writeColumns(ArchiveLayout layout, int selectedCount, byte[] raw, ByteBuffer view, int[] offsets) {
+		int contractCount = contractIds.size();
+		for (int field = 0; field < layout.getFieldCount(); field++) {
+			int fieldOffset = layout.getFieldOffset(field);
+			byte kind = layout.getFieldKind(field);
+			column.clear();
+			Arrays.fill(previousInts, 0, contractCount, 0);
+			Arrays.fill(previousLongs, 0, contractCount, 0L);
+			long previousTime = 0L;
+			for (int j = 0; j < selectedCount; j++) {
+				int i = selected[j];
+				int position = offsets[i] + fieldOffset;
+				int id = eventContractIds[i];
+				switch (kind) {
+					case ArchiveLayout.BYTE: {
+						byte value = raw[position];
+						int run = 1;
+						while (j + run < selectedCount && raw[offsets[selected[j + run]] + fieldOffset] == value) run++;
+						column.putVarLong(run);
+						column.put(value);
+						j += run - 1;
+						break;
+					}
+					case ArchiveLayout.INT:
+						column.putVarLong(zigzag(view.getInt(position)));
+						break;
+					case ArchiveLayout.INT_DELTA: {
+						int value = view.getInt(position);
+						column.putVarLong(zigzag(value - previousInts[id]));
+						previousInts[id] = value;
+						break;
+					}
+					case ArchiveLayout.LONG_DELTA: {
+						long value = view.getLong(position);
+						column.putVarLong(zigzag(value - previousLongs[id]));
+						previousLongs[id] = value;
+						break;
+					}
+					default: {
+						long value = view.getLong(position);
+						column.putVarLong(zigzag(value - previousTime));
+						previousTime = value;
+					}
+				}
+			}
+			payload.putVarLong(column.size());
+			payload.put(column);
+		}
+	}
+
+	private void write(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	//ints are zigzagged as ints so deltas that wrap around still take at most 5 bytes
+	private static long zigzag(int value) {
+		return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1L);
+	}
+
+	//A growable byte array
+	private static final class ColumnBuffer {
+		private byte[] bytes;
+		private int size = 0;
+
+		ColumnBuffer(int capacity) {
+			bytes = new byte[capacity];
+		}
+
+		int size() {
+			return size;
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		void put(byte value) {
+			ensure(1);
+			bytes[size++] = value;
+		}
+
+		void put(byte[] source, int offset, int length) {
+			ensure(length);
+			System.arraycopy(source, offset, bytes, size, length);
+			size += length;
+		}
+
+		void put(ColumnBuffer source) {
+			put(source.bytes, 0, source.size);
+		}
+
+		//7 bits at a time, lowest first, high bit set while more follow
+		void putVarLong(long value) {
+			ensure(10);
+			while ((value & ~0x7FL) != 0L) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		ByteBuffer wrap() {
+			return ByteBuffer.wrap(bytes, 0, size);
+		}
+
+		private void ensure(int length) {
+			if (size + length > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(size + length, bytes.length * 2));
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package intrinio;
+
+//One partition of a BacktestRunner: a fixed share of the underlyings, replayed in recorded order.
+//Its handlers are called one chunk of frames at a time from the runner's pool, never concurrently and each chunk only after the
+//previous one is done, so they need no synchronization.
+public final class BacktestPartition {
+	private final int partition;
+	private final int partitionCount;
+	final EventHandlers handlers = new EventHandlers();
+	long messageCount = 0L;
+
+	BacktestPartition(int partition, int partitionCount) {
+		this.partition = partition;
+		this.partitionCount = partitionCount;
+	}
+
+	public int getPartition() {
+		return partition;
+	}
+
+	public int getPartitionCount() {
+		return partitionCount;
+	}
+
+	//Messages delivered to this partition
+	public long getMessageCount() {
+		return messageCount;
+	}
+
+	public void setOnTrade(OnTrade onTrade) {
+		handlers.setOnTrade(onTrade);
+	}
+
+	public void setOnTradeView(OnTradeView onTradeView) {
+		handlers.setOnTradeView(onTradeView);
+	}
+
+	public void setOnTradeBatch(OnTradeBatch onTradeBatch) {
+		handlers.setOnTradeBatch(onTradeBatch);
+	}
+
+	public void setOnQuote(OnQuote onQuote) {
+		handlers.setOnQuote(onQuote);
+	}
+
+	public void setOnQuoteView(OnQuoteView onQuoteView) {
+		handlers.setOnQuoteView(onQuoteView);
+	}
+
+	public void setOnQuoteBatch(OnQuoteBatch onQuoteBatch) {
+		handlers.setOnQuoteBatch(onQuoteBatch);
+	}
+
+	public void setOnRefresh(OnRefresh onRefresh) {
+		handlers.setOnRefresh(onRefresh);
+	}
+
+	public void setOnRefreshView(OnRefreshView onRefreshView) {
+		handlers.setOnRefreshView(onRefreshView);
+	}
+
+	public void setOnUnusualActivity(OnUnusualActivity onUnusualActivity) {
+		handlers.setOnUnusualActivity(onUnusualActivity);
+	}
+
+	public void setOnUnusualActivityView(OnUnusualActivityView onUnusualActivityView) {
+		handlers.setOnUnusualActivityView(onUnusualActivityView);
+	}
+}
@@ -0,0 +1,174 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+//Replays recorded days (journal directories) through per-partition handlers on a fork-join pool. Underlyings are split into a
+//fixed number of partitions by the same hash as ShardingMode.UNDERLYING. The days are read once, in the order given, a chunk of
+//frames at a time on the calling thread, which works out the partition of every message. The partitions then replay the chunk in
+//parallel while the next one is read, each in recorded order through the same FrameProcessor as live data, and a chunk only starts
+//once the previous one is done. What a partition sees, and in what order, depends only on the journals and the partition count,
+//never on the number of cores.
+public final class BacktestRunner {
+	private static final int CHUNK_FRAMES = 4096;
+
+	private final List<String> journalDirectories;
+	private final int partitionCount;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	public BacktestRunner(List<String> journalDirectories, int partitionCount) throws Exception {
+		if (journalDirectories == null || journalDirectories.isEmpty()) {
+			throw new Exception("At least one journal directory is required");
+		}
+		if (partitionCount < 1 || partitionCount > Short.MAX_VALUE) {
+			throw new Exception("The partition count must be between 1 and " + Short.MAX_VALUE);
+		}
+		this.journalDirectories = new ArrayList<String>(journalDirectories);
+		this.partitionCount = partitionCount;
+	}
+
+	//Threads working on partitions at once. Has no effect on the results.
+	public void setParallelism(int parallelism) throws Exception {
+		if (parallelism < 1) {
+			throw new Exception("The parallelism must be at least 1");
+		}
+		this.parallelism = parallelism;
+	}
+
+	public int getPartitionCount() {
+		return partitionCount;
+	}
+
+	//onPartition registers each partition's handlers. Returns the partitions in partition order once all of them are done,
+	//so per-partition results can be combined in a fixed order.
+	public List<BacktestPartition> run(OnBacktestPartition onPartition) throws Exception {
+		BacktestPartition[] partitions = new BacktestPartition[partitionCount];
+		for (int i = 0; i < partitionCount; i++) {
+			partitions[i] = new BacktestPartition(i, partitionCount);
+		}
+		FrameProcessor[] processors = new FrameProcessor[partitionCount];
+		//one chunk is replayed while the other is read
+		Chunk[] chunks = { new Chunk(), new Chunk() };
+		int filling = 0;
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			ForkJoinTask<Void> replaying = null;
+			for (String journalDirectory : journalDirectories) {
+				FrameJournalReader reader = new FrameJournalReader(journalDirectory);
+				while (reader.next()) {
+					Chunk chunk = chunks[filling];
+					chunk.add(reader.getBuffer(), reader.getFrameOffset(), partitionCount);
+					if (chunk.frameCount == CHUNK_FRAMES) {
+						replaying = replay(pool, new ReplayTask(partitions, processors, onPartition, chunk, 0, partitionCount), replaying);
+						filling ^= 1;
+						chunks[filling].frameCount = 0;
+					}
+				}
+			}
+			//always run the last chunk, even if empty, so every partition has been started
+			replay(pool, new ReplayTask(partitions, processors, onPartition, chunks[filling], 0, partitionCount), replaying).join();
+		} finally {
+			pool.shutdown();
+		}
+		return Arrays.asList(partitions);
+	}
+
+	//Waits for the previous chunk to be replayed before starting on the next
+	private static ForkJoinTask<Void> replay(ForkJoinPool pool, ReplayTask task, ForkJoinTask<Void> previous) {
+		if (previous != null) {
+			previous.join();
+		}
+		return pool.submit(task);
+	}
+
+	//Frames read from the journals, with the partition of each of their messages
+	private static final class Chunk {
+		final ByteBuffer[] buffers = new ByteBuffer[CHUNK_FRAMES];
+		final int[] offsets = new int[CHUNK_FRAMES];
+		//the message count is a signed byte
+		final short[][] messageShards = new short[CHUNK_FRAMES][128];
+		//messages before an unknown one, if any
+		final int[] knownCounts = new int[CHUNK_FRAMES];
+		final boolean[] hasUnknown = new boolean[CHUNK_FRAMES];
+		int frameCount = 0;
+
+		void add(ByteBuffer buffer, int start, int partitionCount) {
+			int frame = frameCount++;
+			buffers[frame] = buffer;
+			offsets[frame] = start;
+			short[] shards = messageShards[frame];
+			int count = buffer.get(start);
+			int offset = start + 1;
+			int known = 0;
+			boolean isUnknown = false;
+			for (int i = 0; i < count; i++) {
+				byte type = buffer.get(offset + 22);
+				if (type < 0) {
+					isUnknown = true;
+					break;
+				}
+				shards[i] = (short) ShardingMode.UNDERLYING.shardOf(buffer, offset, partitionCount);
+				known++;
+				offset += FrameProcessor.getMessageSize(type);
+			}
+			knownCounts[frame] = known;
+			hasUnknown[frame] = isUnknown;
+		}
+	}
+
+	//Splits the partitions in halves down to one per task, which replays that partition's messages of the chunk
+	private static final class ReplayTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final BacktestPartition[] partitions;
+		private final FrameProcessor[] processors;
+		private final OnBacktestPartition onPartition;
+		private final Chunk chunk;
+		private final int from;
+		private final int to;
+
+		ReplayTask(BacktestPartition[] partitions, FrameProcessor[] processors, OnBacktestPartition onPartition, Chunk chunk, int from, int to) {
+			this.partitions = partitions;
+			this.processors = processors;
+			this.onPartition = onPartition;
+			this.chunk = chunk;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ReplayTask(partitions, processors, onPartition, chunk, from, middle), new ReplayTask(partitions, processors, onPartition, chunk, middle, to));
+				return;
+			}
+			BacktestPartition partition = partitions[from];
+			FrameProcessor processor = processors[from];
+			if (processor == null) {
+				onPartition.onBacktestPartition(partition);
+				processor = processors[from] = new FrameProcessor(partition.handlers, ShardingMode.UNDERLYING);
+			}
+			int shard = partition.getPartition();
+			for (int frame = 0; frame < chunk.frameCount; frame++) {
+				short[] shards = chunk.messageShards[frame];
+				int matched = 0;
+				for (int i = 0; i < chunk.knownCounts[frame]; i++) {
+					if (shards[i] == shard) {
+						matched++;
+					}
+				}
+				//every partition gets to report an unknown message
+				if (matched > 0 || chunk.hasUnknown[frame]) {
+					processor.process(chunk.buffers[frame], chunk.offsets[frame], shards, shard);
+					partition.messageCount += matched;
+				}
+			}
+		}
+	}
+}
@@ -9,65 +9,65 @@ import java.net.ProtocolException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BooleanSupplier;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class Client implements WebSocket.Listener {
 	//region Final data members
 	private final String FIREHOSE_CHANNEL = "$FIREHOSE";
 	private final long[] selfHealBackoffs = {1000, 30000, 60000, 300000, 600000};
-	private final int TRADE_MESSAGE_SIZE = 72; //61 used + 11 pad
-	private final int QUOTE_MESSAGE_SIZE = 52; //48 used + 4 pad
-	private final int REFRESH_MESSAGE_SIZE = 52; //44 used + 8 pad
-	private final int UNUSUAL_ACTIVITY_MESSAGE_SIZE = 74; //62 used + 12 pad
+	private final int SHARD_QUEUE_CAPACITY = 1024;
 	private final ReentrantReadWriteLock tLock = new ReentrantReadWriteLock();
 	private final ReentrantReadWriteLock wsLock = new ReentrantReadWriteLock();
-	private final LinkedBlockingDeque<byte[]> data = new LinkedBlockingDeque<>();
 	private final HashSet<String> channels = new HashSet<String>();
-	private final Lock dataBucketLock = new ReentrantLock();
-	private final LinkedBlockingDeque<Tuple<byte[], Boolean>> dataBucket = new LinkedBlockingDeque<Tuple<byte[], Boolean>>();
 	private final WebSocketState wsState = new WebSocketState();
+	private final EventHandlers handlers = new EventHandlers();
+	private final ClientMetrics metrics = new ClientMetrics();
 	//endregion Final data members
 
 	//region Data Members
 	private Config config;
 	private Thread[] processDataThreads;
+	private Thread routeDataThread;
+	private Thread deliverQuotesThread;
+	private QuoteConflator quoteConflator;
+	private List<ArrayBlockingQueue<Frame>> shards;
+	private FrameQueue data;
+	private FrameAssembler frameAssembler;
+	private Transport transport;
+	private OverflowController overflowController;
+	private LaneRouter laneRouter;
+	private FrameJournal frameJournal;
+	private LatencyRecorder latencyRecorder;
+	private MetricsServer metricsServer;
+	private DemandController demandController;
 	private boolean isCancellationRequested = false;
 	private AtomicReference<Token> token = new AtomicReference<Token>(new Token(null, LocalDateTime.now()));
-	private AtomicLong dataMsgCount = new AtomicLong(0l);
-	private AtomicLong textMsgCount = new AtomicLong(0l);
-	private OnTrade onTrade = (Trade trade) -> {};
-	private boolean useOnTrade = false;
-	private OnQuote onQuote = (Quote quote) -> {};
-	private boolean useOnQuote = false;
-	private OnRefresh onRefresh = (Refresh r) -> {};
-	private boolean useOnRefresh = false;
-	private OnUnusualActivity onUnusualActivity = (UnusualActivity ua) -> {};
-	private boolean useOnUnusualActivity = false;
 	//endregion Data Members
 
 	//region Constructors
 	public Client() {
 		try {
 			this.config = Config.load();
-			processDataThreads = new Thread[config.getNumThreads()];
+			this.config.validate();
+			processDataThreads = new Thread[getWorkerCount()];
+			initializeFrameQueue();
 		} catch (Exception e) {
 			Client.Log("Initialization Failure. " + e.getMessage());
 		}
@@ -76,7 +76,9 @@ public class Client implements WebSocket.Listener {
 	public Client(Config config) {
 		try {
 			this.config = config;
-			processDataThreads = new Thread[config.getNumThreads()];
+			this.config.validate();
+			processDataThreads = new Thread[getWorkerCount()];
+			initializeFrameQueue();
 		} catch (Exception e) {
 			Client.Log("Initialization Failure. " + e.getMessage());;
 		}
@@ -89,33 +91,190 @@ public class Client implements WebSocket.Listener {
 
 	//region Public Get Set
 	public String getStats() {
-		return String.format("Data Messages = %d, Text Messages = %d, Queue Depth = %d", this.dataMsgCount.get(), this.textMsgCount.get(), getDataSize());
+		String stats;
+		if (laneRouter != null) {
+			stats = String.format("Data Messages = %d, Text Messages = %d, Queue Depth = %d, Dropped Messages = %d, Times Blocked = %d, Lane Depths = [%s]", metrics.dataMessages.sum(), metrics.textMessages.sum(), laneRouter.size(), laneRouter.getDroppedCount(), laneRouter.getBlockedCount(), laneRouter.getDepths());
+		} else {
+			stats = String.format("Data Messages = %d, Text Messages = %d, Queue Depth = %d, Dropped Messages = %d, Times Blocked = %d", metrics.dataMessages.sum(), metrics.textMessages.sum(), getDataSize(), overflowController.getDroppedCount(), overflowController.getBlockedCount());
+		}
+		if (frameJournal != null) {
+			stats += String.format(", Journaled Frames = %d, Journal Skipped Frames = %d", frameJournal.getJournaledCount(), frameJournal.getSkippedCount());
+		}
+		if (quoteConflator != null) {
+			stats += String.format(", Pending Quotes = %d, Conflated Quotes = %d", quoteConflator.size(), quoteConflator.getConflatedCount());
+		}
+		return stats;
+	}
+
+	//Counters since the start and current queue gauges, typed. Cheap enough to poll; see also metricsPort in the config.
+	public MetricsSnapshot getMetrics() {
+		MetricsSnapshot snapshot = new MetricsSnapshot();
+		snapshot.dataMessages = metrics.dataMessages.sum();
+		snapshot.textMessages = metrics.textMessages.sum();
+		snapshot.frames = metrics.frames.sum();
+		snapshot.frameBytes = metrics.frameBytes.sum();
+		for (EventLane lane : EventLane.values()) {
+			snapshot.events[lane.ordinal()] = metrics.getEvents(lane);
+		}
+		for (Exchange exchange : Exchange.values()) {
+			snapshot.tradesByExchange.put(exchange, metrics.getTrades(exchange));
+		}
+		snapshot.unknownExchangeTrades = metrics.getTrades(null);
+		snapshot.frameSizeCounts = metrics.getFrameSizeCounts();
+		snapshot.reconnects = metrics.reconnects.sum();
+		snapshot.tokenRefreshes = metrics.tokenRefreshes.sum();
+		if (laneRouter != null) {
+			snapshot.queueDepth = laneRouter.size();
+			snapshot.ringOccupancy = laneRouter.getRingOccupancy();
+			snapshot.laneDepths = new int[EventLane.values().length];
+			for (EventLane lane : EventLane.values()) {
+				snapshot.laneDepths[lane.ordinal()] = laneRouter.getLane(lane).size();
+			}
+			snapshot.droppedMessages = laneRouter.getDroppedCount();
+			snapshot.timesBlocked = laneRouter.getBlockedCount();
+		} else if (data != null) {
+			snapshot.queueDepth = getDataSize();
+			snapshot.ringOccupancy = data instanceof RingFrameQueue ? ((RingFrameQueue) data).getOccupancy() : 0.0D;
+			snapshot.droppedMessages = overflowController.getDroppedCount();
+			snapshot.timesBlocked = overflowController.getBlockedCount();
+		}
+		if (frameJournal != null) {
+			snapshot.journaledFrames = frameJournal.getJournaledCount();
+			snapshot.journalSkippedFrames = frameJournal.getSkippedCount();
+		}
+		if (quoteConflator != null) {
+			snapshot.pendingQuotes = quoteConflator.size();
+			snapshot.conflatedQuotes = quoteConflator.getConflatedCount();
+		}
+		return snapshot;
+	}
+
+	//Latencies of one stage for one event type since the start or the last reset, in nanoseconds. Empty unless latencyHistograms
+	//is set in the config. With reset, the histogram starts over, for reporting by interval.
+	public LatencySnapshot getLatency(LatencyStage stage, EventLane eventType, boolean reset) {
+		if (latencyRecorder == null) {
+			return new LatencySnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0L);
+		}
+		return latencyRecorder.snapshot(stage, eventType, reset);
+	}
+
+	//One line per stage and event type with anything recorded
+	public String getLatencyReport(boolean reset) {
+		StringBuilder report = new StringBuilder();
+		for (EventLane eventType : EventLane.values()) {
+			for (LatencyStage stage : LatencyStage.values()) {
+				LatencySnapshot snapshot = getLatency(stage, eventType, reset);
+				if (snapshot.getCount() > 0L) {
+					report.append(String.format("%s %s: %s%n", eventType, stage, snapshot));
+				}
+			}
+		}
+		return report.toString();
 	}
 
 	public void setOnTrade(OnTrade onTrade) {
-		this.onTrade = onTrade;
-		this.useOnTrade = true;
+		handlers.setOnTrade(onTrade);
+	}
+
+	public void setOnTradeView(OnTradeView onTradeView) {
+		handlers.setOnTradeView(onTradeView);
+	}
+
+	public void setOnTradeBatch(OnTradeBatch onTradeBatch) {
+		handlers.setOnTradeBatch(onTradeBatch);
 	}
 
 	public void setOnQuote(OnQuote onQuote) {
-		this.onQuote = onQuote;
-		this.useOnQuote = true;
+		handlers.setOnQuote(onQuote);
+	}
+
+	public void setOnQuoteView(OnQuoteView onQuoteView) {
+		handlers.setOnQuoteView(onQuoteView);
+	}
+
+	public void setOnQuoteBatch(OnQuoteBatch onQuoteBatch) {
+		handlers.setOnQuoteBatch(onQuoteBatch);
 	}
 
 	public void setOnRefresh(OnRefresh onRefresh) {
-		this.onRefresh = onRefresh;
-		this.useOnRefresh = true;
+		handlers.setOnRefresh(onRefresh);
+	}
+
+	public void setOnRefreshView(OnRefreshView onRefreshView) {
+		handlers.setOnRefreshView(onRefreshView);
 	}
 
 	public void setOnUnusualActivity(OnUnusualActivity onUnusualActivity) {
-		this.onUnusualActivity = onUnusualActivity;
-		this.useOnUnusualActivity = true;
+		handlers.setOnUnusualActivity(onUnusualActivity);
+	}
+
+	public void setOnUnusualActivityView(OnUnusualActivityView onUnusualActivityView) {
+		handlers.setOnUnusualActivityView(onUnusualActivityView);
+	}
+
+	//Must be set before start() to apply to the processing threads
+	public void setOnThreadStart(OnThreadStart onThreadStart) {
+		handlers.onThreadStart = onThreadStart;
 	}
 	//endregion Public Get Set
 
 	//region Private Get Set
 	private int getDataSize() {
-		return dataBucket.size();
+		return data.size();
+	}
+
+	private int getWorkerCount() {
+		if (config.getExecutionMode() == ExecutionMode.VIRTUAL) {
+			if (WorkerThreads.isVirtualSupported()) {
+				return config.getVirtualThreadCount();
+			}
+			Client.Log("Virtual threads need Java 21 or later. Using %d platform threads instead.", config.getNumThreads());
+		}
+		return config.getNumThreads();
+	}
+
+	private void initializeFrameQueue() {
+		if (config.getUseLanes()) {
+			initializeLanes();
+		} else {
+			initializeSharedQueue();
+		}
+		if (config.getLatencyHistograms()) {
+			this.latencyRecorder = new LatencyRecorder();
+		}
+		if (config.getJournalDirectory() != null && !config.getJournalDirectory().isBlank()) {
+			//without lanes, dropping or conflating quotes strips them out of the received frame itself
+			boolean isChangingFrames = !config.getUseLanes() && config.getQueueCapacity() > 0
+					&& (config.getOverflowPolicy() == OverflowPolicy.DROP_QUOTES || config.getOverflowPolicy() == OverflowPolicy.CONFLATE);
+			this.frameJournal = new FrameJournal(config.getJournalDirectory(), config.getJournalSegmentSize(), config.getJournalIndexBucketMillis() * 1_000_000L, this.data, isChangingFrames);
+		}
+	}
+
+	private void initializeSharedQueue() {
+		if (config.getUseRingBuffer()) {
+			this.data = new RingFrameQueue(config.getRingBufferSize(), config.getWaitStrategy());
+		} else {
+			this.data = new DequeFrameQueue(1024, config.getWaitStrategy());
+		}
+		this.frameAssembler = new FrameAssembler(this.data);
+		if (config.getConflateQuotes() || config.getOverflowPolicy() == OverflowPolicy.CONFLATE) {
+			this.quoteConflator = new QuoteConflator();
+		}
+		this.demandController = new DemandController(this.data, config.getDemandWindow(), config.getQueueCapacity());
+		this.overflowController = new OverflowController(this.data, config.getQueueCapacity(), config.getOverflowPolicy(), this.quoteConflator, this.demandController);
+		this.transport = Transport.of(config.getTransportType(), handlers);
+	}
+
+	//Received frames are only assembled in data; each lane has its own queues, so demand is only bounded by the lanes pausing it
+	private void initializeLanes() {
+		this.data = new DequeFrameQueue(16, config.getWaitStrategy());
+		this.frameAssembler = new FrameAssembler(this.data);
+		if (config.getConflateQuotes() || config.getLaneConfig(EventLane.QUOTE).getOverflowPolicy() == OverflowPolicy.CONFLATE) {
+			this.quoteConflator = new QuoteConflator();
+		}
+		this.demandController = new DemandController(this.data, config.getDemandWindow(), 0);
+		this.laneRouter = new LaneRouter(config, this.quoteConflator, this.demandController);
+		this.transport = Transport.of(config.getTransportType(), handlers);
 	}
 
 	private boolean isAllReady() {
@@ -154,6 +313,10 @@ public class Client implements WebSocket.Listener {
 	//endregion Private Get Set
 
 	//region Public Methods
+	public void onOpen(WebSocket ws) {
+		demandController.opened(ws);
+	}
+
 	public CompletionStage<Void> onClose(WebSocket ws, int status, String reason) {
 		wsLock.writeLock().lock();
 		try {
@@ -183,7 +346,6 @@ public class Client implements WebSocket.Listener {
 	public void onError(WebSocket ws, Throwable err) {
 		try {
 			Client.Log("Websocket - Error - %s", err.getMessage());
-			ws.request(1);
 			if (err.getMessage() == "Connection reset"){
 				onClose(ws, 1000, "Websocket - Error");
 			}
@@ -194,31 +356,42 @@ public class Client implements WebSocket.Listener {
 	}
 
 	public CompletionStage<Void> onText(WebSocket ws, CharSequence data, boolean isComplete) {
-		textMsgCount.addAndGet(1l);
+		metrics.textMessages.increment();
 		if (data != null && data.length() > 0) {
 			try {
 				Client.Log("Error received: %s", data.toString());
-				ws.request(1);
 			}
 			catch (Exception e) {
 				Client.Log("Failure parsing error from server in onText(). " + e.getMessage());
-				ws.request(1);
 			}
 		}
-		else
-			ws.request(1);
+		demandController.received();
 		return null;
 	}
 
 	public CompletionStage<Void> onBinary(WebSocket ws, ByteBuffer data, boolean isComplete) {
-		dataMsgCount.addAndGet(1);
-		byte[] bytes = new byte[data.remaining()];
-		data.get(bytes);
-		this.dataBucket.add(new Tuple<byte[], Boolean>(bytes, isComplete));
-		if (isComplete) {
-			this.data.add(assembleCompleteDataMessage());
-		}
-		ws.request(1);
+		metrics.dataMessages.increment();
+		Frame frame = frameAssembler.append(data, isComplete);
+		if (frame != null) {
+			metrics.frameReceived(frame.getLength());
+			FlightEvents.INSTANCE.frameReceived(frame.getLength(), frame.getMessageCount());
+			if (frameJournal != null) {
+				frameJournal.append(frame);
+			}
+			try {
+				if (laneRouter != null) {
+					laneRouter.route(frame);
+					if (frame.dereference()) {
+						this.data.release(frame);
+					}
+				} else {
+					overflowController.publish(frame);
+				}
+			} catch (InterruptedException e) {
+				Client.Log("Websocket - Interrupted while queueing data");
+			}
+		}
+		demandController.received();
 		return null;
 	}
 
@@ -245,6 +418,21 @@ public class Client implements WebSocket.Listener {
 		}
 	}
 
+	public void join(OptionContract contract) {
+		while (!this.isAllReady()) {
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {}
+		}
+		this._join(contract.toServerFormat(), contract.toString(), false);
+	}
+
+	public void join(OptionContract[] contracts) {
+		for (OptionContract contract : contracts) {
+			this.join(contract);
+		}
+	}
+
 	public void join() { this.join(config.getSymbols()); }
 
 	public void joinLobby() {
@@ -272,6 +460,16 @@ public class Client implements WebSocket.Listener {
 		}
 	}
 
+	public void leave(OptionContract contract) {
+		this._leave(contract.toServerFormat(), contract.toString());
+	}
+
+	public void leave(OptionContract[] contracts) {
+		for (OptionContract contract : contracts) {
+			this.leave(contract);
+		}
+	}
+
 	public void leave() {
 		for (String channel : this.channels) {
 			this.leave(channel);
@@ -286,6 +484,7 @@ public class Client implements WebSocket.Listener {
 		String token = this.fetchToken();
 		this.initializeWebSocket(token);
 		this.startThreads();
+		this.startMetricsServer();
 	}
 
 	public void stop() {
@@ -303,52 +502,116 @@ public class Client implements WebSocket.Listener {
 		Client.Log("Websocket - Closing");
 		stopThreads(); //this sets isCancellationRequested = true so the following close event doesn't try to reconnect
 		onClose(this.wsState.getWebSocket(), 1000, "Websocket - Error");
+		if (metricsServer != null) {
+			metricsServer.stop();
+			metricsServer = null;
+		}
 		Client.Log("Stopped");
 	}
+
+	//Feeds the frames recorded in a journal directory to the registered handlers on the calling thread, in order, and returns the
+	//number of messages replayed. No connection is needed; quotes are never conflated. speed only applies to SCALED.
+	public long replay(String journalDirectory, ReplayMode mode, double speed) throws Exception {
+		if (mode == ReplayMode.SCALED && !(speed > 0.0D)) {
+			throw new Exception("The replay speed must be greater than 0");
+		}
+		double divisor = mode == ReplayMode.SCALED ? speed : 1.0D;
+		FrameProcessor processor = new FrameProcessor(handlers, ShardingMode.NONE);
+		FrameJournalReader reader = new FrameJournalReader(journalDirectory);
+		long messages = 0L;
+		long firstReceivedNanos = 0L;
+		long startNanos = 0L;
+		boolean isFirst = true;
+		while (reader.next()) {
+			if (mode != ReplayMode.AS_FAST_AS_POSSIBLE) {
+				if (isFirst) {
+					firstReceivedNanos = reader.getReceivedNanos();
+					startNanos = System.nanoTime();
+					isFirst = false;
+				} else {
+					long wait = startNanos + (long) ((reader.getReceivedNanos() - firstReceivedNanos) / divisor) - System.nanoTime();
+					if (wait > 0L) {
+						LockSupport.parkNanos(wait);
+					}
+				}
+			}
+			ByteBuffer buffer = reader.getBuffer();
+			int offset = reader.getFrameOffset();
+			processor.process(buffer, offset);
+			messages += buffer.get(offset);
+		}
+		return messages;
+	}
+
+	//Feeds a columnar archive written by ArchiveConverter to the registered handlers on the calling thread, and returns the number of
+	//messages. With an underlying (e.g. AAPL), only its partition is read. Recorded order is kept within each partition, not across them.
+	public long replayArchive(String archiveDirectory, String underlying) throws Exception {
+		List<Path> partitions = ArchiveConverter.getPartitions(Paths.get(archiveDirectory));
+		if (partitions.isEmpty()) {
+			throw new Exception("No archive in " + archiveDirectory);
+		}
+		if (underlying != null) {
+			byte[] symbol = underlying.getBytes(StandardCharsets.US_ASCII);
+			ByteBuffer key = ByteBuffer.allocate(symbol.length + 1).put((byte) symbol.length).put(symbol);
+			int partitionCount = new ArchiveReader(partitions.get(0), null).getPartitionCount();
+			partitions = List.of(ArchiveConverter.getPartitionPath(Paths.get(archiveDirectory), ArchiveConverter.partitionOf(key, 0, partitionCount)));
+		}
+		FrameProcessor processor = new FrameProcessor(handlers, ShardingMode.NONE);
+		long messages = 0L;
+		for (Path partition : partitions) {
+			ArchiveReader reader = new ArchiveReader(partition, underlying);
+			while (reader.next()) {
+				for (int frame = 0; frame < reader.getFrameCount(); frame++) {
+					processor.process(reader.getFrames(), reader.getFrameOffset(frame));
+				}
+				messages += reader.getMessageCount();
+			}
+		}
+		return messages;
+	}
 	//endregion Public Methods
 
 	//region Private Methods
 	private void processData(){
+		FrameProcessor processor = new FrameProcessor(handlers, config.getShardingMode(), quoteConflator, latencyRecorder, metrics);
 		while (!this.isCancellationRequested) {
 			try {
-				byte[] datum = data.poll(1, TimeUnit.SECONDS);
-				if (datum != null) {
-					int count = datum[0];
-					int offset = 1;
-					ByteBuffer buffer = ByteBuffer.wrap(datum);
-					buffer.position(0);
-					buffer.limit(datum.length);
-					for (long i = 0L; i < count; i++) {
-						buffer.position(0);
-						byte type = datum[offset + 22];
-						ByteBuffer offsetBuffer;
-						if (type == 1) {
-							offsetBuffer = buffer.slice(offset, QUOTE_MESSAGE_SIZE);
-							Quote quote = Quote.parse(offsetBuffer);
-							offset += QUOTE_MESSAGE_SIZE;
-							if (useOnQuote) onQuote.onQuote(quote);
-						}
-						else if (type == 0) {
-							offsetBuffer = buffer.slice(offset, TRADE_MESSAGE_SIZE);
-							Trade trade = Trade.parse(offsetBuffer);
-							offset += TRADE_MESSAGE_SIZE;
-							if (useOnTrade) onTrade.onTrade(trade);
-						}
-						else if (type > 2) {
-							offsetBuffer = buffer.slice(offset, UNUSUAL_ACTIVITY_MESSAGE_SIZE);
-							UnusualActivity ua = UnusualActivity.parse(offsetBuffer);
-							offset += UNUSUAL_ACTIVITY_MESSAGE_SIZE;
-							if (useOnUnusualActivity) onUnusualActivity.onUnusualActivity(ua);
-						}
-						else if (type == 2) {
-							offsetBuffer = buffer.slice(offset, REFRESH_MESSAGE_SIZE);
-							Refresh r = Refresh.parse(offsetBuffer);
-							offset += REFRESH_MESSAGE_SIZE;
-							if (useOnRefresh) onRefresh.onRefresh(r);
-						}
-						else {
-							Client.Log("Error parsing multi-part message. Type is %d", type);
-							i = count;
+				Frame frame = data.poll(1, TimeUnit.SECONDS);
+				if (frame != null) {
+					overflowController.frameTaken();
+					try {
+						processor.process(frame);
+					} finally {
+						if (frame.dereference())
+							data.release(frame);
+					}
+				}
+			} catch (Exception ex)
+			{
+				Client.Log("General Exception");
+			}
+		}
+	}
+
+	//Hashes each message once and hands the frame to every shard that has a message in it; each shard only dispatches its own
+	private void routeData(){
+		boolean[] hasWork = new boolean[shards.size()];
+		while (!this.isCancellationRequested) {
+			try {
+				Frame frame = data.poll(1, TimeUnit.SECONDS);
+				if (frame != null) {
+					overflowController.frameTaken();
+					int targets = FrameProcessor.assignShards(frame, config.getShardingMode(), hasWork);
+					if (targets == 0) {
+						if (frame.dereference())
+							data.release(frame);
+						continue;
+					}
+					//the router's hold passes to the first shard
+					frame.retain(targets - 1);
+					for (int i = 0; i < shards.size(); i++) {
+						if (hasWork[i]) {
+							while (!shards.get(i).offer(frame, 1, TimeUnit.SECONDS) && !this.isCancellationRequested);
 						}
 					}
 				}
@@ -359,16 +622,131 @@ public class Client implements WebSocket.Listener {
 		}
 	}
 
+	private void processShard(int shard){
+		FrameProcessor processor = new FrameProcessor(handlers, config.getShardingMode(), quoteConflator, latencyRecorder, metrics);
+		ArrayBlockingQueue<Frame> shardData = shards.get(shard);
+		while (!this.isCancellationRequested) {
+			try {
+				Frame frame = config.getWaitStrategy().poll(shardData, 1, TimeUnit.SECONDS);
+				if (frame != null) {
+					try {
+						processor.process(frame, shard, shards.size());
+					} finally {
+						if (frame.dereference())
+							data.release(frame);
+					}
+				}
+			} catch (Exception ex)
+			{
+				Client.Log("General Exception");
+			}
+		}
+	}
+
+	private void processLane(LaneRouter.Lane lane, int thread){
+		FrameProcessor processor = new FrameProcessor(handlers, ShardingMode.NONE, quoteConflator, latencyRecorder, metrics);
+		int index = lane.queueOf(thread);
+		FrameQueue queue = lane.queues[index];
+		OverflowController controller = lane.overflowControllers[index];
+		while (!this.isCancellationRequested) {
+			try {
+				Frame frame = queue.poll(1, TimeUnit.SECONDS);
+				if (frame != null) {
+					controller.frameTaken();
+					try {
+						processor.process(frame);
+					} finally {
+						queue.release(frame);
+					}
+				}
+			} catch (Exception ex)
+			{
+				Client.Log("General Exception");
+			}
+		}
+	}
+
+	//Hands the latest quote of each updated contract to the quote handlers, as fast as they will take them.
+	//Its quotes were counted when they were parked.
+	private void deliverQuotes(){
+		FrameProcessor processor = new FrameProcessor(handlers, ShardingMode.NONE, null, latencyRecorder, null);
+		Frame frame = new Frame();
+		while (!this.isCancellationRequested) {
+			try {
+				if (quoteConflator.drainTo(frame, 1, TimeUnit.SECONDS) > 0) {
+					processor.process(frame);
+				}
+			} catch (Exception ex)
+			{
+				Client.Log("General Exception");
+			}
+		}
+	}
+
+	private void startMetricsServer() {
+		if (config.getMetricsPort() > 0 && metricsServer == null) {
+			try {
+				metricsServer = new MetricsServer(config.getMetricsBindAddress(), config.getMetricsPort(), this::getMetrics);
+				metricsServer.start();
+				Client.Log("Metrics - Serving on %s", metricsServer.getAddress());
+			} catch (IOException e) {
+				metricsServer = null;
+				Client.Log("Metrics - Could not serve on port %d. %s", config.getMetricsPort(), e.getMessage());
+			}
+		}
+	}
+
+	private boolean isSharded() {
+		return config.getShardingMode() != ShardingMode.NONE && processDataThreads.length > 1;
+	}
+
 	private void startThreads() throws Exception {
 		this.isCancellationRequested = false;
-		for (int i = 0; i < processDataThreads.length; i++) {
-			processDataThreads[i] = new Thread(()->processData());
+		if (frameJournal != null) {
+			frameJournal.start(handlers.onThreadStart);
+		}
+		if (laneRouter != null) {
+			startLaneThreads();
+		} else if (isSharded()) {
+			shards = new ArrayList<ArrayBlockingQueue<Frame>>(processDataThreads.length);
+			for (int i = 0; i < processDataThreads.length; i++) {
+				final int shard = i;
+				shards.add(new ArrayBlockingQueue<Frame>(SHARD_QUEUE_CAPACITY));
+				processDataThreads[i] = WorkerThreads.create(config.getExecutionMode(), ThreadRole.PROCESSOR, i, handlers.onThreadStart, ()->processShard(shard));
+			}
+			routeDataThread = WorkerThreads.create(ExecutionMode.PLATFORM, ThreadRole.ROUTER, 0, handlers.onThreadStart, ()->routeData());
+			routeDataThread.start();
+		} else {
+			for (int i = 0; i < processDataThreads.length; i++) {
+				processDataThreads[i] = WorkerThreads.create(config.getExecutionMode(), ThreadRole.PROCESSOR, i, handlers.onThreadStart, ()->processData());
+			}
+		}
+		if (quoteConflator != null) {
+			deliverQuotesThread = WorkerThreads.create(config.getExecutionMode(), ThreadRole.QUOTE_DELIVERY, 0, handlers.onThreadStart, ()->deliverQuotes());
+			deliverQuotesThread.start();
 		}
 		for (Thread thread : processDataThreads) {
 			thread.start();
 		}
 	}
 
+	//Every lane thread is a processing thread, so stopThreads needs nothing extra
+	private void startLaneThreads() {
+		int count = 0;
+		for (EventLane eventLane : EventLane.values()) {
+			count += laneRouter.getLane(eventLane).laneConfig.getThreads();
+		}
+		processDataThreads = new Thread[count];
+		int next = 0;
+		for (EventLane eventLane : EventLane.values()) {
+			LaneRouter.Lane lane = laneRouter.getLane(eventLane);
+			for (int i = 0; i < lane.laneConfig.getThreads(); i++) {
+				final int thread = i;
+				processDataThreads[next++] = WorkerThreads.create(config.getExecutionMode(), eventLane.getThreadRole(), i, handlers.onThreadStart, ()->processLane(lane, thread));
+			}
+		}
+	}
+
 	private void stopThreads(){
 		this.isCancellationRequested = true;
 		try {
@@ -379,6 +757,21 @@ public class Client implements WebSocket.Listener {
 				thread.join();
 			}catch (Exception e){}
 		}
+		if (routeDataThread != null) {
+			try {
+				routeDataThread.join();
+			}catch (Exception e){}
+			routeDataThread = null;
+		}
+		if (deliverQuotesThread != null) {
+			try {
+				deliverQuotesThread.join();
+			}catch (Exception e){}
+			deliverQuotesThread = null;
+		}
+		if (frameJournal != null) {
+			frameJournal.stop();
+		}
 	}
 
 	private void _join(String symbol) {
@@ -387,7 +780,10 @@ public class Client implements WebSocket.Listener {
 
 	private void _join(String symbol, boolean forceRejoin) {
 		String translatedSymbol = translateContractToServerFormat(symbol);
-		String standardFormatSymbol = translateContractToStandardFormat(translatedSymbol);
+		this._join(translatedSymbol, translateContractToStandardFormat(translatedSymbol), forceRejoin);
+	}
+
+	private void _join(String translatedSymbol, String standardFormatSymbol, boolean forceRejoin) {
 		if (channels.add(translatedSymbol) || (channels.contains(translatedSymbol) && forceRejoin)) {
 			byte optionMask = getChannelOptionMask();
 			byte[] bytes = new byte[translatedSymbol.length() + 2];
@@ -396,7 +792,7 @@ public class Client implements WebSocket.Listener {
 			translatedSymbol.getBytes(StandardCharsets.US_ASCII);
 			System.arraycopy(translatedSymbol.getBytes(StandardCharsets.US_ASCII), 0, bytes, 2, translatedSymbol.length());
 
-			Client.Log("Websocket - Joining channel: %s (Trades: %s, Quotes: %s, Refreshes: %s, Unusual Activity: %s)", standardFormatSymbol, useOnTrade, useOnQuote, useOnRefresh, useOnUnusualActivity);
+			Client.Log("Websocket - Joining channel: %s (Trades: %s, Quotes: %s, Refreshes: %s, Unusual Activity: %s)", standardFormatSymbol, handlers.isTradeSubscribed(), handlers.isQuoteSubscribed(), handlers.isRefreshSubscribed(), handlers.isUnusualActivitySubscribed());
 			ByteBuffer message = ByteBuffer.wrap(bytes);
 			wsState.getWebSocket().sendBinary(message, true);
 		}
@@ -404,7 +800,10 @@ public class Client implements WebSocket.Listener {
 
 	private void _leave(String symbol) {
 		String translatedSymbol = translateContractToServerFormat(symbol);
-		String standardFormatSymbol = translateContractToStandardFormat(translatedSymbol);
+		this._leave(translatedSymbol, translateContractToStandardFormat(translatedSymbol));
+	}
+
+	private void _leave(String translatedSymbol, String standardFormatSymbol) {
 		if (channels.remove(translatedSymbol)) {
 			byte optionMask = getChannelOptionMask();
 			byte[] bytes = new byte[translatedSymbol.length() + 2];
@@ -413,7 +812,7 @@ public class Client implements WebSocket.Listener {
 			translatedSymbol.getBytes(StandardCharsets.US_ASCII);
 			System.arraycopy(translatedSymbol.getBytes(StandardCharsets.US_ASCII), 0, bytes, 2, translatedSymbol.length());
 
-			Client.Log("Websocket - leaving channel: %s (Trades: %s, Quotes: %s, Refreshes: %s, Unusual Activity: %s)", standardFormatSymbol, useOnTrade, useOnQuote, useOnRefresh, useOnUnusualActivity);
+			Client.Log("Websocket - leaving channel: %s (Trades: %s, Quotes: %s, Refreshes: %s, Unusual Activity: %s)", standardFormatSymbol, handlers.isTradeSubscribed(), handlers.isQuoteSubscribed(), handlers.isRefreshSubscribed(), handlers.isUnusualActivitySubscribed());
 			ByteBuffer message = ByteBuffer.wrap(bytes);
 			wsState.getWebSocket().sendBinary(message, true);
 		}
@@ -443,8 +842,8 @@ public class Client implements WebSocket.Listener {
 				Client.Log("Initialization Failure. Bad URL (%s). %s", wsUrl, e.getMessage());
 				return;
 			}
-			HttpClient httpClient = HttpClient.newHttpClient();
-			CompletableFuture<WebSocket> task = httpClient.newWebSocketBuilder().buildAsync(uri, (WebSocket.Listener) this);
+			this.frameAssembler.reset();
+			CompletableFuture<WebSocket> task = this.transport.connect(uri, (WebSocket.Listener) this);
 			try {
 				WebSocket ws = task.get();
 				this.wsState.setWebSocket(ws);
@@ -462,7 +861,12 @@ public class Client implements WebSocket.Listener {
 
 	private boolean reconnect(){
 		Client.Log("Websocket - Reconnecting...");
+		metrics.reconnects.increment();
+		Object event = FlightEvents.INSTANCE.beginReconnect();
 		if (this.wsState.isReady()) {
+			if (event != null) {
+				FlightEvents.INSTANCE.endReconnect(event, true, true);
+			}
 			return true;
 		} else {
 			this.wsLock.writeLock().lock();
@@ -477,22 +881,25 @@ public class Client implements WebSocket.Listener {
 			} else {
 				initializeWebSocket(this.token.get().token());
 			}
+			if (event != null) {
+				FlightEvents.INSTANCE.endReconnect(event, false, this.wsState.isReady());
+			}
 			return false;
 		}
 	}
 
 	private byte getChannelOptionMask() {
 		int optionMask = 0b0000;
-		if (useOnTrade) {
+		if (handlers.isTradeSubscribed()) {
 			optionMask = optionMask | 0b0001;
 		}
-		if (useOnQuote) {
+		if (handlers.isQuoteSubscribed()) {
 			optionMask = optionMask | 0b0010;
 		}
-		if (useOnRefresh) {
+		if (handlers.isRefreshSubscribed()) {
 			optionMask = optionMask | 0b0100;
 		}
-		if (useOnUnusualActivity) {
+		if (handlers.isUnusualActivitySubscribed()) {
 			optionMask = optionMask | 0b1000;
 		}
 		return (byte) optionMask;
@@ -521,6 +928,15 @@ public class Client implements WebSocket.Listener {
 	}
 
 	private boolean tryGetNewToken() {
+		Object event = FlightEvents.INSTANCE.beginTokenRefresh();
+		boolean isAuthorized = requestToken();
+		if (event != null) {
+			FlightEvents.INSTANCE.endTokenRefresh(event, isAuthorized);
+		}
+		return isAuthorized;
+	}
+
+	private boolean requestToken() {
 		Client.Log("Authorizing...");
 		String authUrl = null;
 		try {
@@ -555,6 +971,7 @@ public class Client implements WebSocket.Listener {
 				BufferedReader reader = new BufferedReader(new InputStreamReader(con.getInputStream(), StandardCharsets.UTF_8));
 				String token = reader.readLine();
 				this.token.set(new Token(token, LocalDateTime.now()));
+				metrics.tokenRefreshes.increment();
 				Client.Log("Authorization successful");
 				return true;
 			}
@@ -573,37 +990,6 @@ public class Client implements WebSocket.Listener {
 		}
 	}
 
-	private byte[] assembleCompleteDataMessage() {
-		Queue<byte[]> parts = new LinkedList<>();
-		int length = 0;
-		boolean done = false;
-		dataBucketLock.lock();
-		try {
-			while (!done) {
-				try {
-					Tuple<byte[], Boolean> datum = dataBucket.poll(1, TimeUnit.SECONDS);
-					if (datum != null) {
-						parts.add(datum.x);
-						done = datum.y;
-						length += datum.x.length;
-					}
-				} catch(InterruptedException e) {
-					Client.Log("process data interrupted");
-				}
-			}
-		} finally {dataBucketLock.unlock();}
-
-		//reassemble into one byte array
-		byte[] bytes = new byte[length];
-		int index = 0;
-		while (!parts.isEmpty()) {
-			byte[] part = parts.remove();
-			java.lang.System.arraycopy(part, 0, bytes, index, part.length);
-			index += part.length;
-		}
-		return bytes;
-	}
-
 	private void doWithRetryBackoff(BooleanSupplier callback) {
 		int i = 0;
 		long backoff = this.selfHealBackoffs[i];
@@ -623,40 +1009,6 @@ public class Client implements WebSocket.Listener {
 	//endregion Private Methods
 
 	//region Private Static Helper Methods
-	private static String trimStart(String str, char character){
-		boolean done = false;
-		int i = 0;
-		while (!done){
-			if (i >= str.length() || str.charAt(i) != character){ //short circuit prevents out of bounds
-				done = true;
-			}
-			else i++;
-		}
-		if (i == str.length())
-			return "";
-		else if (i == 0) {
-			return str;
-		} else
-			return str.substring(i);
-	}
-
-	private static String trimTrailing(String str, char character){
-		boolean done = false;
-		int i = str.length()-1;
-		while (!done){
-			if (i < 0 || str.charAt(i) != character){ //short circuit prevents out of bounds
-				done = true;
-			}
-			else i--;
-		}
-		if (i == -1)
-			return "";
-		else if (i == str.length()-1) {
-			return str;
-		} else
-			return str.substring(0, i + 1);
-	}
-
 	private static String translateContractToStandardFormat(String contract){
 		if ((contract.length() >= 9) && (contract.indexOf(".")>=9)) { //this is of the server format and we need to translate it. ex: from ABC_221216P145.00 to AAPL__220101C00140000
 			//Transform from server format to normal format
@@ -694,38 +1046,8 @@ public class Client implements WebSocket.Listener {
 			return contract;
 		}
 		else { //this is of the standard format, and we need to translate it. ex from AAPL__220101C00140000, TSLA__221111P00195000 to ABC_221216P145.00
-			String symbol = trimTrailing(contract.substring(0, 6), '_');
-			String date = contract.substring(6, 12);
-			char callPut = contract.charAt(12);
-			String wholePrice = trimStart(contract.substring(13, 18), '0');
-			if (wholePrice.isEmpty())
-				wholePrice = "0";
-			String decimalPrice = contract.substring(18);
-			if (decimalPrice.charAt(2) == '0')
-				decimalPrice = decimalPrice.substring(0, 2);
-			return String.format("%s_%s%s%s.%s", symbol, date, callPut, wholePrice, decimalPrice);
+			return OptionContractDictionary.toServerFormat(contract);
 		}
 	}
 	//endregion Private Static Helper Methods
-
-	private class Tuple<X, Y> {
-		  public final X x; 
-		  public final Y y; 
-		  public Tuple(X x, Y y) { 
-		    this.x = x; 
-		    this.y = y; 
-		  } 
-	}
-		
-
-		
-
-
-
-		
-
-
-
-	
-
-}
+}
\ No newline at end of file
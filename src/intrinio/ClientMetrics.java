@@ -0,0 +1,64 @@
+package intrinio;
+
+import java.util.concurrent.atomic.LongAdder;
+
+//The counters behind Client.getMetrics. LongAdders, so the threads that bump them never contend on a single value;
+//they are only summed when a MetricsSnapshot is taken.
+final class ClientMetrics {
+	//upper bounds, in bytes, of the frame size buckets; larger frames go in one more
+	static final int[] FRAME_SIZE_BOUNDS = { 256, 1024, 4096, 16384, 65536 };
+	private static final Exchange[] EXCHANGES = Exchange.values();
+
+	final LongAdder dataMessages = new LongAdder();
+	final LongAdder textMessages = new LongAdder();
+	final LongAdder frames = new LongAdder();
+	final LongAdder frameBytes = new LongAdder();
+	final LongAdder reconnects = new LongAdder();
+	final LongAdder tokenRefreshes = new LongAdder();
+	private final LongAdder[] events = adders(EventLane.values().length);
+	//by Exchange ordinal, then one for codes that are not a known exchange
+	private final LongAdder[] tradesByExchange = adders(EXCHANGES.length + 1);
+	private final LongAdder[] frameSizes = adders(FRAME_SIZE_BOUNDS.length + 1);
+
+	void frameReceived(int length) {
+		frames.increment();
+		frameBytes.add(length);
+		int bucket = 0;
+		while (bucket < FRAME_SIZE_BOUNDS.length && length > FRAME_SIZE_BOUNDS[bucket]) bucket++;
+		frameSizes[bucket].increment();
+	}
+
+	void eventsProcessed(EventLane lane, int count) {
+		events[lane.ordinal()].add(count);
+	}
+
+	void tradeProcessed(byte exchangeCode) {
+		Exchange exchange = Exchange.valueOfCode(exchangeCode);
+		tradesByExchange[exchange == null ? EXCHANGES.length : exchange.ordinal()].increment();
+	}
+
+	long getEvents(EventLane lane) {
+		return events[lane.ordinal()].sum();
+	}
+
+	//null for trades with an unknown exchange code
+	long getTrades(Exchange exchange) {
+		return tradesByExchange[exchange == null ? EXCHANGES.length : exchange.ordinal()].sum();
+	}
+
+	long[] getFrameSizeCounts() {
+		long[] counts = new long[frameSizes.length];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = frameSizes[i].sum();
+		}
+		return counts;
+	}
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+}
@@ -3,6 +3,8 @@ package intrinio;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.EnumMap;
+import java.util.Map;
 
 import com.google.gson.Gson;
 
@@ -15,6 +17,27 @@ public class Config {
 	private String ipAddress;
 	private String[] symbols;
 	private int numThreads = 4;
+	private boolean useRingBuffer = false;
+	private int ringBufferSize = 1024;
+	private ShardingMode shardingMode = ShardingMode.NONE;
+	private boolean conflateQuotes = false;
+	private int queueCapacity = 0;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+	private int demandWindow = 1;
+	private TransportType transportType = TransportType.HTTP_CLIENT;
+	private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+	private int virtualThreadCount = 64;
+	private WaitStrategy waitStrategy = WaitStrategy.BLOCKING;
+	private boolean useLanes = false;
+	private String journalDirectory = null;
+	private int journalSegmentSize = 1 << 30;
+	private int journalIndexBucketMillis = 1000;
+	private boolean latencyHistograms = false;
+	private int metricsPort = 0;
+	private String metricsBindAddress = null;
+	private Map<EventLane, LaneConfig> lanes = new EnumMap<EventLane, LaneConfig>(EventLane.class);
+	
+	private Config() {}
 	
 	public Config(String apiKey, Provider provider, String ipAddress, String[] symbols, int numThreads) throws Exception {
 		this.apiKey = apiKey;
@@ -53,14 +76,230 @@ public class Config {
 	public int getNumThreads() {
 		return numThreads;
 	}
+
+	public boolean getUseRingBuffer() {
+		return useRingBuffer;
+	}
+
+	public void setUseRingBuffer(boolean useRingBuffer) {
+		this.useRingBuffer = useRingBuffer;
+	}
+
+	public int getRingBufferSize() {
+		return ringBufferSize;
+	}
+
+	public void setRingBufferSize(int ringBufferSize) throws Exception {
+		if (ringBufferSize < 2) {
+			throw new Exception("The ring buffer must have at least 2 slots");
+		}
+		this.ringBufferSize = ringBufferSize;
+	}
+	
+	public ShardingMode getShardingMode() {
+		return shardingMode;
+	}
+
+	public void setShardingMode(ShardingMode shardingMode) {
+		this.shardingMode = shardingMode;
+	}
+
+	public boolean getConflateQuotes() {
+		return conflateQuotes;
+	}
+
+	public void setConflateQuotes(boolean conflateQuotes) {
+		this.conflateQuotes = conflateQuotes;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) throws Exception {
+		if (queueCapacity < 0) {
+			throw new Exception("The queue capacity cannot be negative");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public int getDemandWindow() {
+		return demandWindow;
+	}
+
+	public void setDemandWindow(int demandWindow) throws Exception {
+		if (demandWindow < 1) {
+			throw new Exception("The demand window must be at least 1");
+		}
+		this.demandWindow = demandWindow;
+	}
+
+	public TransportType getTransportType() {
+		return transportType;
+	}
+
+	public void setTransportType(TransportType transportType) {
+		this.transportType = transportType;
+	}
+
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+	public void setExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+	}
+
+	public int getVirtualThreadCount() {
+		return virtualThreadCount;
+	}
+
+	public void setVirtualThreadCount(int virtualThreadCount) throws Exception {
+		if (virtualThreadCount < 1 || virtualThreadCount > Short.MAX_VALUE) {
+			throw new Exception("The virtual thread count must be between 1 and " + Short.MAX_VALUE);
+		}
+		this.virtualThreadCount = virtualThreadCount;
+	}
+
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		this.waitStrategy = waitStrategy;
+	}
+
+	public String getJournalDirectory() {
+		return journalDirectory;
+	}
+
+	public void setJournalDirectory(String journalDirectory) {
+		this.journalDirectory = journalDirectory;
+	}
+
+	public int getJournalSegmentSize() {
+		return journalSegmentSize;
+	}
+
+	public void setJournalSegmentSize(int journalSegmentSize) throws Exception {
+		if (journalSegmentSize < 1024 * 1024) {
+			throw new Exception("Journal segments must be at least 1 MB");
+		}
+		this.journalSegmentSize = journalSegmentSize;
+	}
+
+	public int getJournalIndexBucketMillis() {
+		return journalIndexBucketMillis;
+	}
+
+	public void setJournalIndexBucketMillis(int journalIndexBucketMillis) throws Exception {
+		if (journalIndexBucketMillis < 0) {
+			throw new Exception("The journal index bucket cannot be negative");
+		}
+		this.journalIndexBucketMillis = journalIndexBucketMillis;
+	}
+
+	public boolean getLatencyHistograms() {
+		return latencyHistograms;
+	}
+
+	public void setLatencyHistograms(boolean latencyHistograms) {
+		this.latencyHistograms = latencyHistograms;
+	}
+
+	public int getMetricsPort() {
+		return metricsPort;
+	}
+
+	//0 means no metrics endpoint
+	public void setMetricsPort(int metricsPort) throws Exception {
+		if (metricsPort < 0 || metricsPort > 65535) {
+			throw new Exception("The metrics port must be between 0 and 65535");
+		}
+		this.metricsPort = metricsPort;
+	}
+
+	public String getMetricsBindAddress() {
+		return metricsBindAddress;
+	}
+
+	//Host name or IP address the metrics endpoint listens on; null means the loopback address only
+	public void setMetricsBindAddress(String metricsBindAddress) {
+		this.metricsBindAddress = metricsBindAddress;
+	}
+
+	public boolean getUseLanes() {
+		return useLanes;
+	}
+
+	public void setUseLanes(boolean useLanes) {
+		this.useLanes = useLanes;
+	}
+
+	//A lane that has not been configured gets 1 thread, an unbounded queue and BLOCK
+	public LaneConfig getLaneConfig(EventLane lane) {
+		LaneConfig laneConfig = lanes == null ? null : lanes.get(lane);
+		return laneConfig == null ? new LaneConfig() : laneConfig;
+	}
+
+	public void setLaneConfig(EventLane lane, LaneConfig laneConfig) {
+		if (lanes == null) {
+			lanes = new EnumMap<EventLane, LaneConfig>(EventLane.class);
+		}
+		lanes.put(lane, laneConfig);
+	}
 	
 	public String toString() {
-		return String.format("apiKey = %s, provider = %s, ipAddress = %s, symbols = %s, numThreads = %d",
+		return String.format("apiKey = %s, provider = %s, ipAddress = %s, symbols = %s, numThreads = %d, useRingBuffer = %s, ringBufferSize = %d, shardingMode = %s, conflateQuotes = %s, queueCapacity = %d, overflowPolicy = %s, demandWindow = %d, transportType = %s, executionMode = %s, virtualThreadCount = %d, waitStrategy = %s, useLanes = %s, lanes = %s, journalDirectory = %s, journalSegmentSize = %d, journalIndexBucketMillis = %d, latencyHistograms = %s, metricsPort = %d, metricsBindAddress = %s",
 				this.apiKey,
 				this.provider,
 				this.ipAddress,
 				(this.symbols == null ? "[]" : "[ " + String.join(", ", this.symbols) + " ]"),
-				this.numThreads);
+				this.numThreads,
+				this.useRingBuffer,
+				this.ringBufferSize,
+				this.shardingMode,
+				this.conflateQuotes,
+				this.queueCapacity,
+				this.overflowPolicy,
+				this.demandWindow,
+				this.transportType,
+				this.executionMode,
+				this.virtualThreadCount,
+				this.waitStrategy,
+				this.useLanes,
+				this.lanes,
+				this.journalDirectory,
+				this.journalSegmentSize,
+				this.journalIndexBucketMillis,
+				this.latencyHistograms,
+				this.metricsPort,
+				this.metricsBindAddress);
+	}
+
+	//Checks the settings that depend on each other, which the setters cannot. A ring buffer that is not larger than the queue
+	//capacity fills before the overflow policy gets a say, and the websocket then waits on it whatever the policy.
+	void validate() throws Exception {
+		if (!useRingBuffer) {
+			return;
+		}
+		if (useLanes) {
+			for (EventLane lane : EventLane.values()) {
+				if (getLaneConfig(lane).getQueueCapacity() >= ringBufferSize) {
+					throw new Exception("The ring buffer must be larger than the queue capacity of the " + lane + " lane");
+				}
+			}
+		} else if (queueCapacity >= ringBufferSize) {
+			throw new Exception("The ring buffer must be larger than the queue capacity");
+		}
 	}
 
 	public static Config load() {
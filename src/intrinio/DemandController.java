@@ -0,0 +1,72 @@
+package intrinio;
+
+import java.net.http.WebSocket;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Requests websocket messages in windows rather than one at a time. Once half of a window has arrived it is topped up again,
+//limited to the room left in the queue, unless an overflow controller has paused demand. A window of 1 requests every message singly.
+//With event lanes every lane's overflow controller can pause; demand only resumes once none of them is.
+final class DemandController {
+	private final FrameQueue queue;
+	private final int window;
+	private final int lowWatermark;
+	private final int capacity;
+	private final AtomicLong outstanding = new AtomicLong(0L);
+	private final AtomicInteger pauses = new AtomicInteger(0);
+	private volatile WebSocket webSocket;
+
+	//capacity 0 means the queue is unbounded
+	DemandController(FrameQueue queue, int window, int capacity) {
+		this.queue = queue;
+		this.window = window;
+		this.lowWatermark = window / 2;
+		this.capacity = capacity;
+	}
+
+	//Called from WebSocket.Listener.onOpen - a new connection starts with no demand, and gets none while paused
+	void opened(WebSocket ws) {
+		this.webSocket = ws;
+		this.outstanding.set(0L);
+		replenish();
+	}
+
+	//Called once for every message or fragment the listener receives
+	void received() {
+		if (outstanding.decrementAndGet() <= lowWatermark && !isPaused()) {
+			replenish();
+		}
+	}
+
+	//Each pause must be matched by exactly one resume
+	void pause() {
+		pauses.incrementAndGet();
+	}
+
+	void resume() {
+		if (pauses.decrementAndGet() == 0) {
+			replenish();
+		}
+	}
+
+	boolean isPaused() {
+		return pauses.get() > 0;
+	}
+
+	private synchronized void replenish() {
+		WebSocket ws = webSocket;
+		long current = outstanding.get();
+		if (ws == null || isPaused() || current > lowWatermark) {
+			return;
+		}
+		long target = window;
+		if (capacity > 0) {
+			target = Math.min(target, Math.max(1L, capacity - queue.size()));
+		}
+		long request = target - current;
+		if (request > 0L) {
+			outstanding.addAndGet(request);
+			ws.request(request);
+		}
+	}
+}
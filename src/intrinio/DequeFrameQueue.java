@@ -0,0 +1,39 @@
+package intrinio;
+
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+final class DequeFrameQueue implements FrameQueue {
+	private final LinkedBlockingDeque<Frame> data = new LinkedBlockingDeque<>();
+	private final FramePool framePool;
+	private final WaitStrategy waitStrategy;
+
+	DequeFrameQueue(int maxPooledFrames, WaitStrategy waitStrategy) {
+		this.framePool = new FramePool(maxPooledFrames);
+		this.waitStrategy = waitStrategy;
+	}
+
+	public Frame claim() {
+		return framePool.acquire();
+	}
+
+	public void publish(Frame frame) {
+		data.add(frame);
+	}
+
+	public Frame poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return waitStrategy.poll(data, timeout, unit);
+	}
+
+	public void release(Frame frame) {
+		framePool.release(frame);
+	}
+
+	public void abandon(Frame frame) {
+		framePool.release(frame);
+	}
+
+	public int size() {
+		return data.size();
+	}
+}
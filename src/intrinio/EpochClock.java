@@ -0,0 +1,14 @@
+package intrinio;
+
+//Wall clock time in nanoseconds since the epoch, without allocating. Read once against System.currentTimeMillis at startup and
+//advanced by System.nanoTime after that, so it is monotonic but does not follow later adjustments of the system clock.
+final class EpochClock {
+	private static final long nanoTimeAtStart = System.nanoTime();
+	private static final long epochNanosAtStart = System.currentTimeMillis() * 1_000_000L;
+
+	private EpochClock() {}
+
+	static long nanos() {
+		return epochNanosAtStart + (System.nanoTime() - nanoTimeAtStart);
+	}
+}
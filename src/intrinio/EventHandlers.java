@@ -0,0 +1,93 @@
+package intrinio;
+
+//The callbacks registered on a client, shared by all of its processing threads
+final class EventHandlers {
+	OnTrade onTrade = (Trade trade) -> {};
+	boolean useOnTrade = false;
+	OnTradeView onTradeView = (TradeView trade) -> {};
+	boolean useOnTradeView = false;
+	OnTradeBatch onTradeBatch = (TradeBatch trades) -> {};
+	boolean useOnTradeBatch = false;
+	OnQuote onQuote = (Quote quote) -> {};
+	boolean useOnQuote = false;
+	OnQuoteView onQuoteView = (QuoteView quote) -> {};
+	boolean useOnQuoteView = false;
+	OnQuoteBatch onQuoteBatch = (QuoteBatch quotes) -> {};
+	boolean useOnQuoteBatch = false;
+	OnRefresh onRefresh = (Refresh r) -> {};
+	boolean useOnRefresh = false;
+	OnRefreshView onRefreshView = (RefreshView r) -> {};
+	boolean useOnRefreshView = false;
+	OnUnusualActivity onUnusualActivity = (UnusualActivity ua) -> {};
+	boolean useOnUnusualActivity = false;
+	OnUnusualActivityView onUnusualActivityView = (UnusualActivityView ua) -> {};
+	boolean useOnUnusualActivityView = false;
+	OnThreadStart onThreadStart = (ThreadRole role, int index) -> {};
+
+	//Registering a handler also turns it on; shared by Client and BacktestPartition
+	void setOnTrade(OnTrade onTrade) {
+		this.onTrade = onTrade;
+		this.useOnTrade = true;
+	}
+
+	void setOnTradeView(OnTradeView onTradeView) {
+		this.onTradeView = onTradeView;
+		this.useOnTradeView = true;
+	}
+
+	void setOnTradeBatch(OnTradeBatch onTradeBatch) {
+		this.onTradeBatch = onTradeBatch;
+		this.useOnTradeBatch = true;
+	}
+
+	void setOnQuote(OnQuote onQuote) {
+		this.onQuote = onQuote;
+		this.useOnQuote = true;
+	}
+
+	void setOnQuoteView(OnQuoteView onQuoteView) {
+		this.onQuoteView = onQuoteView;
+		this.useOnQuoteView = true;
+	}
+
+	void setOnQuoteBatch(OnQuoteBatch onQuoteBatch) {
+		this.onQuoteBatch = onQuoteBatch;
+		this.useOnQuoteBatch = true;
+	}
+
+	void setOnRefresh(OnRefresh onRefresh) {
+		this.onRefresh = onRefresh;
+		this.useOnRefresh = true;
+	}
+
+	void setOnRefreshView(OnRefreshView onRefreshView) {
+		this.onRefreshView = onRefreshView;
+		this.useOnRefreshView = true;
+	}
+
+	void setOnUnusualActivity(OnUnusualActivity onUnusualActivity) {
+		this.onUnusualActivity = onUnusualActivity;
+		this.useOnUnusualActivity = true;
+	}
+
+	void setOnUnusualActivityView(OnUnusualActivityView onUnusualActivityView) {
+		this.onUnusualActivityView = onUnusualActivityView;
+		this.useOnUnusualActivityView = true;
+	}
+
+	boolean isTradeSubscribed() {
+		return useOnTrade || useOnTradeView || useOnTradeBatch;
+	}
+
+	boolean isQuoteSubscribed() {
+		return useOnQuote || useOnQuoteView || useOnQuoteBatch;
+	}
+
+	boolean isRefreshSubscribed() {
+		return useOnRefresh || useOnRefreshView;
+	}
+
+	boolean isUnusualActivitySubscribed() {
+		return useOnUnusualActivity || useOnUnusualActivityView;
+	}
+}
@@ -0,0 +1,29 @@
+package intrinio;
+
+//The independent dispatch paths used when useLanes is set. Each lane has its own queue, threads and overflow policy.
+public enum EventLane {
+	TRADE(ThreadRole.TRADE_LANE),
+	QUOTE(ThreadRole.QUOTE_LANE),
+	REFRESH(ThreadRole.REFRESH_LANE),
+	UNUSUAL_ACTIVITY(ThreadRole.UNUSUAL_ACTIVITY_LANE);
+
+	private final ThreadRole threadRole;
+
+	EventLane(ThreadRole threadRole) {
+		this.threadRole = threadRole;
+	}
+
+	public ThreadRole getThreadRole() {
+		return threadRole;
+	}
+
+	//message type [22]: 0 trade, 1 quote, 2 refresh, 3-6 unusual activity. Null for anything else.
+	static EventLane of(byte type) {
+		switch (type) {
+			case 0: return TRADE;
+			case 1: return QUOTE;
+			case 2: return REFRESH;
+			default: return type > 2 ? UNUSUAL_ACTIVITY : null;
+		}
+	}
+}
@@ -1,7 +1,5 @@
 package intrinio;
 
-import java.util.HashMap;
-
 public enum Exchange {
 	NYSE_AMERICAN((byte)'A'),
     BOSTON((byte)'B'),
@@ -21,11 +19,12 @@ public enum Exchange {
     PHLX((byte)'X'),
     BATS_BZX((byte)'Z');
     
-	private static final HashMap<Byte,Exchange> exchangeCodeMap = new HashMap<Byte,Exchange>();
+	//indexed by the unsigned exchange code
+	private static final Exchange[] exchangeCodeMap = new Exchange[256];
 	
 	static {
 		for (Exchange e: values()) {
-			exchangeCodeMap.put(e.code, e);
+			exchangeCodeMap[e.code & 0xFF] = e;
 		}
 	}
 	
@@ -35,7 +34,7 @@ public enum Exchange {
     }
     
     public static Exchange valueOfCode(byte code) {
-    	return exchangeCodeMap.get(code);
+    	return exchangeCodeMap[code & 0xFF];
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package intrinio;
+
+public enum ExecutionMode {
+	//numThreads platform threads process events
+	PLATFORM,
+	//virtualThreadCount virtual threads process events, so a handler that blocks only holds up its own thread (and shard).
+	//Needs a JDK 21+ runtime; on older runtimes the client falls back to PLATFORM.
+	VIRTUAL
+}
@@ -0,0 +1,322 @@
+package intrinio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+//A local stand-in for the realtime server, for load testing without a live feed. One loopback port serves both the auth
+//endpoint (GET /auth?api_key=...) and the websocket (/socket/websocket?token=...), so a Client reaches it with Provider.MANUAL
+//and getAddress() as the ipAddress. Once a channel is joined, each connection streams generated frames at the rate profile's pace.
+//Every event type is sent, whatever the join asked for.
+public final class FeedSimulator {
+	private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+	private final int port;
+	private final SyntheticFrameGenerator generator;
+	private final RateProfile rateProfile;
+	private int messagesPerFrame = 32;
+	private ServerSocket serverSocket;
+	private volatile boolean isRunning = false;
+	private final Set<String> tokens = ConcurrentHashMap.newKeySet();
+	private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+	private final AtomicLong messagesSent = new AtomicLong(0L);
+	private final AtomicLong framesSent = new AtomicLong(0L);
+	private final AtomicLong messagesMissed = new AtomicLong(0L);
+
+	//port 0 picks a free port
+	public FeedSimulator(int port, SyntheticFrameGenerator generator, RateProfile rateProfile) {
+		this.port = port;
+		this.generator = generator;
+		this.rateProfile = rateProfile;
+	}
+
+	public void setMessagesPerFrame(int messagesPerFrame) throws Exception {
+		if (messagesPerFrame < 1 || messagesPerFrame > SyntheticFrameGenerator.MAX_MESSAGES_PER_FRAME) {
+			throw new Exception("Frames hold between 1 and " + SyntheticFrameGenerator.MAX_MESSAGES_PER_FRAME + " messages");
+		}
+		this.messagesPerFrame = messagesPerFrame;
+	}
+
+	//host:port to use as Config.ipAddress
+	public String getAddress() {
+		return "127.0.0.1:" + serverSocket.getLocalPort();
+	}
+
+	public long getMessagesSent() {
+		return messagesSent.get();
+	}
+
+	public long getFramesSent() {
+		return framesSent.get();
+	}
+
+	//Messages the rate profile called for that were never sent because the client stopped reading (more than a second behind)
+	public long getMessagesMissed() {
+		return messagesMissed.get();
+	}
+
+	public String getStats() {
+		return String.format("Messages Sent = %d, Frames Sent = %d, Messages Missed = %d", messagesSent.get(), framesSent.get(), messagesMissed.get());
+	}
+
+	public void start() throws IOException {
+		serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		isRunning = true;
+		Thread acceptor = new Thread(() -> accept(), "intrinio-simulator-accept");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		Client.Log("Feed simulator - Listening on %s", getAddress());
+	}
+
+	public void stop() {
+		isRunning = false;
+		try {
+			serverSocket.close();
+		} catch (IOException e) {}
+		for (Socket socket : sockets) {
+			try {
+				socket.close();
+			} catch (IOException e) {}
+		}
+	}
+
+	//Usage: FeedSimulator port contracts messagesPerSecond [peakMessagesPerSecond halfLifeSeconds]
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		int contracts = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		double rate = args.length > 2 ? Double.parseDouble(args[2]) : 10_000;
+		RateProfile rateProfile = args.length > 4
+				? RateProfile.openingBell(rate, Double.parseDouble(args[3]), Double.parseDouble(args[4]))
+				: RateProfile.constant(rate);
+		FeedSimulator simulator = new FeedSimulator(port, new SyntheticFrameGenerator(contracts, 1L), rateProfile);
+		simulator.start();
+		while (true) {
+			Thread.sleep(1000);
+			Client.Log("Feed simulator - %s", simulator.getStats());
+		}
+	}
+
+	private void accept() {
+		int connection = 0;
+		while (isRunning) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				sockets.add(socket);
+				Thread handler = new Thread(() -> handle(socket), "intrinio-simulator-connection-" + connection++);
+				handler.setDaemon(true);
+				handler.start();
+			} catch (IOException e) {
+				if (isRunning) {
+					Client.Log("Feed simulator - Accept failed. %s", e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void handle(Socket socket) {
+		try {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+			String requestLine = readLine(in);
+			String key = null;
+			for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+				if (line.regionMatches(true, 0, "Sec-WebSocket-Key:", 0, 18)) {
+					key = line.substring(18).trim();
+				}
+			}
+			String[] parts = requestLine == null ? new String[0] : requestLine.split(" ");
+			String target = parts.length > 1 ? parts[1] : "";
+			if (target.startsWith("/auth")) {
+				String apiKey = getParameter(target, "api_key");
+				if (apiKey == null || apiKey.isBlank()) {
+					respond(out, "401 Unauthorized", "");
+				} else {
+					String token = "simulated-" + Long.toHexString(System.nanoTime());
+					tokens.add(token);
+					respond(out, "200 OK", token);
+				}
+			} else if (target.startsWith("/socket/websocket") && key != null && tokens.contains(getParameter(target, "token"))) {
+				String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)));
+				out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+				out.flush();
+				stream(in, out);
+			} else {
+				respond(out, target.startsWith("/socket/websocket") ? "401 Unauthorized" : "404 Not Found", "");
+			}
+		} catch (Exception e) {
+			if (isRunning) {
+				Client.Log("Feed simulator - Connection failed. %s", e.getMessage());
+			}
+		} finally {
+			sockets.remove(socket);
+			try {
+				socket.close();
+			} catch (IOException e) {}
+		}
+	}
+
+	//Reads the client's frames on this thread while another sends data for as long as a channel is joined
+	private void stream(InputStream in, OutputStream out) throws Exception {
+		Set<String> channels = new HashSet<String>();
+		Thread sender = null;
+		try {
+			while (true) {
+				int first = in.read();
+				int second = in.read();
+				if (first < 0 || second < 0) {
+					return;
+				}
+				int opcode = first & 0x0F;
+				long length = second & 0x7F;
+				if (length == 126) {
+					length = (in.read() << 8) | in.read();
+				} else if (length == 127) {
+					length = 0L;
+					for (int i = 0; i < 8; i++) length = (length << 8) | in.read();
+				}
+				byte[] mask = (second & 0x80) != 0 ? in.readNBytes(4) : null;
+				byte[] payload = in.readNBytes((int) length);
+				if (mask != null) {
+					for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+				}
+				if (opcode == 0x8) {
+					send(out, 0x8, payload, payload.length);
+					return;
+				} else if (opcode == 0x9) {
+					send(out, 0xA, payload, payload.length);
+				} else if (opcode == 0x2 && payload.length > 2) {
+					//join [74] or leave [76], option mask, channel
+					String channel = new String(payload, 2, payload.length - 2, StandardCharsets.US_ASCII);
+					synchronized (channels) {
+						if (payload[0] == 74) channels.add(channel);
+						else if (payload[0] == 76) channels.remove(channel);
+					}
+					if (sender == null && payload[0] == 74) {
+						sender = new Thread(() -> send(out, channels), Thread.currentThread().getName() + "-sender");
+						sender.setDaemon(true);
+						sender.start();
+					}
+				}
+			}
+		} finally {
+			if (sender != null) {
+				sender.interrupt();
+				sender.join(TimeUnit.SECONDS.toMillis(1));
+			}
+		}
+	}
+
+	//Paces the frames by the rate profile, falling back to idling while nothing is joined
+	private void send(OutputStream out, Set<String> channels) {
+		byte[] frame = new byte[SyntheticFrameGenerator.getMaxFrameSize(messagesPerFrame)];
+		long start = System.nanoTime();
+		long last = start;
+		double due = 0.0D;
+		try {
+			while (isRunning && !Thread.currentThread().isInterrupted()) {
+				long now = System.nanoTime();
+				double rate = rateProfile.messagesPerSecond((now - start) / 1_000_000_000.0D);
+				boolean isJoined;
+				synchronized (channels) {
+					isJoined = !channels.isEmpty();
+				}
+				due = isJoined ? due + rate * (now - last) / 1_000_000_000.0D : 0.0D;
+				last = now;
+				if (due > rate + messagesPerFrame) {
+					//the client is more than a second behind; what it never read is missed, not queued up
+					long missed = (long) (due - rate);
+					messagesMissed.addAndGet(missed);
+					due -= missed;
+				}
+				if (due < 1.0D) {
+					LockSupport.parkNanos(100_000L);
+					continue;
+				}
+				while (due >= 1.0D) {
+					int messages = (int) Math.min(messagesPerFrame, due);
+					int length;
+					synchronized (generator) {
+						length = generator.nextFrame(frame, messages);
+					}
+					send(out, 0x2, frame, length);
+					due -= messages;
+					messagesSent.addAndGet(messages);
+					framesSent.incrementAndGet();
+				}
+				synchronized (out) {
+					out.flush();
+				}
+			}
+		} catch (IOException e) {
+			//the connection closed
+		}
+	}
+
+	//Unmasked, unfragmented server frame
+	private static void send(OutputStream out, int opcode, byte[] payload, int length) throws IOException {
+		synchronized (out) {
+			out.write(0x80 | opcode);
+			if (length < 126) {
+				out.write(length);
+			} else if (length < 65536) {
+				out.write(126);
+				out.write(length >>> 8);
+				out.write(length & 0xFF);
+			} else {
+				out.write(127);
+				for (int i = 7; i >= 0; i--) out.write((int) (((long) length >>> (8 * i)) & 0xFF));
+			}
+			out.write(payload, 0, length);
+			if (opcode != 0x2) {
+				out.flush();
+			}
+		}
+	}
+
+	private static void respond(OutputStream out, String status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.US_ASCII);
+		out.write(("HTTP/1.1 " + status + "\r\nContent-Type: text/plain\r\nContent-Length: " + bytes.length + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+		out.write(bytes);
+		out.flush();
+	}
+
+	private static String getParameter(String target, String name) {
+		int query = target.indexOf('?');
+		if (query < 0) {
+			return null;
+		}
+		for (String pair : target.substring(query + 1).split("&")) {
+			if (pair.startsWith(name + "=")) {
+				return pair.substring(name.length() + 1);
+			}
+		}
+		return null;
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		for (int b = in.read(); b >= 0; b = in.read()) {
+			if (b == '\n') {
+				int length = builder.length();
+				return length > 0 && builder.charAt(length - 1) == '\r' ? builder.substring(0, length - 1) : builder.toString();
+			}
+			builder.append((char) b);
+		}
+		return builder.length() > 0 ? builder.toString() : null;
+	}
+}
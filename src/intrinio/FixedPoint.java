@@ -0,0 +1,86 @@
+package intrinio;
+
+//Integer arithmetic on prices held as a mantissa plus a PriceType, e.g. 17250 with PriceType.Hundred is 172.50.
+//Results are exact; ArithmeticException is thrown on overflow rather than silently wrapping.
+public final class FixedPoint {
+	//the mantissa reported when the feed has no value for a price (the double accessors return NaN)
+	public static final long NO_VALUE = Long.MIN_VALUE;
+
+	private FixedPoint() {}
+
+	public static double toDouble(long mantissa, PriceType priceType) {
+		return priceType.toDouble(mantissa);
+	}
+
+	//Converts to another scale. Going to a coarser scale rounds half away from zero.
+	public static long rescale(long mantissa, PriceType from, PriceType to) {
+		if (mantissa == NO_VALUE || from == PriceType.Zero || to == PriceType.Zero) {
+			return mantissa == 0L ? 0L : NO_VALUE;
+		}
+		long fromScale = from.getScale();
+		long toScale = to.getScale();
+		if (fromScale == toScale) {
+			return mantissa;
+		}
+		if (toScale % fromScale == 0L) {
+			return Math.multiplyExact(mantissa, toScale / fromScale);
+		}
+		if (fromScale % toScale == 0L) {
+			return divideRounded(mantissa, fromScale / toScale);
+		}
+		//FiveHundredTwelve against a power of ten
+		return divideRounded(Math.multiplyExact(mantissa, toScale), fromScale);
+	}
+
+	public static int compare(long a, PriceType aType, long b, PriceType bType) {
+		PriceType common = finer(aType, bType);
+		return Long.compare(rescale(a, aType, common), rescale(b, bType, common));
+	}
+
+	public static long add(long a, PriceType aType, long b, PriceType bType, PriceType resultType) {
+		if (a == NO_VALUE || b == NO_VALUE) {
+			return NO_VALUE;
+		}
+		PriceType common = finer(aType, bType);
+		return rescale(Math.addExact(rescale(a, aType, common), rescale(b, bType, common)), common, resultType);
+	}
+
+	public static long subtract(long a, PriceType aType, long b, PriceType bType, PriceType resultType) {
+		if (a == NO_VALUE || b == NO_VALUE) {
+			return NO_VALUE;
+		}
+		PriceType common = finer(aType, bType);
+		return rescale(Math.subtractExact(rescale(a, aType, common), rescale(b, bType, common)), common, resultType);
+	}
+
+	//price x size, still in the price's scale - e.g. the notional of a trade
+	public static long multiply(long mantissa, long quantity) {
+		if (mantissa == NO_VALUE) {
+			return NO_VALUE;
+		}
+		return Math.multiplyExact(mantissa, quantity);
+	}
+
+	//(a + b) / 2 in the finer of the two scales, e.g. the mid of a quote
+	public static long midpoint(long a, PriceType aType, long b, PriceType bType, PriceType resultType) {
+		if (a == NO_VALUE || b == NO_VALUE) {
+			return NO_VALUE;
+		}
+		PriceType common = finer(aType, bType);
+		long sum = Math.addExact(rescale(a, aType, common), rescale(b, bType, common));
+		return rescale(divideRounded(sum, 2L), common, resultType);
+	}
+
+	private static PriceType finer(PriceType a, PriceType b) {
+		return a.getScale() >= b.getScale() ? a : b;
+	}
+
+	private static long divideRounded(long value, long divisor) {
+		long quotient = value / divisor;
+		long remainder = value % divisor;
+		if (Math.abs(remainder) * 2 >= divisor) {
+			quotient += value < 0 ? -1 : 1;
+		}
+		return quotient;
+	}
+}
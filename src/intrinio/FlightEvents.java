@@ -0,0 +1,55 @@
+package intrinio;
+
+//Where the client emits its flight recorder events. This class does nothing. The events themselves (see the jfr directory) are built
+//for release 17 in their own jar, which javac cannot do for release 16, and JfrFlightEvents is loaded reflectively when it is there.
+//Without it, or on a runtime without jdk.jfr, every call here is a no-op. begin methods return null when nothing is recording,
+//and the matching end or commit method is then never called.
+class FlightEvents {
+	static final FlightEvents INSTANCE = load();
+
+	private static FlightEvents load() {
+		try {
+			return (FlightEvents) Class.forName("intrinio.JfrFlightEvents").getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			//built without the events, or no flight recorder in this runtime
+			return new FlightEvents();
+		}
+	}
+
+	void frameReceived(int size, int messageCount) {}
+
+	Object beginFrameDecoded() {
+		return null;
+	}
+
+	void endFrameDecoded(Object event, int messageCount, int trades, int quotes, int refreshes, int unusualActivities) {}
+
+	//Checked once per frame; beginHandler is only called when true
+	boolean isTracingHandlers() {
+		return false;
+	}
+
+	Object beginHandler() {
+		return null;
+	}
+
+	void endHandler(Object event, EventLane lane, boolean isBatch) {}
+
+	Object beginQueueHighWater() {
+		return null;
+	}
+
+	void commitQueueHighWater(Object event, String queue, int highWater, int capacity) {}
+
+	Object beginReconnect() {
+		return null;
+	}
+
+	void endReconnect(Object event, boolean wasReady, boolean isConnected) {}
+
+	Object beginTokenRefresh() {
+		return null;
+	}
+
+	void endTokenRefresh(Object event, boolean isAuthorized) {}
+}
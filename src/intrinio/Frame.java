@@ -0,0 +1,124 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class Frame {
+	static final int DEFAULT_CAPACITY = 16 * 1024;
+
+	private ByteBuffer buffer;
+	private int length = 0;
+	private long sequence = 0L;
+	//epoch nanoseconds at which the last fragment arrived
+	private long receivedNanos = 0L;
+	//and the first
+	private long firstFragmentNanos = 0L;
+	//holders of the frame: the processing pipeline, plus the journal while it has yet to write the frame
+	private final AtomicInteger references = new AtomicInteger(1);
+	//shard of each message, filled in by the router when sharding
+	private short[] messageShards = null;
+
+	Frame() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	Frame(int capacity) {
+		this.buffer = allocate(capacity);
+	}
+
+	ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	int getLength() {
+		return length;
+	}
+
+	byte getMessageCount() {
+		return buffer.get(0);
+	}
+
+	long getSequence() {
+		return sequence;
+	}
+
+	void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	long getReceivedNanos() {
+		return receivedNanos;
+	}
+
+	void setReceivedNanos(long receivedNanos) {
+		this.receivedNanos = receivedNanos;
+	}
+
+	long getFirstFragmentNanos() {
+		return firstFragmentNanos;
+	}
+
+	void setFirstFragmentNanos(long firstFragmentNanos) {
+		this.firstFragmentNanos = firstFragmentNanos;
+	}
+
+	short[] getMessageShards() {
+		if (messageShards == null) {
+			messageShards = new short[256];
+		}
+		return messageShards;
+	}
+
+	//A frame starts with one holder; each extra holder must dereference it once
+	void retain(int holders) {
+		references.addAndGet(holders);
+	}
+
+	//Returns true when the last holder of a shared frame lets go of it, which must then release it to its queue
+	boolean dereference() {
+		return references.decrementAndGet() == 0;
+	}
+
+	boolean isShared() {
+		return references.get() > 1;
+	}
+
+	void clear() {
+		this.length = 0;
+		this.references.set(1);
+	}
+
+	void append(ByteBuffer fragment) {
+		int fragmentLength = fragment.remaining();
+		ensureCapacity(length + fragmentLength);
+		buffer.put(length, fragment, fragment.position(), fragmentLength);
+		fragment.position(fragment.limit());
+		length += fragmentLength;
+	}
+
+	//Adds one whole message, keeping the message count at [0] up to date
+	void appendMessage(ByteBuffer source, int offset, int size) {
+		if (length == 0) {
+			buffer.put(0, (byte) 0);
+			length = 1;
+		}
+		ensureCapacity(length + size);
+		buffer.put(length, source, offset, size);
+		length += size;
+		buffer.put(0, (byte) (buffer.get(0) + 1));
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > buffer.capacity()) {
+			//grow once and keep the larger buffer for every later frame that reuses this one
+			ByteBuffer larger = allocate(Math.max(capacity, buffer.capacity() * 2));
+			larger.put(0, buffer, 0, length);
+			this.buffer = larger;
+		}
+	}
+
+	private static ByteBuffer allocate(int capacity) {
+		return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+	}
+}
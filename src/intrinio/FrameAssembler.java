@@ -0,0 +1,47 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+
+//Only ever driven from the websocket listener, which delivers fragments one at a time
+final class FrameAssembler {
+	private final FrameQueue queue;
+	private Frame partial = null;
+
+	FrameAssembler(FrameQueue queue) {
+		this.queue = queue;
+	}
+
+	//Returns the completed frame once the last fragment arrives, otherwise null
+	Frame append(ByteBuffer fragment, boolean isComplete) {
+		if (isComplete && partial == null) {
+			//single fragment frame - copy straight into a claimed buffer
+			Frame frame = queue.claim();
+			frame.append(fragment);
+			long now = EpochClock.nanos();
+			frame.setFirstFragmentNanos(now);
+			frame.setReceivedNanos(now);
+			return frame;
+		}
+		if (partial == null) {
+			partial = queue.claim();
+		}
+		if (partial.getLength() == 0) {
+			partial.setFirstFragmentNanos(EpochClock.nanos());
+		}
+		partial.append(fragment);
+		if (isComplete) {
+			Frame frame = partial;
+			partial = null;
+			frame.setReceivedNanos(EpochClock.nanos());
+			return frame;
+		}
+		return null;
+	}
+
+	//Drops a partially received frame; the claimed buffer is kept and reused for the next frame
+	void reset() {
+		if (partial != null) {
+			partial.clear();
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package intrinio;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Appends every complete frame, exactly as received, to memory-mapped segment files named frames-<index>.journal.
+//Each record is [int length][long received epoch nanos][frame bytes], little-endian; a length of 0 marks the end of a segment.
+//The websocket listener only hands over a reference to the frame; the journal thread copies it into the mapping once and then
+//lets go of it. Where the frame may be changed once queued (quotes dropped or conflated in place), or is a slot of a ring the
+//listener would have to wait for, the listener hands over a copy from the journal's own pool instead, so it never has to wait
+//for the journal to finish with a frame.
+//If the journal falls JOURNAL_QUEUE_CAPACITY frames behind, further frames are skipped rather than waited for.
+//Unless indexBucketNanos is 0, each segment also gets a sidecar index (see JournalIndexWriter) for JournalQuery.
+final class FrameJournal {
+	static final String SEGMENT_PREFIX = "frames-";
+	static final String SEGMENT_SUFFIX = ".journal";
+	static final int RECORD_HEADER_SIZE = 12;
+	private static final int JOURNAL_QUEUE_CAPACITY = 8192;
+	private static final int MAX_POOLED_COPIES = 256;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final FrameQueue frameQueue;
+	//null when the journal shares the received frames
+	private final FramePool copies;
+	private final JournalIndexWriter indexWriter;
+	private final ArrayBlockingQueue<Frame> pending = new ArrayBlockingQueue<Frame>(JOURNAL_QUEUE_CAPACITY);
+	private final AtomicLong journaledCount = new AtomicLong(0L);
+	private final AtomicLong skippedCount = new AtomicLong(0L);
+	private MappedByteBuffer segment;
+	private int segmentIndex;
+	private volatile boolean isRunning = false;
+	private Thread writerThread;
+
+	//frameQueue is where frames go back to once the journal is the last to let go of them. isCopying when they can be changed after append.
+	//A ring only has so many slots, and a journal that falls behind would hold all of them, so its frames are always copied.
+	FrameJournal(String directory, int segmentSize, long indexBucketNanos, FrameQueue frameQueue, boolean isCopying) {
+		this.directory = Paths.get(directory);
+		this.segmentSize = segmentSize;
+		this.frameQueue = frameQueue;
+		this.copies = isCopying || frameQueue instanceof RingFrameQueue ? new FramePool(MAX_POOLED_COPIES) : null;
+		this.indexWriter = indexBucketNanos > 0L ? new JournalIndexWriter(indexBucketNanos) : null;
+	}
+
+	//Continues after the highest numbered segment already in the directory
+	void start(OnThreadStart onThreadStart) throws IOException {
+		Files.createDirectories(directory);
+		List<Path> segments = getSegments(directory);
+		segmentIndex = segments.isEmpty() ? 0 : getSegmentIndex(segments.get(segments.size() - 1)) + 1;
+		segment = map(segmentIndex);
+		isRunning = true;
+		writerThread = WorkerThreads.create(ExecutionMode.PLATFORM, ThreadRole.JOURNAL, 0, onThreadStart, () -> write());
+		writerThread.start();
+	}
+
+	//Writes what was already handed over, then flushes the open segment
+	void stop() {
+		isRunning = false;
+		if (writerThread != null) {
+			try {
+				writerThread.join();
+			} catch (InterruptedException e) {}
+			writerThread = null;
+			//frames handed over while the writer was finishing
+			writePending();
+			finish();
+		}
+	}
+
+	//Called from the websocket listener before the frame is queued for processing
+	void append(Frame frame) {
+		if (!isRunning) {
+			return;
+		}
+		if (copies != null) {
+			if (pending.remainingCapacity() == 0) {
+				skippedCount.incrementAndGet();
+				return;
+			}
+			Frame copy = copies.acquire();
+			copy.append(frame.getBuffer().slice(0, frame.getLength()));
+			copy.setReceivedNanos(frame.getReceivedNanos());
+			offer(copy);
+			return;
+		}
+		frame.retain(1);
+		offer(frame);
+	}
+
+	//If stop() already wrote what was pending, whichever of the two takes the frame back out lets go of it
+	private void offer(Frame frame) {
+		if (!pending.offer(frame)) {
+			skippedCount.incrementAndGet();
+			letGo(frame);
+		} else if (!isRunning && pending.remove(frame)) {
+			skippedCount.incrementAndGet();
+			letGo(frame);
+		}
+	}
+
+	private void letGo(Frame frame) {
+		if (copies != null) {
+			copies.release(frame);
+		} else if (frame.dereference()) {
+			frameQueue.release(frame);
+		}
+	}
+
+	long getJournaledCount() {
+		return journaledCount.get();
+	}
+
+	long getSkippedCount() {
+		return skippedCount.get();
+	}
+
+	//The segment files of a journal directory in the order they were written
+	static List<Path> getSegments(Path directory) throws IOException {
+		List<Path> segments = new ArrayList<Path>();
+		try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+			for (Path path : paths) {
+				segments.add(path);
+			}
+		}
+		segments.sort(Comparator.comparingInt(FrameJournal::getSegmentIndex));
+		return segments;
+	}
+
+	static int getSegmentIndex(Path path) {
+		String name = path.getFileName().toString();
+		return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	static Path getSegmentPath(Path directory, int index) {
+		return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+	}
+
+	private void write() {
+		while (isRunning) {
+			try {
+				Frame frame = pending.poll(100, TimeUnit.MILLISECONDS);
+				if (frame != null) {
+					writeFrame(frame);
+				}
+			} catch (InterruptedException e) {
+				Client.Log("Journal - Write failed. %s", e.getMessage());
+			}
+		}
+	}
+
+	//Called by stop() once the writer thread is done
+	private void writePending() {
+		Frame frame;
+		while ((frame = pending.poll()) != null) {
+			writeFrame(frame);
+		}
+	}
+
+	private void writeFrame(Frame frame) {
+		try {
+			writeRecord(frame);
+		} catch (Exception e) {
+			Client.Log("Journal - Write failed. %s", e.getMessage());
+		} finally {
+			letGo(frame);
+		}
+	}
+
+	private void finish() {
+		if (segment != null) {
+			segment.force();
+			segment = null;
+		}
+		if (indexWriter != null) {
+			try {
+				indexWriter.close();
+			} catch (IOException e) {
+				Client.Log("Journal - Could not finish the index. %s", e.getMessage());
+			}
+		}
+	}
+
+	private void writeRecord(Frame frame) throws IOException {
+		int length = frame.getLength();
+		int recordSize = RECORD_HEADER_SIZE + length;
+		if (recordSize + 4 > segmentSize) {
+			Client.Log("Journal - Skipping a %d byte frame that does not fit in a segment", length);
+			skippedCount.incrementAndGet();
+			return;
+		}
+		if (segment.remaining() < recordSize + 4) {
+			//leave the zero length end marker and move on to the next segment
+			segment.force();
+			segment = map(++segmentIndex);
+		}
+		int position = segment.position();
+		if (indexWriter != null) {
+			indexWriter.add(frame.getBuffer(), 0, frame.getReceivedNanos(), position, position + recordSize);
+		}
+		segment.putLong(position + 4, frame.getReceivedNanos());
+		segment.put(position + RECORD_HEADER_SIZE, frame.getBuffer(), 0, length);
+		//the length goes in last; a record is only complete once it is there
+		segment.putInt(position, length);
+		segment.position(position + recordSize);
+		journaledCount.incrementAndGet();
+	}
+
+	//Also starts the segment's index
+	private MappedByteBuffer map(int index) throws IOException {
+		Path path = getSegmentPath(directory, index);
+		if (indexWriter != null) {
+			indexWriter.close();
+			indexWriter.open(path);
+		}
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.setLength(segmentSize);
+			MappedByteBuffer mapped = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+			return mapped;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package intrinio;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//Walks the records of a FrameJournal directory in order, segment by segment, straight out of read-only mappings.
+//After next() returns true, the frame is in getBuffer() from getFrameOffset() for getFrameLength() bytes.
+final class FrameJournalReader {
+	private final List<Path> segments;
+	private int segmentIndex = -1;
+	private MappedByteBuffer segment;
+	private int position;
+	private int frameOffset;
+	private int frameLength;
+	private long receivedNanos;
+
+	FrameJournalReader(String directory) throws IOException {
+		this.segments = FrameJournal.getSegments(Paths.get(directory));
+	}
+
+	boolean next() throws IOException {
+		while (true) {
+			if (segment != null && position + FrameJournal.RECORD_HEADER_SIZE <= segment.capacity()) {
+				int length = segment.getInt(position);
+				if (length > 0) {
+					receivedNanos = segment.getLong(position + 4);
+					frameOffset = position + FrameJournal.RECORD_HEADER_SIZE;
+					frameLength = length;
+					position = frameOffset + length;
+					return true;
+				}
+			}
+			if (++segmentIndex >= segments.size()) {
+				segment = null;
+				return false;
+			}
+			segment = map(segments.get(segmentIndex));
+			position = 0;
+		}
+	}
+
+	MappedByteBuffer getBuffer() {
+		return segment;
+	}
+
+	int getFrameOffset() {
+		return frameOffset;
+	}
+
+	int getFrameLength() {
+		return frameLength;
+	}
+
+	long getReceivedNanos() {
+		return receivedNanos;
+	}
+
+	private static MappedByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+			return mapped;
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package intrinio;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+final class FramePool {
+	private final ArrayBlockingQueue<Frame> free;
+
+	FramePool(int maxPooledFrames) {
+		this.free = new ArrayBlockingQueue<Frame>(maxPooledFrames);
+	}
+
+	Frame acquire() {
+		Frame frame = free.poll();
+		return frame == null ? new Frame() : frame;
+	}
+
+	void release(Frame frame) {
+		frame.clear();
+		free.offer(frame); //if the pool is already full, let the frame be collected
+	}
+}
@@ -0,0 +1,350 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//Decodes and dispatches the messages of a frame. Each processing thread owns one, along with its reusable views.
+final class FrameProcessor {
+	private final EventHandlers handlers;
+	private final ShardingMode shardingMode;
+	private final QuoteConflator quoteConflator;
+	private final TradeView tradeView = new TradeView();
+	private final QuoteView quoteView = new QuoteView();
+	private final RefreshView refreshView = new RefreshView();
+	private final UnusualActivityView unusualActivityView = new UnusualActivityView();
+	private final TradeBatch tradeBatch = new TradeBatch(64);
+	private final QuoteBatch quoteBatch = new QuoteBatch(64);
+	private final LatencyRecorder latency;
+	private final ClientMetrics metrics;
+	//while timing a message: when the current step started, time spent so far, and whether there was anything to decode or handle
+	private long mark;
+	private long decodeNanos;
+	private long handlerNanos;
+	private boolean isDecoded;
+	private boolean isHandled;
+	//epoch nanos at which the first fragment of the frame being processed arrived, 0 if unknown
+	private long firstFragmentNanos = 0L;
+	//whether a recording wants slow handler events, checked once per frame; the event of the handler being called
+	private boolean isTracingHandlers;
+	private EventLane handlerLane;
+	private boolean isBatchHandler;
+	private Object handlerEvent;
+
+	FrameProcessor(EventHandlers handlers, ShardingMode shardingMode) {
+		this(handlers, shardingMode, null, null, null);
+	}
+
+	FrameProcessor(EventHandlers handlers, ShardingMode shardingMode, QuoteConflator quoteConflator) {
+		this(handlers, shardingMode, quoteConflator, null, null);
+	}
+
+	//With a conflator, quotes are parked there for later delivery instead of being dispatched. With a latency recorder,
+	//every stage this thread can see is timed. With metrics, the events dispatched (or parked) are counted once per frame.
+	FrameProcessor(EventHandlers handlers, ShardingMode shardingMode, QuoteConflator quoteConflator, LatencyRecorder latency, ClientMetrics metrics) {
+		this.handlers = handlers;
+		this.shardingMode = shardingMode;
+		this.quoteConflator = quoteConflator;
+		this.latency = latency;
+		this.metrics = metrics;
+	}
+
+	static int getMessageSize(byte type) {
+		switch (type) {
+			case 0: return TradeView.MESSAGE_SIZE;
+			case 1: return QuoteView.MESSAGE_SIZE;
+			case 2: return RefreshView.MESSAGE_SIZE;
+			default: return UnusualActivityView.MESSAGE_SIZE;
+		}
+	}
+
+	//Hashes every message of the frame once, recording its shard in the frame and marking the shards that have work.
+	//Returns the number of shards marked. From an unknown message type on, every shard is marked so each can report it.
+	static int assignShards(Frame frame, ShardingMode shardingMode, boolean[] hasWork) {
+		ByteBuffer buffer = frame.getBuffer();
+		short[] messageShards = frame.getMessageShards();
+		int shardCount = hasWork.length;
+		int count = frame.getMessageCount();
+		int marked = 0;
+		int offset = 1;
+		Arrays.fill(hasWork, false);
+		for (int i = 0; i < count; i++) {
+			byte type = buffer.get(offset + 22);
+			if (type < 0) {
+				Arrays.fill(hasWork, true);
+				return shardCount;
+			}
+			int shard = shardingMode.shardOf(buffer, offset, shardCount);
+			messageShards[i] = (short) shard;
+			if (!hasWork[shard]) {
+				hasWork[shard] = true;
+				marked++;
+			}
+			offset += getMessageSize(type);
+		}
+		return marked;
+	}
+
+	void process(Frame frame) {
+		process(frame, 0, 1);
+	}
+
+	//With shardCount > 1 the frame must have been through assignShards
+	void process(Frame frame, int shard, int shardCount) {
+		long receivedNanos = frame.getReceivedNanos();
+		if (latency == null || receivedNanos == 0L) {
+			dispatch(frame.getBuffer(), 0, shardCount > 1 ? frame.getMessageShards() : null, shard);
+			return;
+		}
+		//frames built by the conflator have no receive time, so only live frames get here
+		long takenNanos = EpochClock.nanos();
+		firstFragmentNanos = frame.getFirstFragmentNanos();
+		int lanes = dispatch(frame.getBuffer(), 0, shardCount > 1 ? frame.getMessageShards() : null, shard);
+		firstFragmentNanos = 0L;
+		if (shardCount > 1) {
+			//a frame spread over several shards is timed once, by the lowest of them
+			lanes = getFrameLanes(frame, shard);
+		}
+		for (EventLane lane : EventLane.values()) {
+			if ((lanes & (1 << lane.ordinal())) != 0) {
+				latency.record(LatencyStage.REASSEMBLY, lane, receivedNanos - frame.getFirstFragmentNanos());
+				latency.record(LatencyStage.QUEUE_WAIT, lane, takenNanos - receivedNanos);
+			}
+		}
+	}
+
+	//A bit per EventLane ordinal for the event types of the whole frame if shard is the lowest shard it went to, otherwise 0
+	private static int getFrameLanes(Frame frame, int shard) {
+		ByteBuffer buffer = frame.getBuffer();
+		short[] messageShards = frame.getMessageShards();
+		int count = frame.getMessageCount();
+		int lanes = 0;
+		int offset = 1;
+		for (int i = 0; i < count; i++) {
+			byte type = buffer.get(offset + 22);
+			if (type < 0) {
+				//every shard got the frame
+				return shard == 0 ? lanes : 0;
+			}
+			if (messageShards[i] < shard) {
+				return 0;
+			}
+			lanes |= 1 << EventLane.of(type).ordinal();
+			offset += getMessageSize(type);
+		}
+		return lanes;
+	}
+
+	//A frame laid out from start in any buffer, e.g. a memory-mapped journal
+	void process(ByteBuffer buffer, int start) {
+		process(buffer, start, null, 0);
+	}
+
+	//With messageShards, only the messages of shard are dispatched (and unknown ones, so each shard can report them)
+	void process(ByteBuffer buffer, int start, short[] messageShards, int shard) {
+		dispatch(buffer, start, messageShards, shard);
+	}
+
+	//Returns a bit per EventLane ordinal for the event types dispatched
+	private int dispatch(ByteBuffer buffer, int start, short[] messageShards, int shard) {
+		int count = buffer.get(start);
+		int offset = start + 1;
+		int lanes = 0;
+		//the flight recorder events are no more than these checks unless a recording enables them
+		Object frameEvent = FlightEvents.INSTANCE.beginFrameDecoded();
+		isTracingHandlers = FlightEvents.INSTANCE.isTracingHandlers();
+		int trades = 0;
+		int quotes = 0;
+		int refreshes = 0;
+		int unusualActivities = 0;
+		for (int i = 0; i < count; i++) {
+			byte type = buffer.get(offset + 22);
+			if (messageShards != null && type >= 0 && messageShards[i] != shard) {
+				offset += getMessageSize(type);
+				continue;
+			}
+			if (type == 1 && quoteConflator != null) {
+				network(EventLane.QUOTE, buffer, offset + 40);
+				quoteConflator.offer(buffer, offset);
+				lanes |= 1 << EventLane.QUOTE.ordinal();
+				quotes++;
+				offset += QuoteView.MESSAGE_SIZE;
+			}
+			else if (type == 1) {
+				network(EventLane.QUOTE, buffer, offset + 40);
+				startTiming(EventLane.QUOTE, false);
+				if (handlers.useOnQuoteView) {
+					quoteView.wrap(buffer, offset);
+					decoded();
+					handlers.onQuoteView.onQuoteView(quoteView);
+					handled();
+				}
+				if (handlers.useOnQuote) {
+					Quote quote = Quote.parse(buffer, offset);
+					decoded();
+					handlers.onQuote.onQuote(quote);
+					handled();
+				}
+				if (handlers.useOnQuoteBatch) {
+					quoteBatch.add(buffer, offset);
+					decoded();
+				}
+				stopTiming(EventLane.QUOTE);
+				lanes |= 1 << EventLane.QUOTE.ordinal();
+				quotes++;
+				offset += QuoteView.MESSAGE_SIZE;
+			}
+			else if (type == 0) {
+				network(EventLane.TRADE, buffer, offset + 33);
+				startTiming(EventLane.TRADE, false);
+				if (handlers.useOnTradeView) {
+					tradeView.wrap(buffer, offset);
+					decoded();
+					handlers.onTradeView.onTradeView(tradeView);
+					handled();
+				}
+				if (handlers.useOnTrade) {
+					Trade trade = Trade.parse(buffer, offset);
+					decoded();
+					handlers.onTrade.onTrade(trade);
+					handled();
+				}
+				if (handlers.useOnTradeBatch) {
+					tradeBatch.add(buffer, offset);
+					decoded();
+				}
+				stopTiming(EventLane.TRADE);
+				lanes |= 1 << EventLane.TRADE.ordinal();
+				trades++;
+				if (metrics != null) {
+					metrics.tradeProcessed(buffer.get(offset + 65));
+				}
+				offset += TradeView.MESSAGE_SIZE;
+			}
+			else if (type > 2) {
+				network(EventLane.UNUSUAL_ACTIVITY, buffer, offset + 54);
+				startTiming(EventLane.UNUSUAL_ACTIVITY, false);
+				if (handlers.useOnUnusualActivityView) {
+					unusualActivityView.wrap(buffer, offset);
+					decoded();
+					handlers.onUnusualActivityView.onUnusualActivityView(unusualActivityView);
+					handled();
+				}
+				if (handlers.useOnUnusualActivity) {
+					UnusualActivity unusualActivity = UnusualActivity.parse(buffer, offset);
+					decoded();
+					handlers.onUnusualActivity.onUnusualActivity(unusualActivity);
+					handled();
+				}
+				stopTiming(EventLane.UNUSUAL_ACTIVITY);
+				lanes |= 1 << EventLane.UNUSUAL_ACTIVITY.ordinal();
+				unusualActivities++;
+				offset += UnusualActivityView.MESSAGE_SIZE;
+			}
+			else if (type == 2) {
+				//refreshes carry no timestamp
+				startTiming(EventLane.REFRESH, false);
+				if (handlers.useOnRefreshView) {
+					refreshView.wrap(buffer, offset);
+					decoded();
+					handlers.onRefreshView.onRefreshView(refreshView);
+					handled();
+				}
+				if (handlers.useOnRefresh) {
+					Refresh refresh = Refresh.parse(buffer, offset);
+					decoded();
+					handlers.onRefresh.onRefresh(refresh);
+					handled();
+				}
+				stopTiming(EventLane.REFRESH);
+				lanes |= 1 << EventLane.REFRESH.ordinal();
+				refreshes++;
+				offset += RefreshView.MESSAGE_SIZE;
+			}
+			else {
+				Client.Log("Error parsing multi-part message. Type is %d", type);
+				i = count;
+			}
+		}
+		//one call per frame with everything collected above
+		if (tradeBatch.size() > 0) {
+			startTiming(EventLane.TRADE, true);
+			handlers.onTradeBatch.onTradeBatch(tradeBatch);
+			handled();
+			stopTiming(EventLane.TRADE);
+			tradeBatch.clear();
+		}
+		if (quoteBatch.size() > 0) {
+			startTiming(EventLane.QUOTE, true);
+			handlers.onQuoteBatch.onQuoteBatch(quoteBatch);
+			handled();
+			stopTiming(EventLane.QUOTE);
+			quoteBatch.clear();
+		}
+		if (frameEvent != null) {
+			FlightEvents.INSTANCE.endFrameDecoded(frameEvent, count, trades, quotes, refreshes, unusualActivities);
+		}
+		if (metrics != null) {
+			if (trades > 0) metrics.eventsProcessed(EventLane.TRADE, trades);
+			if (quotes > 0) metrics.eventsProcessed(EventLane.QUOTE, quotes);
+			if (refreshes > 0) metrics.eventsProcessed(EventLane.REFRESH, refreshes);
+			if (unusualActivities > 0) metrics.eventsProcessed(EventLane.UNUSUAL_ACTIVITY, unusualActivities);
+		}
+		return lanes;
+	}
+
+	//The timing hooks below do nothing without a latency recorder, or a recording with slow handler events enabled
+
+	private void network(EventLane lane, ByteBuffer buffer, int timestampOffset) {
+		if (latency != null && firstFragmentNanos != 0L) {
+			latency.record(LatencyStage.NETWORK, lane, firstFragmentNanos - buffer.getLong(timestampOffset));
+		}
+	}
+
+	//A batch handler is called right after, a message's handlers after decoded()
+	private void startTiming(EventLane lane, boolean isBatch) {
+		if (latency != null) {
+			decodeNanos = 0L;
+			handlerNanos = 0L;
+			isDecoded = false;
+			isHandled = false;
+			mark = System.nanoTime();
+		}
+		if (isTracingHandlers) {
+			handlerLane = lane;
+			isBatchHandler = isBatch;
+			handlerEvent = isBatch ? FlightEvents.INSTANCE.beginHandler() : null;
+		}
+	}
+
+	private void decoded() {
+		if (latency != null) {
+			long now = System.nanoTime();
+			decodeNanos += now - mark;
+			isDecoded = true;
+			mark = now;
+		}
+		if (isTracingHandlers) {
+			handlerEvent = FlightEvents.INSTANCE.beginHandler();
+		}
+	}
+
+	private void handled() {
+		if (latency != null) {
+			long now = System.nanoTime();
+			handlerNanos += now - mark;
+			isHandled = true;
+			mark = now;
+		}
+		if (isTracingHandlers && handlerEvent != null) {
+			FlightEvents.INSTANCE.endHandler(handlerEvent, handlerLane, isBatchHandler);
+			handlerEvent = null;
+		}
+	}
+
+	private void stopTiming(EventLane lane) {
+		if (latency != null) {
+			if (isDecoded) latency.record(LatencyStage.DECODE, lane, decodeNanos);
+			if (isHandled) latency.record(LatencyStage.HANDLER, lane, handlerNanos);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package intrinio;
+
+import java.util.concurrent.TimeUnit;
+
+//Hand-off between the websocket listener (the single producer) and the processData threads
+interface FrameQueue {
+	Frame claim();
+
+	void publish(Frame frame);
+
+	Frame poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+	void release(Frame frame);
+
+	//Hands back a claimed frame that will not be published after all
+	void abandon(Frame frame);
+
+	int size();
+}
@@ -0,0 +1,15 @@
+package intrinio;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+
+final class HttpClientTransport implements Transport {
+	//one client (and its selector thread) for every reconnect
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+
+	public CompletableFuture<WebSocket> connect(URI uri, WebSocket.Listener listener) {
+		return httpClient.newWebSocketBuilder().buildAsync(uri, listener);
+	}
+}
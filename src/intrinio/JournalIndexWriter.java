@@ -0,0 +1,111 @@
+package intrinio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//Builds the sidecar index of a journal segment (frames-<index>.index) while it is recorded. The file starts with [long bucket nanos],
+//then for each time bucket of receive times: [long bucket start epoch nanos][int end of its last record][int entry count], then per entry
+//[int underlying hash][int record offset in the segment], sorted by hash then offset, one entry per underlying per record.
+//Little-endian. A bucket is written once the journal moves past it, so the end of a segment may not be indexed yet.
+//Only driven from the journal thread.
+final class JournalIndexWriter {
+	static final String INDEX_SUFFIX = ".index";
+	static final int INDEX_HEADER_SIZE = 8;
+	static final int BUCKET_HEADER_SIZE = 16;
+	static final int ENTRY_SIZE = 8;
+
+	private final long bucketNanos;
+	private FileChannel channel;
+	private long bucketStart = Long.MIN_VALUE;
+	//hash << 32 | offset, so sorting groups the entries by underlying
+	private long[] entries = new long[4096];
+	private int entryCount = 0;
+	private int recordEnd = 0;
+	private ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+	JournalIndexWriter(long bucketNanos) {
+		this.bucketNanos = bucketNanos;
+	}
+
+	static Path getIndexPath(Path segmentPath) {
+		String name = segmentPath.getFileName().toString();
+		return segmentPath.resolveSibling(name.substring(0, name.length() - FrameJournal.SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+	}
+
+	void open(Path segmentPath) throws IOException {
+		channel = FileChannel.open(getIndexPath(segmentPath), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		bucketStart = Long.MIN_VALUE;
+		entryCount = 0;
+		out.clear();
+		out.putLong(bucketNanos);
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+	}
+
+	//The frame is in buffer from frameOffset; its record takes up recordOffset to recordEnd in the segment
+	void add(ByteBuffer buffer, int frameOffset, long receivedNanos, int recordOffset, int recordEnd) throws IOException {
+		long bucket = receivedNanos - Math.floorMod(receivedNanos, bucketNanos);
+		if (bucket != bucketStart) {
+			flush();
+			bucketStart = bucket;
+		}
+		this.recordEnd = recordEnd;
+		int count = buffer.get(frameOffset);
+		int offset = frameOffset + 1;
+		for (int i = 0; i < count; i++) {
+			byte type = buffer.get(offset + 22);
+			if (type < 0) {
+				break;
+			}
+			if (entryCount == entries.length) {
+				entries = Arrays.copyOf(entries, entries.length * 2);
+			}
+			int hash = ShardingMode.UNDERLYING.hashOf(buffer, offset);
+			entries[entryCount++] = ((long) hash << 32) | (recordOffset & 0xFFFFFFFFL);
+			offset += FrameProcessor.getMessageSize(type);
+		}
+	}
+
+	void close() throws IOException {
+		if (channel != null) {
+			flush();
+			channel.force(false);
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private void flush() throws IOException {
+		if (entryCount == 0) {
+			return;
+		}
+		Arrays.sort(entries, 0, entryCount);
+		int unique = 0;
+		for (int i = 0; i < entryCount; i++) {
+			if (i == 0 || entries[i] != entries[i - 1]) {
+				entries[unique++] = entries[i];
+			}
+		}
+		int size = BUCKET_HEADER_SIZE + unique * ENTRY_SIZE;
+		if (out.capacity() < size) {
+			out = ByteBuffer.allocateDirect(Math.max(size, out.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		out.clear();
+		out.putLong(bucketStart).putInt(recordEnd).putInt(unique);
+		for (int i = 0; i < unique; i++) {
+			out.putInt((int) (entries[i] >>> 32)).putInt((int) entries[i]);
+		}
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		entryCount = 0;
+	}
+}
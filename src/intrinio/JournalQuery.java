@@ -0,0 +1,165 @@
+package intrinio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+//Looks up the recorded events of one underlying (e.g. AAPL) or one contract within a window of receive times (epoch nanos,
+//inclusive), using the sidecar indexes of a FrameJournal directory to go straight to the records that hold it.
+//Whatever the index does not cover yet (a segment still being recorded, or one written without an index) is scanned.
+//Matches are decoded with the same parse code as live data, in recorded order within each segment.
+public final class JournalQuery {
+	private final Path directory;
+
+	public JournalQuery(String directory) {
+		this.directory = Paths.get(directory);
+	}
+
+	//Each returns the number of events handed to the handler
+	public long forEachTrade(String symbol, long fromNanos, long toNanos, OnTrade onTrade) throws IOException {
+		return query(symbol, fromNanos, toNanos, EventLane.TRADE, (buffer, offset) -> onTrade.onTrade(Trade.parse(buffer, offset)));
+	}
+
+	public long forEachQuote(String symbol, long fromNanos, long toNanos, OnQuote onQuote) throws IOException {
+		return query(symbol, fromNanos, toNanos, EventLane.QUOTE, (buffer, offset) -> onQuote.onQuote(Quote.parse(buffer, offset)));
+	}
+
+	public long forEachRefresh(String symbol, long fromNanos, long toNanos, OnRefresh onRefresh) throws IOException {
+		return query(symbol, fromNanos, toNanos, EventLane.REFRESH, (buffer, offset) -> onRefresh.onRefresh(Refresh.parse(buffer, offset)));
+	}
+
+	public long forEachUnusualActivity(String symbol, long fromNanos, long toNanos, OnUnusualActivity onUnusualActivity) throws IOException {
+		return query(symbol, fromNanos, toNanos, EventLane.UNUSUAL_ACTIVITY, (buffer, offset) -> onUnusualActivity.onUnusualActivity(UnusualActivity.parse(buffer, offset)));
+	}
+
+	private interface Match {
+		void accept(ByteBuffer buffer, int messageOffset);
+	}
+
+	//A symbol without '_' is an underlying; anything else is a contract, in either format
+	private long query(String symbol, long fromNanos, long toNanos, EventLane lane, Match match) throws IOException {
+		boolean isUnderlying = symbol.indexOf('_') < 0;
+		byte[] symbolBytes = (isUnderlying ? symbol : OptionContractDictionary.toServerFormat(symbol)).getBytes(StandardCharsets.US_ASCII);
+		int hash = hashOfUnderlying(symbolBytes);
+		long count = 0L;
+		for (Path segmentPath : FrameJournal.getSegments(directory)) {
+			MappedByteBuffer segment = map(segmentPath);
+			Path indexPath = JournalIndexWriter.getIndexPath(segmentPath);
+			int scanFrom = 0;
+			if (Files.exists(indexPath)) {
+				MappedByteBuffer index = map(indexPath);
+				long bucketNanos = index.capacity() >= JournalIndexWriter.INDEX_HEADER_SIZE ? index.getLong(0) : 0L;
+				int position = JournalIndexWriter.INDEX_HEADER_SIZE;
+				while (bucketNanos > 0L && position + JournalIndexWriter.BUCKET_HEADER_SIZE <= index.capacity()) {
+					long bucketStart = index.getLong(position);
+					int recordEnd = index.getInt(position + 8);
+					int entries = index.getInt(position + 12);
+					int first = position + JournalIndexWriter.BUCKET_HEADER_SIZE;
+					int end = first + entries * JournalIndexWriter.ENTRY_SIZE;
+					if (end > index.capacity()) {
+						//a bucket still being written
+						break;
+					}
+					//records after the last indexed bucket are left to the scan
+					scanFrom = Math.max(scanFrom, recordEnd);
+					if (bucketStart <= toNanos && bucketStart + bucketNanos > fromNanos) {
+						for (int entry = findFirst(index, first, entries, hash); entry < end && index.getInt(entry) == hash; entry += JournalIndexWriter.ENTRY_SIZE) {
+							count += matchRecord(segment, index.getInt(entry + 4), symbolBytes, isUnderlying, fromNanos, toNanos, lane, match);
+						}
+					}
+					position = end;
+				}
+			}
+			for (int position = scanFrom; position + FrameJournal.RECORD_HEADER_SIZE <= segment.capacity(); ) {
+				int length = segment.getInt(position);
+				if (length <= 0) {
+					break;
+				}
+				count += matchRecord(segment, position, symbolBytes, isUnderlying, fromNanos, toNanos, lane, match);
+				position += FrameJournal.RECORD_HEADER_SIZE + length;
+			}
+		}
+		return count;
+	}
+
+	//Entries are sorted by hash as a signed int; returns the position of the first with this hash, or past it
+	private static int findFirst(ByteBuffer index, int first, int entries, int hash) {
+		int low = 0;
+		int high = entries;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (index.getInt(first + middle * JournalIndexWriter.ENTRY_SIZE) < hash) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return first + low * JournalIndexWriter.ENTRY_SIZE;
+	}
+
+	//The hash is only a pointer; the symbol itself is checked here
+	private static int matchRecord(ByteBuffer segment, int recordOffset, byte[] symbolBytes, boolean isUnderlying, long fromNanos, long toNanos, EventLane lane, Match match) {
+		long receivedNanos = segment.getLong(recordOffset + 4);
+		if (receivedNanos < fromNanos || receivedNanos > toNanos) {
+			return 0;
+		}
+		int start = recordOffset + FrameJournal.RECORD_HEADER_SIZE;
+		int messages = segment.get(start);
+		int offset = start + 1;
+		int matched = 0;
+		for (int i = 0; i < messages; i++) {
+			byte type = segment.get(offset + 22);
+			EventLane messageLane = EventLane.of(type);
+			if (messageLane == null) {
+				break;
+			}
+			if (messageLane == lane && isMatch(segment, offset, symbolBytes, isUnderlying)) {
+				match.accept(segment, offset);
+				matched++;
+			}
+			offset += FrameProcessor.getMessageSize(type);
+		}
+		return matched;
+	}
+
+	//message layout: contract length [0], contract [1-21] in server format
+	private static boolean isMatch(ByteBuffer buffer, int messageOffset, byte[] symbolBytes, boolean isUnderlying) {
+		int length = buffer.get(messageOffset);
+		if (isUnderlying ? length <= symbolBytes.length || buffer.get(messageOffset + 1 + symbolBytes.length) != '_' : length != symbolBytes.length) {
+			return false;
+		}
+		for (int i = 0; i < symbolBytes.length; i++) {
+			if (buffer.get(messageOffset + 1 + i) != symbolBytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//Same as ShardingMode.UNDERLYING.hashOf
+	private static int hashOfUnderlying(byte[] symbolBytes) {
+		int hash = 0x811C9DC5;
+		for (byte b : symbolBytes) {
+			if (b == '_') {
+				break;
+			}
+			hash = (hash ^ b) * 0x01000193;
+		}
+		return hash;
+	}
+
+	private static MappedByteBuffer map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+			return mapped;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package intrinio;
+
+//Settings for one event lane. DROP_QUOTES and CONFLATE only have an effect on the QUOTE lane; elsewhere they act as BLOCK.
+public class LaneConfig {
+	private int threads = 1;
+	private int queueCapacity = 0;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	public LaneConfig() {}
+
+	public LaneConfig(int threads, int queueCapacity, OverflowPolicy overflowPolicy) throws Exception {
+		setThreads(threads);
+		setQueueCapacity(queueCapacity);
+		setOverflowPolicy(overflowPolicy);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) throws Exception {
+		if (threads < 1) {
+			throw new Exception("A lane needs at least 1 thread");
+		}
+		this.threads = threads;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) throws Exception {
+		if (queueCapacity < 0) {
+			throw new Exception("The queue capacity cannot be negative");
+		}
+		this.queueCapacity = queueCapacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public String toString() {
+		return String.format("{threads = %d, queueCapacity = %d, overflowPolicy = %s}", this.threads, this.queueCapacity, this.overflowPolicy);
+	}
+}
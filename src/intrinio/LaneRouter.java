@@ -0,0 +1,154 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+
+//Splits every received frame into one frame per event lane, so a backlog of quotes never sits in front of trades or unusual activity.
+//With a shardingMode, a lane with several threads gets one queue per thread and each contract (or underlying) always goes to the same one.
+//route is only called from the websocket listener.
+final class LaneRouter {
+	static final class Lane {
+		final EventLane eventLane;
+		final LaneConfig laneConfig;
+		final FrameQueue[] queues;
+		final OverflowController[] overflowControllers;
+		//frames being filled for the current received frame, one per queue
+		private final Frame[] pending;
+
+		Lane(EventLane eventLane, LaneConfig laneConfig, int queueCount) {
+			this.eventLane = eventLane;
+			this.laneConfig = laneConfig;
+			this.queues = new FrameQueue[queueCount];
+			this.overflowControllers = new OverflowController[queueCount];
+			this.pending = new Frame[queueCount];
+		}
+
+		//The queue a lane thread polls
+		int queueOf(int thread) {
+			return queues.length > 1 ? thread : 0;
+		}
+
+		int size() {
+			int size = 0;
+			for (FrameQueue queue : queues) {
+				size += queue.size();
+			}
+			return size;
+		}
+	}
+
+	private final ShardingMode shardingMode;
+	private final Lane[] lanes;
+
+	LaneRouter(Config config, QuoteConflator quoteConflator, DemandController demandController) {
+		this.shardingMode = config.getShardingMode();
+		EventLane[] eventLanes = EventLane.values();
+		this.lanes = new Lane[eventLanes.length];
+		for (EventLane eventLane : eventLanes) {
+			LaneConfig laneConfig = config.getLaneConfig(eventLane);
+			int queueCount = shardingMode != ShardingMode.NONE ? laneConfig.getThreads() : 1;
+			Lane lane = new Lane(eventLane, laneConfig, queueCount);
+			for (int i = 0; i < queueCount; i++) {
+				if (config.getUseRingBuffer()) {
+					lane.queues[i] = new RingFrameQueue(config.getRingBufferSize(), config.getWaitStrategy());
+				} else {
+					lane.queues[i] = new DequeFrameQueue(1024, config.getWaitStrategy());
+				}
+				lane.overflowControllers[i] = new OverflowController(lane.queues[i], queueCount > 1 ? eventLane + " " + i : eventLane.name(), laneConfig.getQueueCapacity(), laneConfig.getOverflowPolicy(), quoteConflator, demandController);
+			}
+			lanes[eventLane.ordinal()] = lane;
+		}
+	}
+
+	Lane getLane(EventLane eventLane) {
+		return lanes[eventLane.ordinal()];
+	}
+
+	//Copies each message of the frame to its lane, then queues every lane frame that got one. The caller keeps the received frame.
+	void route(Frame frame) throws InterruptedException {
+		ByteBuffer buffer = frame.getBuffer();
+		int count = frame.getMessageCount();
+		int offset = 1;
+		for (int i = 0; i < count; i++) {
+			byte type = buffer.get(offset + 22);
+			EventLane eventLane = EventLane.of(type);
+			if (eventLane == null) {
+				Client.Log("Error parsing multi-part message. Type is %d", type);
+				break;
+			}
+			int size = FrameProcessor.getMessageSize(type);
+			Lane lane = lanes[eventLane.ordinal()];
+			int index = lane.queues.length > 1 ? shardingMode.shardOf(buffer, offset, lane.queues.length) : 0;
+			Frame target = lane.pending[index];
+			if (target == null) {
+				target = lane.queues[index].claim();
+				target.setFirstFragmentNanos(frame.getFirstFragmentNanos());
+				target.setReceivedNanos(frame.getReceivedNanos());
+				lane.pending[index] = target;
+			}
+			target.appendMessage(buffer, offset, size);
+			offset += size;
+		}
+		for (Lane lane : lanes) {
+			for (int i = 0; i < lane.pending.length; i++) {
+				Frame target = lane.pending[i];
+				if (target != null) {
+					lane.pending[i] = null;
+					lane.overflowControllers[i].publish(target);
+				}
+			}
+		}
+	}
+
+	int size() {
+		int size = 0;
+		for (Lane lane : lanes) {
+			size += lane.size();
+		}
+		return size;
+	}
+
+	long getDroppedCount() {
+		long count = 0L;
+		for (Lane lane : lanes) {
+			for (OverflowController overflowController : lane.overflowControllers) {
+				count += overflowController.getDroppedCount();
+			}
+		}
+		return count;
+	}
+
+	long getBlockedCount() {
+		long count = 0L;
+		for (Lane lane : lanes) {
+			for (OverflowController overflowController : lane.overflowControllers) {
+				count += overflowController.getBlockedCount();
+			}
+		}
+		return count;
+	}
+
+	//Fraction of the fullest ring buffer in use, 0 without ring buffers
+	double getRingOccupancy() {
+		double occupancy = 0.0D;
+		for (Lane lane : lanes) {
+			for (FrameQueue queue : lane.queues) {
+				if (queue instanceof RingFrameQueue) {
+					occupancy = Math.max(occupancy, ((RingFrameQueue) queue).getOccupancy());
+				}
+			}
+		}
+		return occupancy;
+	}
+
+	//e.g. TRADE 0, QUOTE 12, REFRESH 0, UNUSUAL_ACTIVITY 0
+	String getDepths() {
+		StringBuilder builder = new StringBuilder();
+		for (Lane lane : lanes) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			builder.append(lane.eventLane).append(' ').append(lane.size());
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,53 @@
+package intrinio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Log-linear histogram of nanosecond values in fixed memory, in the style of HdrHistogram: values below 128 get a bucket each,
+//larger ones are bucketed by their top 7 bits, so a bucket never spans more than 1/64 of its values. Values are capped at MAX_VALUE.
+//record() is lock-free and allocation-free, and may be called from any number of threads.
+final class LatencyHistogram {
+	static final long MAX_VALUE = (1L << 40) - 1L;
+	private static final int SUB_BUCKET_COUNT = 128;
+	private static final int SUB_BUCKET_HALF = 64;
+	static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong max = new AtomicLong(0L);
+
+	void record(long nanos) {
+		long value = nanos < 0L ? 0L : Math.min(nanos, MAX_VALUE);
+		counts.incrementAndGet(indexOf(value));
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	//With reset, the counts are taken rather than copied, so the next snapshot only covers what is recorded after this one
+	LatencySnapshot snapshot(boolean reset) {
+		long[] copy = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			copy[i] = reset ? counts.getAndSet(i, 0L) : counts.get(i);
+		}
+		return new LatencySnapshot(copy, reset ? max.getAndSet(0L) : max.get());
+	}
+
+	static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+		return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+	}
+
+	//The largest value that falls in the bucket
+	static long highestValueOf(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_HALF - 1;
+		long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+		return ((subBucket + 1L) << shift) - 1L;
+	}
+}
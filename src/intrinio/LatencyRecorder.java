@@ -0,0 +1,22 @@
+package intrinio;
+
+//One LatencyHistogram per stage and event type, shared by every thread of a client
+final class LatencyRecorder {
+	private static final int LANE_COUNT = EventLane.values().length;
+
+	private final LatencyHistogram[] histograms = new LatencyHistogram[LatencyStage.values().length * LANE_COUNT];
+
+	LatencyRecorder() {
+		for (int i = 0; i < histograms.length; i++) {
+			histograms[i] = new LatencyHistogram();
+		}
+	}
+
+	void record(LatencyStage stage, EventLane lane, long nanos) {
+		histograms[stage.ordinal() * LANE_COUNT + lane.ordinal()].record(nanos);
+	}
+
+	LatencySnapshot snapshot(LatencyStage stage, EventLane lane, boolean reset) {
+		return histograms[stage.ordinal() * LANE_COUNT + lane.ordinal()].snapshot(reset);
+	}
+}
@@ -0,0 +1,58 @@
+package intrinio;
+
+//The latency distribution of one stage and event type, in nanoseconds. Percentiles are within 1/64 (about 1.6%) of the true value.
+public final class LatencySnapshot {
+	private final long[] counts;
+	private final long count;
+	private final long max;
+
+	LatencySnapshot(long[] counts, long max) {
+		long total = 0L;
+		for (long bucketCount : counts) {
+			total += bucketCount;
+		}
+		this.counts = counts;
+		this.count = total;
+		this.max = max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	//percentile from 0 to 100; 0 when nothing was recorded
+	public long getValueAtPercentile(double percentile) {
+		if (count == 0L) {
+			return 0L;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0D * count));
+		long seen = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(LatencyHistogram.highestValueOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	public long getP50() {
+		return getValueAtPercentile(50.0D);
+	}
+
+	public long getP99() {
+		return getValueAtPercentile(99.0D);
+	}
+
+	public long getP999() {
+		return getValueAtPercentile(99.9D);
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public String toString() {
+		return String.format("count = %d, p50 = %d ns, p99 = %d ns, p99.9 = %d ns, max = %d ns", count, getP50(), getP99(), getP999(), max);
+	}
+}
@@ -0,0 +1,15 @@
+package intrinio;
+
+//The steps between the exchange and your handlers that Client.getLatency reports on, when latencyHistograms is set
+public enum LatencyStage {
+	//the message's exchange timestamp to the arrival of the first fragment of its frame (includes any clock difference)
+	NETWORK,
+	//first fragment to the last fragment of the frame
+	REASSEMBLY,
+	//frame complete to taken off the queue by a processing thread
+	QUEUE_WAIT,
+	//building the record, view or batch entry of a message
+	DECODE,
+	//your handlers for a message, or for a batch
+	HANDLER
+}
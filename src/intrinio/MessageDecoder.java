@@ -0,0 +1,48 @@
+package intrinio;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+//Little-endian field reads shared by every message type. Indices are absolute, so no slices or wrappers are created.
+final class MessageDecoder {
+	private static final VarHandle ARRAY_INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle ARRAY_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private MessageDecoder() {}
+
+	static int getInt(byte[] bytes, int index) {
+		return (int) ARRAY_INT.get(bytes, index);
+	}
+
+	static long getLong(byte[] bytes, int index) {
+		return (long) ARRAY_LONG.get(bytes, index);
+	}
+
+	static int getInt(ByteBuffer bytes, int index) {
+		return (int) BUFFER_INT.get(bytes, index);
+	}
+
+	static long getLong(ByteBuffer bytes, int index) {
+		return (long) BUFFER_LONG.get(bytes, index);
+	}
+
+	static long getUnsignedInt(byte[] bytes, int index) {
+		return Integer.toUnsignedLong(getInt(bytes, index));
+	}
+
+	static long getUnsignedInt(ByteBuffer bytes, int index) {
+		return Integer.toUnsignedLong(getInt(bytes, index));
+	}
+
+	static double getTimestamp(byte[] bytes, int index) {
+		return ((double) getLong(bytes, index)) / 1_000_000_000.0D;
+	}
+
+	static double getTimestamp(ByteBuffer bytes, int index) {
+		return ((double) getLong(bytes, index)) / 1_000_000_000.0D;
+	}
+}
@@ -0,0 +1,74 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+//Reads fields straight out of a little-endian frame buffer. Instances are reused for every message.
+abstract class MessageView {
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+	ByteBuffer buffer;
+	int offset;
+
+	final void wrap(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+
+	//contract [1-21] in server format, e.g. AAPL_201016C100.00 or ABC_201016C100.003
+	private int underscoreIndex() {
+		int i = offset + 1;
+		while (buffer.get(i) != '_') i++;
+		return i;
+	}
+
+	public String contract() {
+		return OptionContract.intern(buffer, offset).toString();
+	}
+
+	public OptionContract getOptionContract() {
+		return OptionContract.intern(buffer, offset);
+	}
+
+	public String getUnderlyingSymbol() {
+		int start = offset + 1;
+		char[] symbol = new char[underscoreIndex() - start];
+		for (int i = 0; i < symbol.length; i++) {
+			symbol[i] = (char) buffer.get(start + i);
+		}
+		return new String(symbol);
+	}
+
+	public boolean isPut() {
+		return buffer.get(underscoreIndex() + 7) == 'P';
+	}
+
+	public boolean isCall() {
+		return buffer.get(underscoreIndex() + 7) == 'C';
+	}
+
+	public float getStrikePrice() {
+		int end = offset + 1 + buffer.get(offset);
+		int i = underscoreIndex() + 8;
+		int whole = 0;
+		for (byte b = buffer.get(i); b != '.'; b = buffer.get(++i)) {
+			whole = whole * 10 + (b - '0');
+		}
+		int part = 0;
+		int scale = 1000;
+		for (i++; i < end && scale > 1; i++) {
+			scale /= 10;
+			part += (buffer.get(i) - '0') * scale;
+		}
+		return whole + part * 0.001f;
+	}
+
+	public ZonedDateTime getExpirationDate() {
+		int i = underscoreIndex() + 1;
+		int year = 2000 + (buffer.get(i) - '0') * 10 + (buffer.get(i + 1) - '0');
+		int month = (buffer.get(i + 2) - '0') * 10 + (buffer.get(i + 3) - '0');
+		int day = (buffer.get(i + 4) - '0') * 10 + (buffer.get(i + 5) - '0');
+		return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, NEW_YORK);
+	}
+}
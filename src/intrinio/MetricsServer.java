@@ -0,0 +1,54 @@
+package intrinio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+//Serves GET /metrics in the Prometheus text format on its own daemon thread. A snapshot is only taken when scraped.
+//Only reachable from the same machine unless a bind address is given.
+final class MetricsServer {
+	private final HttpServer server;
+
+	MetricsServer(String bindAddress, int port, Supplier<MetricsSnapshot> metrics) throws IOException {
+		InetAddress address = bindAddress == null || bindAddress.isBlank() ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress);
+		server = HttpServer.create(new InetSocketAddress(address, port), 0);
+		server.createContext("/metrics", exchange -> respond(exchange, metrics));
+		//the default executor handles requests on the server's own thread, one at a time
+		server.setExecutor(null);
+	}
+
+	void start() {
+		server.start();
+	}
+
+	void stop() {
+		server.stop(0);
+	}
+
+	InetSocketAddress getAddress() {
+		return server.getAddress();
+	}
+
+	private static void respond(HttpExchange exchange, Supplier<MetricsSnapshot> metrics) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = metrics.get().toPrometheus().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package intrinio;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+//The client's counters and gauges at one point in time. Counters run from the start of the client; gauges are current values.
+//Taking one sums the counters and reads the queues, and costs the processing threads nothing.
+public final class MetricsSnapshot {
+	long dataMessages;
+	long textMessages;
+	long frames;
+	long frameBytes;
+	long[] events = new long[EventLane.values().length];
+	EnumMap<Exchange, Long> tradesByExchange = new EnumMap<Exchange, Long>(Exchange.class);
+	long unknownExchangeTrades;
+	long[] frameSizeCounts = new long[ClientMetrics.FRAME_SIZE_BOUNDS.length + 1];
+	int queueDepth;
+	double ringOccupancy;
+	//null without lanes
+	int[] laneDepths;
+	long droppedMessages;
+	long timesBlocked;
+	long reconnects;
+	long tokenRefreshes;
+	long journaledFrames;
+	long journalSkippedFrames;
+	int pendingQuotes;
+	long conflatedQuotes;
+
+	MetricsSnapshot() {}
+
+	//Websocket data messages, counting each fragment of a frame
+	public long getDataMessages() {
+		return dataMessages;
+	}
+
+	public long getTextMessages() {
+		return textMessages;
+	}
+
+	//Complete frames after reassembly
+	public long getFrames() {
+		return frames;
+	}
+
+	public long getFrameBytes() {
+		return frameBytes;
+	}
+
+	//Events dispatched to the handlers, or parked for conflation
+	public long getEvents(EventLane eventType) {
+		return events[eventType.ordinal()];
+	}
+
+	public long getTrades(Exchange exchange) {
+		Long count = tradesByExchange.get(exchange);
+		return count == null ? 0L : count;
+	}
+
+	//Trades with an exchange code that is not in Exchange
+	public long getUnknownExchangeTrades() {
+		return unknownExchangeTrades;
+	}
+
+	//Upper bounds, in bytes, of all but the last frame size bucket
+	public int[] getFrameSizeBounds() {
+		return ClientMetrics.FRAME_SIZE_BOUNDS.clone();
+	}
+
+	//Frames per size bucket (not cumulative). The last bucket holds frames larger than every bound.
+	public long[] getFrameSizeCounts() {
+		return frameSizeCounts.clone();
+	}
+
+	//Frames waiting to be processed, across every queue
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	//Fraction of the ring buffer in use, from 0 to 1; with lanes, that of the fullest queue. 0 without useRingBuffer.
+	public double getRingOccupancy() {
+		return ringOccupancy;
+	}
+
+	//Frames waiting in the queues of one lane. 0 without lanes.
+	public int getLaneDepth(EventLane lane) {
+		return laneDepths == null ? 0 : laneDepths[lane.ordinal()];
+	}
+
+	public long getDroppedMessages() {
+		return droppedMessages;
+	}
+
+	public long getTimesBlocked() {
+		return timesBlocked;
+	}
+
+	public long getReconnects() {
+		return reconnects;
+	}
+
+	public long getTokenRefreshes() {
+		return tokenRefreshes;
+	}
+
+	public long getJournaledFrames() {
+		return journaledFrames;
+	}
+
+	public long getJournalSkippedFrames() {
+		return journalSkippedFrames;
+	}
+
+	public int getPendingQuotes() {
+		return pendingQuotes;
+	}
+
+	public long getConflatedQuotes() {
+		return conflatedQuotes;
+	}
+
+	//The Prometheus text exposition format (version 0.0.4), as served on the metricsPort
+	public String toPrometheus() {
+		StringBuilder out = new StringBuilder(4096);
+		counter(out, "intrinio_data_messages_total", "Websocket data messages, counting each fragment", dataMessages);
+		counter(out, "intrinio_text_messages_total", "Websocket text messages", textMessages);
+		header(out, "intrinio_events_total", "counter", "Events dispatched or parked for conflation");
+		for (EventLane lane : EventLane.values()) {
+			sample(out, "intrinio_events_total", "type", label(lane.name()), events[lane.ordinal()]);
+		}
+		header(out, "intrinio_trades_total", "counter", "Trades by exchange");
+		for (Map.Entry<Exchange, Long> entry : tradesByExchange.entrySet()) {
+			sample(out, "intrinio_trades_total", "exchange", label(entry.getKey().name()), entry.getValue());
+		}
+		sample(out, "intrinio_trades_total", "exchange", "unknown", unknownExchangeTrades);
+		header(out, "intrinio_frame_size_bytes", "histogram", "Size of complete frames");
+		//+Inf and the count come from the same buckets, which are summed apart from frames, so they never disagree
+		long cumulative = 0L;
+		for (int i = 0; i < ClientMetrics.FRAME_SIZE_BOUNDS.length; i++) {
+			cumulative += frameSizeCounts[i];
+			sample(out, "intrinio_frame_size_bytes_bucket", "le", Integer.toString(ClientMetrics.FRAME_SIZE_BOUNDS[i]), cumulative);
+		}
+		cumulative += frameSizeCounts[ClientMetrics.FRAME_SIZE_BOUNDS.length];
+		sample(out, "intrinio_frame_size_bytes_bucket", "le", "+Inf", cumulative);
+		out.append("intrinio_frame_size_bytes_sum ").append(frameBytes).append('\n');
+		out.append("intrinio_frame_size_bytes_count ").append(cumulative).append('\n');
+		gauge(out, "intrinio_queue_depth", "Frames waiting to be processed", queueDepth);
+		header(out, "intrinio_ring_occupancy_ratio", "gauge", "Fraction of the ring buffer in use");
+		out.append("intrinio_ring_occupancy_ratio ").append(ringOccupancy).append('\n');
+		if (laneDepths != null) {
+			header(out, "intrinio_lane_depth", "gauge", "Frames waiting in the queues of a lane");
+			for (EventLane lane : EventLane.values()) {
+				sample(out, "intrinio_lane_depth", "lane", label(lane.name()), laneDepths[lane.ordinal()]);
+			}
+		}
+		counter(out, "intrinio_dropped_messages_total", "Messages dropped by the overflow policy", droppedMessages);
+		counter(out, "intrinio_blocked_total", "Times the overflow policy paused the websocket", timesBlocked);
+		counter(out, "intrinio_reconnects_total", "Websocket reconnection attempts", reconnects);
+		counter(out, "intrinio_token_refreshes_total", "Successful authorizations", tokenRefreshes);
+		counter(out, "intrinio_journaled_frames_total", "Frames written to the journal", journaledFrames);
+		counter(out, "intrinio_journal_skipped_frames_total", "Frames the journal could not keep up with", journalSkippedFrames);
+		gauge(out, "intrinio_pending_quotes", "Contracts with a conflated quote waiting for delivery", pendingQuotes);
+		counter(out, "intrinio_conflated_quotes_total", "Quotes replaced by a newer one before delivery", conflatedQuotes);
+		return out.toString();
+	}
+
+	public String toString() {
+		return String.format("Data Messages = %d, Text Messages = %d, Frames = %d, Trades = %d, Quotes = %d, Refreshes = %d, Unusual Activity = %d, Queue Depth = %d, Ring Occupancy = %.3f, Dropped Messages = %d, Times Blocked = %d, Reconnects = %d, Token Refreshes = %d",
+				dataMessages, textMessages, frames, events[EventLane.TRADE.ordinal()], events[EventLane.QUOTE.ordinal()], events[EventLane.REFRESH.ordinal()], events[EventLane.UNUSUAL_ACTIVITY.ordinal()],
+				queueDepth, ringOccupancy, droppedMessages, timesBlocked, reconnects, tokenRefreshes);
+	}
+
+	private static void counter(StringBuilder out, String name, String help, long value) {
+		header(out, name, "counter", help);
+		out.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void gauge(StringBuilder out, String name, String help, long value) {
+		header(out, name, "gauge", help);
+		out.append(name).append(' ').append(value).append('\n');
+	}
+
+	private static void header(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder out, String name, String label, String labelValue, long value) {
+		out.append(name).append('{').append(label).append("=\"").append(labelValue).append("\"} ").append(value).append('\n');
+	}
+
+	private static String label(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,204 @@
+package intrinio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+
+//A blocking SocketChannel, optionally wrapped in TLS by an SSLEngine. All buffers are direct.
+//read is only called from one thread; write may be called from any thread.
+final class NioConnection {
+	private static final ByteBuffer EMPTY = ByteBuffer.allocateDirect(0);
+
+	private final SocketChannel channel;
+	private final SSLEngine engine;
+	private ByteBuffer netIn;
+	private final ByteBuffer netOut;
+	private final Object writeLock = new Object();
+
+	private NioConnection(SocketChannel channel, SSLEngine engine) {
+		this.channel = channel;
+		this.engine = engine;
+		if (engine != null) {
+			int packetSize = engine.getSession().getPacketBufferSize();
+			this.netIn = ByteBuffer.allocateDirect(packetSize);
+			this.netOut = ByteBuffer.allocateDirect(packetSize);
+		} else {
+			this.netIn = null;
+			this.netOut = null;
+		}
+	}
+
+	static NioConnection open(String host, int port, boolean isSecure) throws IOException {
+		SocketChannel channel = SocketChannel.open();
+		try {
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			channel.connect(new InetSocketAddress(host, port));
+			if (!isSecure) {
+				return new NioConnection(channel, null);
+			}
+			SSLEngine engine;
+			try {
+				engine = SSLContext.getDefault().createSSLEngine(host, port);
+			} catch (Exception e) {
+				throw new IOException("TLS is not available. " + e.getMessage(), e);
+			}
+			engine.setUseClientMode(true);
+			SSLParameters parameters = engine.getSSLParameters();
+			parameters.setEndpointIdentificationAlgorithm("HTTPS");
+			engine.setSSLParameters(parameters);
+			NioConnection connection = new NioConnection(channel, engine);
+			connection.handshake();
+			return connection;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	//Reads into dst, which must have room for at least getApplicationBufferSize() bytes. Returns -1 at end of stream.
+	int read(ByteBuffer dst) throws IOException {
+		if (engine == null) {
+			return channel.read(dst);
+		}
+		while (true) {
+			netIn.flip();
+			SSLEngineResult result = engine.unwrap(netIn, dst);
+			netIn.compact();
+			runDelegatedTasks();
+			switch (result.getStatus()) {
+				case OK:
+					if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+						//post-handshake message, e.g. a key update
+						write(EMPTY);
+					}
+					if (result.bytesProduced() > 0) {
+						return result.bytesProduced();
+					}
+					if (result.bytesConsumed() > 0) {
+						continue;
+					}
+					break;
+				case BUFFER_UNDERFLOW:
+					if (!netIn.hasRemaining()) {
+						netIn = grow(netIn, engine.getSession().getPacketBufferSize());
+					}
+					break;
+				case BUFFER_OVERFLOW:
+					throw new SSLException("Read buffer is too small for a TLS record");
+				case CLOSED:
+					return -1;
+			}
+			if (channel.read(netIn) < 0) {
+				return -1;
+			}
+		}
+	}
+
+	void write(ByteBuffer src) throws IOException {
+		synchronized (writeLock) {
+			if (engine == null) {
+				writeFully(src);
+				return;
+			}
+			do {
+				netOut.clear();
+				SSLEngineResult result = engine.wrap(src, netOut);
+				if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+					throw new IOException("TLS session is closed");
+				}
+				netOut.flip();
+				writeFully(netOut);
+			} while (src.hasRemaining());
+		}
+	}
+
+	int getApplicationBufferSize() {
+		return engine == null ? 0 : engine.getSession().getApplicationBufferSize();
+	}
+
+	void close() {
+		try {
+			if (engine != null) {
+				engine.closeOutbound();
+				synchronized (writeLock) {
+					netOut.clear();
+					engine.wrap(EMPTY, netOut);
+					netOut.flip();
+					writeFully(netOut);
+				}
+			}
+		} catch (IOException e) {
+		} finally {
+			try { channel.close(); } catch (IOException e) {}
+		}
+	}
+
+	private void handshake() throws IOException {
+		ByteBuffer scratch = ByteBuffer.allocateDirect(engine.getSession().getApplicationBufferSize());
+		engine.beginHandshake();
+		SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+		while (status != SSLEngineResult.HandshakeStatus.FINISHED && status != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING) {
+			switch (status) {
+				case NEED_WRAP:
+					synchronized (writeLock) {
+						netOut.clear();
+						status = engine.wrap(EMPTY, netOut).getHandshakeStatus();
+						netOut.flip();
+						writeFully(netOut);
+					}
+					break;
+				case NEED_UNWRAP:
+				case NEED_UNWRAP_AGAIN:
+					netIn.flip();
+					SSLEngineResult result = engine.unwrap(netIn, scratch);
+					netIn.compact();
+					status = result.getHandshakeStatus();
+					if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW) {
+						if (!netIn.hasRemaining()) {
+							netIn = grow(netIn, engine.getSession().getPacketBufferSize());
+						}
+						if (channel.read(netIn) < 0) {
+							throw new EOFException("Connection closed during the TLS handshake");
+						}
+					} else if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+						throw new EOFException("Connection closed during the TLS handshake");
+					}
+					break;
+				case NEED_TASK:
+					runDelegatedTasks();
+					status = engine.getHandshakeStatus();
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	private void runDelegatedTasks() {
+		Runnable task;
+		while ((task = engine.getDelegatedTask()) != null) {
+			task.run();
+		}
+	}
+
+	private void writeFully(ByteBuffer src) throws IOException {
+		while (src.hasRemaining()) {
+			channel.write(src);
+		}
+	}
+
+	private static ByteBuffer grow(ByteBuffer buffer, int minimumCapacity) {
+		ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(minimumCapacity, buffer.capacity() * 2));
+		buffer.flip();
+		larger.put(buffer);
+		return larger;
+	}
+}
@@ -0,0 +1,21 @@
+package intrinio;
+
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+
+final class NioTransport implements Transport {
+	private final EventHandlers handlers;
+
+	NioTransport(EventHandlers handlers) {
+		this.handlers = handlers;
+	}
+
+	public CompletableFuture<WebSocket> connect(URI uri, WebSocket.Listener listener) {
+		try {
+			return CompletableFuture.completedFuture(NioWebSocket.connect(uri, listener, handlers.onThreadStart));
+		} catch (Exception e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+}
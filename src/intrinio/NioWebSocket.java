@@ -0,0 +1,382 @@
+package intrinio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+//RFC 6455 client over an NioConnection. Frames are parsed in place in a direct read buffer and binary payloads are handed
+//to the listener as windows onto that buffer, without copying. The listener is called from a single reader thread and
+//only while there is outstanding demand, so not requesting more stops reads and lets TCP push back on the server.
+final class NioWebSocket implements WebSocket {
+	private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	private static final int OPCODE_CONTINUATION = 0x0;
+	private static final int OPCODE_TEXT = 0x1;
+	private static final int OPCODE_BINARY = 0x2;
+	private static final int OPCODE_CLOSE = 0x8;
+	private static final int OPCODE_PING = 0x9;
+	private static final int OPCODE_PONG = 0xA;
+
+	private final NioConnection connection;
+	private final Listener listener;
+	private final ByteBuffer readBuffer;
+	private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(1024);
+	private final AtomicLong demand = new AtomicLong(0L);
+	private final ByteArrayOutputStream text = new ByteArrayOutputStream();
+	private volatile Thread reader;
+	private volatile boolean isInputClosed = false;
+	private volatile boolean isOutputClosed = false;
+	//frame being read
+	private int opcode;
+	private int messageOpcode;
+	private boolean isFinal;
+	private long payloadRemaining = 0L;
+	private boolean isInFrame = false;
+
+	private NioWebSocket(NioConnection connection, Listener listener, ByteBuffer readBuffer) {
+		this.connection = connection;
+		this.listener = listener;
+		this.readBuffer = readBuffer;
+	}
+
+	//Connects and performs the opening handshake on the calling thread, then starts the reader
+	static NioWebSocket connect(URI uri, Listener listener, OnThreadStart onThreadStart) throws IOException {
+		boolean isSecure = "wss".equalsIgnoreCase(uri.getScheme());
+		int port = uri.getPort() > 0 ? uri.getPort() : (isSecure ? 443 : 80);
+		NioConnection connection = NioConnection.open(uri.getHost(), port, isSecure);
+		try {
+			ByteBuffer readBuffer = ByteBuffer.allocateDirect(Math.max(READ_BUFFER_SIZE, connection.getApplicationBufferSize() * 2));
+			NioWebSocket ws = new NioWebSocket(connection, listener, readBuffer);
+			ws.handshake(uri, port, isSecure);
+			Thread reader = WorkerThreads.create(ExecutionMode.PLATFORM, ThreadRole.WEBSOCKET_READER, 0, onThreadStart, ws::read);
+			reader.setDaemon(true);
+			ws.reader = reader;
+			reader.start();
+			return ws;
+		} catch (IOException e) {
+			connection.close();
+			throw e;
+		}
+	}
+
+	//region WebSocket
+	public CompletableFuture<WebSocket> sendText(CharSequence data, boolean isLast) {
+		return send(OPCODE_TEXT, isLast, ByteBuffer.wrap(data.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean isLast) {
+		return send(OPCODE_BINARY, isLast, data);
+	}
+
+	public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+		return send(OPCODE_PING, true, message);
+	}
+
+	public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+		return send(OPCODE_PONG, true, message);
+	}
+
+	public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) {
+		byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer payload = ByteBuffer.allocate(2 + reasonBytes.length);
+		payload.putShort((short) statusCode).put(reasonBytes).flip();
+		CompletableFuture<WebSocket> result = send(OPCODE_CLOSE, true, payload);
+		isOutputClosed = true;
+		if (isInputClosed) {
+			connection.close();
+		}
+		return result;
+	}
+
+	public void request(long n) {
+		if (n <= 0L) {
+			throw new IllegalArgumentException("The number of messages must be positive");
+		}
+		demand.getAndAccumulate(n, (current, added) -> current + added < 0L ? Long.MAX_VALUE : current + added);
+		LockSupport.unpark(reader);
+	}
+
+	public String getSubprotocol() {
+		return "";
+	}
+
+	public boolean isOutputClosed() {
+		return isOutputClosed;
+	}
+
+	public boolean isInputClosed() {
+		return isInputClosed;
+	}
+
+	public void abort() {
+		isInputClosed = true;
+		isOutputClosed = true;
+		connection.close();
+		LockSupport.unpark(reader);
+	}
+	//endregion WebSocket
+
+	private void handshake(URI uri, int port, boolean isSecure) throws IOException {
+		byte[] nonce = new byte[16];
+		ThreadLocalRandom.current().nextBytes(nonce);
+		String key = Base64.getEncoder().encodeToString(nonce);
+		String path = (uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath()) + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+		boolean isDefaultPort = port == (isSecure ? 443 : 80);
+		String request = "GET " + path + " HTTP/1.1\r\n"
+				+ "Host: " + uri.getHost() + (isDefaultPort ? "" : ":" + port) + "\r\n"
+				+ "Upgrade: websocket\r\n"
+				+ "Connection: Upgrade\r\n"
+				+ "Sec-WebSocket-Key: " + key + "\r\n"
+				+ "Sec-WebSocket-Version: 13\r\n\r\n";
+		connection.write(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+
+		//read until the blank line; anything after it is the first frame data and stays in the buffer
+		int headerEnd = -1;
+		while (headerEnd < 0) {
+			if (!readBuffer.hasRemaining() || fill() < 0) {
+				throw new EOFException("Connection closed during the websocket handshake");
+			}
+			for (int i = 3; i < readBuffer.position() && headerEnd < 0; i++) {
+				if (readBuffer.get(i - 3) == '\r' && readBuffer.get(i - 2) == '\n' && readBuffer.get(i - 1) == '\r' && readBuffer.get(i) == '\n') {
+					headerEnd = i + 1;
+				}
+			}
+		}
+		byte[] header = new byte[headerEnd];
+		readBuffer.get(0, header);
+		String[] lines = new String(header, StandardCharsets.ISO_8859_1).split("\r\n");
+		if (lines.length == 0 || !lines[0].matches("HTTP/1\\.1 101( .*)?")) {
+			throw new ProtocolException("Websocket upgrade refused: " + (lines.length == 0 ? "" : lines[0]));
+		}
+		String expectedAccept;
+		try {
+			MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+			expectedAccept = Base64.getEncoder().encodeToString(sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+		} catch (Exception e) {
+			throw new IOException("SHA-1 is not available", e);
+		}
+		boolean isAccepted = false;
+		for (String line : lines) {
+			int colon = line.indexOf(':');
+			if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Accept")) {
+				isAccepted = line.substring(colon + 1).trim().equals(expectedAccept);
+			}
+		}
+		if (!isAccepted) {
+			throw new ProtocolException("Websocket upgrade response has a missing or wrong Sec-WebSocket-Accept");
+		}
+		readBuffer.flip().position(headerEnd);
+		readBuffer.compact();
+	}
+
+	//Reader thread. readBuffer is kept in write mode between calls to fill().
+	private void read() {
+		listener.onOpen(this);
+		try {
+			readBuffer.flip();
+			while (!isInputClosed) {
+				if (!parse()) {
+					readBuffer.compact();
+					int read = fill();
+					readBuffer.flip();
+					if (read < 0) {
+						throw new EOFException("Connection closed without a close frame");
+					}
+				}
+			}
+		} catch (Exception e) {
+			if (!isInputClosed) {
+				isInputClosed = true;
+				listener.onError(this, e);
+			}
+			connection.close();
+		}
+	}
+
+	private int fill() throws IOException {
+		return connection.read(readBuffer);
+	}
+
+	//Consumes what it can from the buffer (in read mode). Returns false when more bytes are needed.
+	private boolean parse() throws IOException {
+		if (!isInFrame) {
+			if (!parseHeader()) {
+				return false;
+			}
+		}
+		if (opcode >= OPCODE_CLOSE) {
+			if (readBuffer.remaining() < payloadRemaining) {
+				return false;
+			}
+			handleControl();
+			return true;
+		}
+		int available = (int) Math.min(readBuffer.remaining(), payloadRemaining);
+		if (available == 0 && payloadRemaining > 0L) {
+			return false;
+		}
+		payloadRemaining -= available;
+		boolean isLast = isFinal && payloadRemaining == 0L;
+		if (messageOpcode == OPCODE_TEXT) {
+			for (int i = 0; i < available; i++) {
+				text.write(readBuffer.get());
+			}
+			if (isLast) {
+				awaitDemand();
+				String message = text.toString(StandardCharsets.UTF_8);
+				text.reset();
+				await(listener.onText(this, message, true));
+			}
+		} else {
+			awaitDemand();
+			//hand over a window onto the read buffer, then move past it whatever the listener consumed
+			int start = readBuffer.position();
+			int limit = readBuffer.limit();
+			readBuffer.limit(start + available);
+			try {
+				await(listener.onBinary(this, readBuffer, isLast));
+			} finally {
+				readBuffer.limit(limit).position(start + available);
+			}
+		}
+		if (payloadRemaining == 0L) {
+			isInFrame = false;
+		}
+		return true;
+	}
+
+	private boolean parseHeader() throws IOException {
+		int start = readBuffer.position();
+		if (readBuffer.remaining() < 2) {
+			return false;
+		}
+		int b0 = readBuffer.get(start) & 0xFF;
+		int b1 = readBuffer.get(start + 1) & 0xFF;
+		boolean isMasked = (b1 & 0x80) != 0;
+		int length = b1 & 0x7F;
+		int headerLength = 2 + (length == 126 ? 2 : length == 127 ? 8 : 0) + (isMasked ? 4 : 0);
+		if (readBuffer.remaining() < headerLength) {
+			return false;
+		}
+		if (isMasked) {
+			throw new ProtocolException("Server frames must not be masked");
+		}
+		long payloadLength = length;
+		if (length == 126) {
+			payloadLength = readBuffer.getShort(start + 2) & 0xFFFF;
+		} else if (length == 127) {
+			payloadLength = readBuffer.getLong(start + 2);
+		}
+		isFinal = (b0 & 0x80) != 0;
+		opcode = b0 & 0x0F;
+		if (opcode >= OPCODE_CLOSE) {
+			if (!isFinal || payloadLength > 125) {
+				throw new ProtocolException("Malformed control frame");
+			}
+		} else if (opcode == OPCODE_TEXT || opcode == OPCODE_BINARY) {
+			messageOpcode = opcode;
+		} else if (opcode != OPCODE_CONTINUATION) {
+			throw new ProtocolException("Unknown opcode " + opcode);
+		}
+		payloadRemaining = payloadLength;
+		isInFrame = true;
+		readBuffer.position(start + headerLength);
+		return true;
+	}
+
+	private void handleControl() throws IOException {
+		byte[] payload = new byte[(int) payloadRemaining];
+		readBuffer.get(payload);
+		payloadRemaining = 0L;
+		isInFrame = false;
+		switch (opcode) {
+			case OPCODE_PING:
+				send(OPCODE_PONG, true, ByteBuffer.wrap(payload));
+				awaitDemand();
+				await(listener.onPing(this, ByteBuffer.wrap(payload)));
+				break;
+			case OPCODE_PONG:
+				awaitDemand();
+				await(listener.onPong(this, ByteBuffer.wrap(payload)));
+				break;
+			case OPCODE_CLOSE:
+				int statusCode = payload.length >= 2 ? ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF) : 1005;
+				String reason = payload.length > 2 ? new String(payload, 2, payload.length - 2, StandardCharsets.UTF_8) : "";
+				isInputClosed = true;
+				listener.onClose(this, statusCode, reason);
+				//echo the close unless the listener already answered it
+				if (!isOutputClosed) {
+					send(OPCODE_CLOSE, true, ByteBuffer.wrap(payload, 0, Math.min(2, payload.length)));
+					isOutputClosed = true;
+				}
+				connection.close();
+				break;
+			default:
+				throw new ProtocolException("Unknown control opcode " + opcode);
+		}
+	}
+
+	private void awaitDemand() throws IOException {
+		while (demand.get() == 0L) {
+			if (isInputClosed) {
+				throw new EOFException("Websocket aborted");
+			}
+			LockSupport.park(this);
+		}
+		demand.decrementAndGet();
+	}
+
+	//The listener may hold on to the buffer until its stage completes
+	private static void await(CompletionStage<?> stage) {
+		if (stage != null) {
+			stage.toCompletableFuture().join();
+		}
+	}
+
+	//Client frames are always masked
+	private synchronized CompletableFuture<WebSocket> send(int frameOpcode, boolean isLast, ByteBuffer payload) {
+		if (isOutputClosed) {
+			return CompletableFuture.failedFuture(new IOException("Output closed"));
+		}
+		try {
+			int length = payload.remaining();
+			int size = 2 + (length > 0xFFFF ? 8 : length > 125 ? 2 : 0) + 4 + length;
+			if (writeBuffer.capacity() < size) {
+				writeBuffer = ByteBuffer.allocateDirect(Math.max(size, writeBuffer.capacity() * 2));
+			}
+			ByteBuffer frame = writeBuffer.clear();
+			frame.put((byte) ((isLast ? 0x80 : 0) | frameOpcode));
+			if (length > 0xFFFF) {
+				frame.put((byte) (0x80 | 127)).putLong(length);
+			} else if (length > 125) {
+				frame.put((byte) (0x80 | 126)).putShort((short) length);
+			} else {
+				frame.put((byte) (0x80 | length));
+			}
+			int mask = ThreadLocalRandom.current().nextInt();
+			frame.putInt(mask);
+			int start = payload.position();
+			for (int i = 0; i < length; i++) {
+				frame.put((byte) (payload.get(start + i) ^ (mask >>> (8 * (3 - (i & 3))))));
+			}
+			payload.position(start + length);
+			frame.flip();
+			connection.write(frame);
+			return CompletableFuture.completedFuture(this);
+		} catch (IOException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+}
@@ -0,0 +1,6 @@
+package intrinio;
+
+//Called from the runner's pool before any of the partition's events; register that partition's handlers here
+public interface OnBacktestPartition {
+	void onBacktestPartition(BacktestPartition partition);
+}
@@ -0,0 +1,6 @@
+package intrinio;
+
+//The batch and its arrays are reused for the next frame. Copy out anything that must outlive the call.
+public interface OnQuoteBatch {
+	void onQuoteBatch(QuoteBatch quotes);
+}
@@ -0,0 +1,7 @@
+package intrinio;
+
+//Runs first thing on each thread the client starts, e.g. to pin it to a core with an affinity library.
+//index numbers the threads of a role from 0; the thread is already named intrinio-<role>-<index>.
+public interface OnThreadStart {
+	void onThreadStart(ThreadRole role, int index);
+}
@@ -0,0 +1,6 @@
+package intrinio;
+
+//The view is only valid for the duration of the call. Use toRecord() to keep the event.
+public interface OnUnusualActivityView {
+	void onUnusualActivityView(UnusualActivityView unusualActivity);
+}
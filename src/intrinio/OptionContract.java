@@ -0,0 +1,160 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+//Canonical, interned identity of an option contract. Two instances for the same contract are always equal, and the same object
+//unless the dictionary has been cleared in between (see OptionContractDictionary).
+public final class OptionContract {
+	//key layout, high to low bits: underlying id [20] | expiration year [7] | month [4] | day [5] | put [1] | strike in thousandths [27]
+	private static final int STRIKE_BITS = 27;
+	private static final int PUT_SHIFT = STRIKE_BITS;
+	private static final int DAY_SHIFT = PUT_SHIFT + 1;
+	private static final int MONTH_SHIFT = DAY_SHIFT + 5;
+	private static final int YEAR_SHIFT = MONTH_SHIFT + 4;
+	private static final int UNDERLYING_SHIFT = YEAR_SHIFT + 7;
+	static final int MAX_UNDERLYINGS = 1 << (64 - UNDERLYING_SHIFT);
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+	private static final OptionContractDictionary dictionary = new OptionContractDictionary();
+
+	private final long key;
+	private final String underlyingSymbol;
+	private final String contract;
+
+	OptionContract(int underlyingId, String underlyingSymbol, int year, int month, int day, boolean isPut, int strikeThousandths) {
+		this.key = ((long) underlyingId << UNDERLYING_SHIFT)
+				| ((long) year << YEAR_SHIFT)
+				| ((long) month << MONTH_SHIFT)
+				| ((long) day << DAY_SHIFT)
+				| ((isPut ? 1L : 0L) << PUT_SHIFT)
+				| strikeThousandths;
+		this.underlyingSymbol = underlyingSymbol;
+		this.contract = formatStandard(underlyingSymbol, year, month, day, isPut, strikeThousandths);
+	}
+
+	//Accepts either the standard format (AAPL__201016C00100000) or the server format (AAPL_201016C100.00).
+	//Throws IllegalArgumentException for anything else.
+	public static OptionContract parse(String contract) {
+		return dictionary.intern(contract);
+	}
+
+	static OptionContract intern(ByteBuffer bytes, int offset) {
+		return dictionary.intern(bytes, offset);
+	}
+
+	static OptionContract intern(byte[] bytes, int offset) {
+		return dictionary.intern(bytes, offset);
+	}
+
+	//Only unique within the running process - underlying ids are assigned in the order they are first seen
+	public long getKey() {
+		return key;
+	}
+
+	public int getUnderlyingId() {
+		return (int) (key >>> UNDERLYING_SHIFT);
+	}
+
+	public String getUnderlyingSymbol() {
+		return underlyingSymbol;
+	}
+
+	public boolean isPut() {
+		return ((key >>> PUT_SHIFT) & 1L) == 1L;
+	}
+
+	public boolean isCall() {
+		return !isPut();
+	}
+
+	public int getStrikePriceThousandths() {
+		return (int) (key & ((1L << STRIKE_BITS) - 1));
+	}
+
+	public float getStrikePrice() {
+		int strike = getStrikePriceThousandths();
+		return (strike / 1000) + (strike % 1000) * 0.001f;
+	}
+
+	public int getExpirationYear() {
+		return 2000 + (int) ((key >>> YEAR_SHIFT) & 0x7F);
+	}
+
+	public int getExpirationMonth() {
+		return (int) ((key >>> MONTH_SHIFT) & 0x0F);
+	}
+
+	public int getExpirationDay() {
+		return (int) ((key >>> DAY_SHIFT) & 0x1F);
+	}
+
+	public ZonedDateTime getExpirationDate() {
+		return ZonedDateTime.of(getExpirationYear(), getExpirationMonth(), getExpirationDay(), 12, 0, 0, 0, NEW_YORK);
+	}
+
+	//AAPL_201016C100.00, or ABC_201016C100.003 when the strike has a third decimal
+	String toServerFormat() {
+		int strike = getStrikePriceThousandths();
+		int decimals = strike % 1000;
+		StringBuilder builder = new StringBuilder(24).append(underlyingSymbol).append('_');
+		appendDigits(builder, 2, getExpirationYear() - 2000);
+		appendDigits(builder, 2, getExpirationMonth());
+		appendDigits(builder, 2, getExpirationDay());
+		builder.append(isPut() ? 'P' : 'C').append(strike / 1000).append('.');
+		if (decimals % 10 == 0) {
+			appendDigits(builder, 2, decimals / 10);
+		} else {
+			appendDigits(builder, 3, decimals);
+		}
+		return builder.toString();
+	}
+
+	//yyyymmdd, for comparing expirations
+	int getExpiration() {
+		return getExpirationYear() * 10000 + getExpirationMonth() * 100 + getExpirationDay();
+	}
+
+	public String toString() {
+		return contract;
+	}
+
+	public boolean equals(Object other) {
+		return other instanceof OptionContract && ((OptionContract) other).key == key;
+	}
+
+	public int hashCode() {
+		return Long.hashCode(key);
+	}
+
+	private static String formatStandard(String underlyingSymbol, int year, int month, int day, boolean isPut, int strikeThousandths) {
+		//AAPL__201016C00100000
+		char[] contractChars = new char[21];
+		for (int i = 0; i < 6; i++) {
+			contractChars[i] = i < underlyingSymbol.length() ? underlyingSymbol.charAt(i) : '_';
+		}
+		putDigits(contractChars, 6, 2, year);
+		putDigits(contractChars, 8, 2, month);
+		putDigits(contractChars, 10, 2, day);
+		contractChars[12] = isPut ? 'P' : 'C';
+		putDigits(contractChars, 13, 8, strikeThousandths);
+		return new String(contractChars);
+	}
+
+	private static void appendDigits(StringBuilder builder, int width, int value) {
+		int divisor = 1;
+		for (int i = 1; i < width; i++) {
+			divisor *= 10;
+		}
+		for (; divisor > 0; divisor /= 10) {
+			builder.append((char) ('0' + (value / divisor) % 10));
+		}
+	}
+
+	private static void putDigits(char[] chars, int start, int width, int value) {
+		for (int i = start + width - 1; i >= start; i--) {
+			chars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+}
@@ -0,0 +1,275 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Maps the raw server format contract bytes of a message to the canonical OptionContract.
+//Lookups of known contracts are lock free and allocate nothing; new contracts are added under a lock.
+//Before the table grows, contracts that have expired are dropped. If it would still grow past maxEntries, it is cleared: contracts
+//seen again after that get new instances, equal to the old ones since underlying ids are kept.
+//Expired is by the date of the data, not the clock, so replaying a recorded day keeps its contracts: contracts still trade up to
+//their expiration, so the earliest expiration among the contracts added since the table last made room stands in for that date.
+final class OptionContractDictionary {
+
+	private static final class Entry {
+		final byte[] raw;
+		final int hash;
+		final OptionContract contract;
+
+		Entry(byte[] raw, int hash, OptionContract contract) {
+			this.raw = raw;
+			this.hash = hash;
+			this.contract = contract;
+		}
+	}
+
+	private final int maxEntries;
+	private volatile Entry[] table;
+	private int size = 0;
+	private int earliestNewExpiration = Integer.MAX_VALUE;
+	private final HashMap<Long, OptionContract> byKey = new HashMap<Long, OptionContract>();
+	private final HashMap<String, Integer> underlyingIds = new HashMap<String, Integer>();
+	private final ConcurrentHashMap<String, OptionContract> byName = new ConcurrentHashMap<String, OptionContract>();
+
+	OptionContractDictionary() {
+		this(1 << 16, 1 << 22);
+	}
+
+	//initialCapacity is a power of 2
+	OptionContractDictionary(int initialCapacity, int maxEntries) {
+		this.table = new Entry[initialCapacity];
+		this.maxEntries = maxEntries;
+	}
+
+	int size() {
+		return size;
+	}
+
+	//contract length [offset], contract [offset + 1 ...]
+	OptionContract intern(ByteBuffer bytes, int offset) {
+		int start = offset + 1;
+		int length = bytes.get(offset);
+		int hash = 0x811C9DC5;
+		for (int i = start; i < start + length; i++) {
+			hash = (hash ^ bytes.get(i)) * 0x01000193;
+		}
+		Entry[] entries = table;
+		int mask = entries.length - 1;
+		for (int i = hash & mask; entries[i] != null; i = (i + 1) & mask) {
+			Entry entry = entries[i];
+			if (entry.hash == hash && matches(entry.raw, bytes, start, length)) {
+				return entry.contract;
+			}
+		}
+		byte[] raw = new byte[length];
+		bytes.get(start, raw);
+		return insert(raw, hash);
+	}
+
+	OptionContract intern(byte[] bytes, int offset) {
+		int start = offset + 1;
+		int length = bytes[offset];
+		int hash = 0x811C9DC5;
+		for (int i = start; i < start + length; i++) {
+			hash = (hash ^ bytes[i]) * 0x01000193;
+		}
+		Entry[] entries = table;
+		int mask = entries.length - 1;
+		for (int i = hash & mask; entries[i] != null; i = (i + 1) & mask) {
+			Entry entry = entries[i];
+			if (entry.hash == hash && Arrays.equals(entry.raw, 0, entry.raw.length, bytes, start, start + length)) {
+				return entry.contract;
+			}
+		}
+		byte[] raw = Arrays.copyOfRange(bytes, start, start + length);
+		return insert(raw, hash);
+	}
+
+	OptionContract intern(String contract) {
+		OptionContract optionContract = byName.get(contract);
+		if (optionContract == null) {
+			byte[] serverFormat = toServerFormat(contract).getBytes(StandardCharsets.US_ASCII);
+			if (serverFormat.length > 21 || !isServerFormat(serverFormat)) {
+				throw new IllegalArgumentException("Not an option contract: " + contract);
+			}
+			byte[] raw = new byte[serverFormat.length + 1];
+			raw[0] = (byte) serverFormat.length;
+			System.arraycopy(serverFormat, 0, raw, 1, serverFormat.length);
+			optionContract = intern(raw, 0);
+			byName.putIfAbsent(contract, optionContract);
+		}
+		return optionContract;
+	}
+
+	private synchronized OptionContract insert(byte[] raw, int hash) {
+		Entry[] entries = table;
+		int mask = entries.length - 1;
+		int i = hash & mask;
+		for (; entries[i] != null; i = (i + 1) & mask) {
+			if (entries[i].hash == hash && Arrays.equals(entries[i].raw, raw)) {
+				return entries[i].contract;
+			}
+		}
+		if ((size + 1) * 2 > entries.length) {
+			entries = makeRoom(entries);
+			mask = entries.length - 1;
+			for (i = hash & mask; entries[i] != null; i = (i + 1) & mask);
+		}
+		//only once there is room, which may have dropped contracts from byKey
+		OptionContract contract = decode(raw);
+		OptionContract existing = byKey.putIfAbsent(contract.getKey(), contract);
+		if (existing != null) {
+			//another spelling of a contract we already know
+			contract = existing;
+		}
+		earliestNewExpiration = Math.min(earliestNewExpiration, contract.getExpiration());
+		entries[i] = new Entry(raw, hash, contract);
+		size++;
+		table = entries;
+		return contract;
+	}
+
+	private static boolean matches(byte[] raw, ByteBuffer bytes, int start, int length) {
+		if (raw.length != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (raw[i] != bytes.get(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	//Drops expired contracts, then grows the table unless that left it at most a quarter full. Clears it rather than grow past maxEntries.
+	private Entry[] makeRoom(Entry[] entries) {
+		int today = earliestNewExpiration;
+		earliestNewExpiration = Integer.MAX_VALUE;
+		byKey.values().removeIf(contract -> contract.getExpiration() < today);
+		byName.values().removeIf(contract -> contract.getExpiration() < today);
+		size = 0;
+		for (Entry entry : entries) {
+			if (entry != null && entry.contract.getExpiration() >= today) {
+				size++;
+			}
+		}
+		int length = entries.length;
+		if (size * 4 > length) {
+			if (length < maxEntries * 2) {
+				length *= 2;
+			} else {
+				byKey.clear();
+				byName.clear();
+				size = 0;
+				return new Entry[length];
+			}
+		}
+		Entry[] rebuilt = new Entry[length];
+		int mask = length - 1;
+		for (Entry entry : entries) {
+			if (entry != null && entry.contract.getExpiration() >= today) {
+				int i = entry.hash & mask;
+				while (rebuilt[i] != null) i = (i + 1) & mask;
+				rebuilt[i] = entry;
+			}
+		}
+		return rebuilt;
+	}
+
+	//From this: AAPL_201016C100.00 or ABC_201016C100.003
+	private OptionContract decode(byte[] raw) {
+		int underscoreIndex = 0;
+		while (raw[underscoreIndex] != '_') underscoreIndex++;
+		String underlyingSymbol = new String(raw, 0, underscoreIndex, StandardCharsets.US_ASCII);
+		int year = digits(raw, underscoreIndex + 1, 2);
+		int month = digits(raw, underscoreIndex + 3, 2);
+		int day = digits(raw, underscoreIndex + 5, 2);
+		boolean isPut = raw[underscoreIndex + 7] == 'P';
+		int i = underscoreIndex + 8;
+		int strike = 0;
+		while (raw[i] != '.') strike = strike * 10 + (raw[i++] - '0');
+		int scale = 1000;
+		for (i++; i < raw.length && scale > 1; i++) {
+			scale /= 10;
+			strike = strike * 10 + (raw[i] - '0');
+		}
+		strike *= scale;
+
+		Integer underlyingId = underlyingIds.get(underlyingSymbol);
+		if (underlyingId == null) {
+			if (underlyingIds.size() >= OptionContract.MAX_UNDERLYINGS) {
+				throw new IllegalStateException("Too many underlying symbols");
+			}
+			underlyingId = underlyingIds.size();
+			underlyingIds.put(underlyingSymbol, underlyingId);
+		}
+		return new OptionContract(underlyingId, underlyingSymbol, year, month, day, isPut, strike);
+	}
+
+	private static int digits(byte[] raw, int start, int count) {
+		int value = 0;
+		for (int i = start; i < start + count; i++) {
+			value = value * 10 + (raw[i] - '0');
+		}
+		return value;
+	}
+
+	//SYMBOL_yymmdd[C|P]digits.digits, the symbol 1 to 6 characters
+	private static boolean isServerFormat(byte[] contract) {
+		int underscoreIndex = 0;
+		while (underscoreIndex < contract.length && contract[underscoreIndex] != '_') underscoreIndex++;
+		if (underscoreIndex == 0 || underscoreIndex > 6 || contract.length < underscoreIndex + 11) {
+			return false;
+		}
+		for (int i = underscoreIndex + 1; i < underscoreIndex + 7; i++) {
+			if (contract[i] < '0' || contract[i] > '9') return false;
+		}
+		byte putCall = contract[underscoreIndex + 7];
+		if (putCall != 'P' && putCall != 'C') {
+			return false;
+		}
+		int dots = 0;
+		for (int i = underscoreIndex + 8; i < contract.length; i++) {
+			if (contract[i] == '.') dots++;
+			else if (contract[i] < '0' || contract[i] > '9') return false;
+		}
+		return dots == 1 && contract[underscoreIndex + 8] != '.';
+	}
+
+	//From this: AAPL__201016C00100000 or ABC___201016C00100003
+	//To this:   AAPL_201016C100.00 or ABC_201016C100.003
+	//Anything that is not in the standard format is returned as it is.
+	static String toServerFormat(String contract) {
+		if (contract.length() != 21 || contract.indexOf('.') >= 0) {
+			return contract;
+		}
+		char putCall = contract.charAt(12);
+		if (putCall != 'C' && putCall != 'P') {
+			return contract;
+		}
+		for (int i = 6; i < 21; i++) {
+			if (i != 12 && (contract.charAt(i) < '0' || contract.charAt(i) > '9')) {
+				return contract;
+			}
+		}
+		int symbolLength = 6;
+		while (symbolLength > 0 && contract.charAt(symbolLength - 1) == '_') symbolLength--;
+		int whole = Integer.parseInt(contract, 13, 18, 10);
+		int decimals = Integer.parseInt(contract, 18, 21, 10);
+		StringBuilder builder = new StringBuilder(21);
+		builder.append(contract, 0, symbolLength)
+				.append('_')
+				.append(contract, 6, 13)
+				.append(whole)
+				.append('.');
+		if (decimals % 10 == 0) {
+			builder.append((char) ('0' + decimals / 100)).append((char) ('0' + (decimals / 10) % 10));
+		} else {
+			builder.append((char) ('0' + decimals / 100)).append((char) ('0' + (decimals / 10) % 10)).append((char) ('0' + decimals % 10));
+		}
+		return builder.toString();
+	}
+}
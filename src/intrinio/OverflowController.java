@@ -0,0 +1,146 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Applies the configured capacity and overflow policy to frames on their way into the queue.
+//publish is only called from the websocket listener; frameTaken from the threads that poll the queue.
+final class OverflowController {
+	private final FrameQueue queue;
+	private final String name;
+	private final int capacity;
+	private final OverflowPolicy policy;
+	private final QuoteConflator quoteConflator;
+	private final DemandController demandController;
+	private final byte[] scratch = new byte[UnusualActivityView.MESSAGE_SIZE];
+	private final AtomicLong droppedCount = new AtomicLong(0L);
+	private final AtomicLong blockedCount = new AtomicLong(0L);
+	//whether this controller holds one of the demand controller's pauses
+	private final AtomicBoolean isPausing = new AtomicBoolean(false);
+	//the flight recorder high-water mark being tracked, and when it is due
+	private Object highWaterEvent = null;
+	private int highWater;
+	private long highWaterDueNanos;
+
+	OverflowController(FrameQueue queue, int capacity, OverflowPolicy policy, QuoteConflator quoteConflator, DemandController demandController) {
+		this(queue, "data", capacity, policy, quoteConflator, demandController);
+	}
+
+	//capacity 0 means unbounded. quoteConflator is required for CONFLATE. name identifies the queue in flight recordings.
+	OverflowController(FrameQueue queue, String name, int capacity, OverflowPolicy policy, QuoteConflator quoteConflator, DemandController demandController) {
+		this.queue = queue;
+		this.name = name;
+		this.capacity = capacity;
+		this.policy = policy;
+		this.quoteConflator = quoteConflator;
+		this.demandController = demandController;
+	}
+
+	//Queues the frame, or what is left of it, pausing websocket demand when a blocking policy hits capacity
+	void publish(Frame frame) throws InterruptedException {
+		if (capacity > 0 && queue.size() >= capacity) {
+			switch (policy) {
+				case DROP_OLDEST:
+					while (queue.size() >= capacity) {
+						Frame oldest = queue.poll(0L, TimeUnit.NANOSECONDS);
+						if (oldest == null) break;
+						droppedCount.addAndGet(oldest.getMessageCount());
+						if (oldest.dereference()) {
+							queue.release(oldest);
+						}
+					}
+					break;
+				case DROP_QUOTES:
+				case CONFLATE:
+					//the journal, if any, has its own copy of the frame as received
+					if (removeQuotes(frame) == 0) {
+						//never published, so it must not be released as if a consumer had taken it
+						queue.abandon(frame);
+						return;
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		queue.publish(frame);
+		trackHighWater();
+		if (capacity > 0 && policy != OverflowPolicy.DROP_OLDEST && queue.size() >= capacity) {
+			blockedCount.incrementAndGet();
+			if (!isPausing.get()) {
+				//pause before it is visible, so a consumer can never resume first
+				demandController.pause();
+				isPausing.set(true);
+			}
+			//a consumer may have made room before it could see the pause
+			if (queue.size() < capacity && isPausing.compareAndSet(true, false)) {
+				demandController.resume();
+			}
+		}
+	}
+
+	//Resumes websocket demand once there is room again
+	void frameTaken() {
+		if (isPausing.get() && queue.size() < capacity && isPausing.compareAndSet(true, false)) {
+			demandController.resume();
+		}
+	}
+
+	//While a recording wants them, one event per second of publishing with the deepest the queue got. Otherwise only the check.
+	private void trackHighWater() {
+		if (highWaterEvent == null) {
+			highWaterEvent = FlightEvents.INSTANCE.beginQueueHighWater();
+			if (highWaterEvent == null) {
+				return;
+			}
+			highWater = 0;
+			highWaterDueNanos = System.nanoTime() + 1_000_000_000L;
+		}
+		highWater = Math.max(highWater, queue.size());
+		if (System.nanoTime() - highWaterDueNanos >= 0L) {
+			FlightEvents.INSTANCE.commitQueueHighWater(highWaterEvent, name, highWater, capacity);
+			highWaterEvent = null;
+		}
+	}
+
+	long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	long getBlockedCount() {
+		return blockedCount.get();
+	}
+
+	//Strips the quotes out of the frame, handing them to the conflator when conflating. Returns the messages left.
+	private int removeQuotes(Frame frame) {
+		ByteBuffer buffer = frame.getBuffer();
+		int count = frame.getMessageCount();
+		int kept = 0;
+		int readOffset = 1;
+		int writeOffset = 1;
+		for (int i = 0; i < count; i++) {
+			byte type = buffer.get(readOffset + 22);
+			int size = FrameProcessor.getMessageSize(type);
+			if (type == 1) {
+				if (policy == OverflowPolicy.CONFLATE) {
+					quoteConflator.offer(buffer, readOffset);
+				} else {
+					droppedCount.incrementAndGet();
+				}
+			} else {
+				if (writeOffset != readOffset) {
+					//the regions can overlap, so go through a scratch copy
+					buffer.get(readOffset, scratch, 0, size);
+					buffer.put(writeOffset, scratch, 0, size);
+				}
+				writeOffset += size;
+				kept++;
+			}
+			readOffset += size;
+		}
+		buffer.put(0, (byte) kept);
+		return kept;
+	}
+}
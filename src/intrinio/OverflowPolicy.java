@@ -0,0 +1,13 @@
+package intrinio;
+
+//What the client does when the queue between the websocket and the processing threads is full
+public enum OverflowPolicy {
+	//Stop requesting data from the websocket until the processing threads catch up. Nothing is lost.
+	BLOCK,
+	//Discard the oldest queued frames to make room for new ones.
+	DROP_OLDEST,
+	//Discard the quotes of newly received frames; other events are kept and BLOCK applies to them.
+	DROP_QUOTES,
+	//Keep only the latest quote of each contract (see conflateQuotes); other events are kept and BLOCK applies to them.
+	CONFLATE
+}
@@ -1,79 +1,77 @@
 package intrinio;
 
-enum PriceType {
-    One,
-    Ten,
-    Hundred,
-    Thousand,
-    TenThousand,
-    HundredThousand,
-    Million,
-    TenMillion,
-    HundredMillion,
-    Billion,
-    FiveHundredTwelve,
-    Zero;
+import java.util.Arrays;
 
-    static PriceType fromInt(int b){
-        switch (b){
-            case 0x00:
-                return One;
-            case 0x01:
-                return Ten;
-            case 0x02:
-                return Hundred;
-            case 0x03:
-                return Thousand;
-            case 0x04:
-                return TenThousand;
-            case 0x05:
-                return HundredThousand;
-            case 0x06:
-                return Million;
-            case 0x07:
-                return TenMillion;
-            case 0x08:
-                return HundredMillion;
-            case 0x09:
-                return Billion;
-            case 0x0A:
-                return FiveHundredTwelve;
-            case 0x0F:
-                return Zero;
-            default:
-                return One;
+public enum PriceType {
+    One(1L),
+    Ten(10L),
+    Hundred(100L),
+    Thousand(1_000L),
+    TenThousand(10_000L),
+    HundredThousand(100_000L),
+    Million(1_000_000L),
+    TenMillion(10_000_000L),
+    HundredMillion(100_000_000L),
+    Billion(1_000_000_000L),
+    FiveHundredTwelve(512L),
+    Zero(0L);
+
+    //indexed by the unsigned price type byte; unknown codes scale as One
+    private static final PriceType[] byCode = new PriceType[256];
+
+    static {
+        Arrays.fill(byCode, One);
+        for (int i = 0; i <= 0x0A; i++) {
+            byCode[i] = values()[i];
         }
+        byCode[0x0F] = Zero;
     }
 
-    long getScale() {
-        switch (this){
-            case One:
-                return 1L;
-            case Ten:
-                return 10L;
-            case Hundred:
-                return 100L;
-            case Thousand:
-                return 1_000L;
-            case TenThousand:
-                return 10_000L;
-            case HundredThousand:
-                return 100_000L;
-            case Million:
-                return 1_000_000L;
-            case TenMillion:
-                return 10_000_000L;
-            case HundredMillion:
-                return 100_000_000L;
-            case Billion:
-                return 1_000_000_000L;
-            case FiveHundredTwelve:
-                return 512L;
-            case Zero:
-                return 0L;
-            default:
-                return 1L;
-        }
+    private final long scale;
+    private final double divisor;
+
+    PriceType(long scale) {
+        this.scale = scale;
+        this.divisor = (double) scale;
+    }
+
+    static PriceType fromInt(int b){
+        return byCode[b & 0xFF];
+    }
+
+    //number of mantissa units per whole unit, e.g. 17250 with Hundred is 172.50
+    public long getScale() {
+        return scale;
+    }
+
+    public double toDouble(long mantissa) {
+        if (mantissa == FixedPoint.NO_VALUE)
+            return Double.NaN;
+        return ((double) mantissa) / divisor;
+    }
+
+    //raw int field, with the feed's "no value" markers mapped to FixedPoint.NO_VALUE
+    static long getMantissa(int value) {
+        if (value == 0b11111111_11111111_11111111_11111111
+                || value == 2147483647
+                || value == -2147483648)
+            return FixedPoint.NO_VALUE;
+        return value;
+    }
+
+    static long getMantissa(long value) {
+        if (value == 0b11111111_11111111_11111111_11111111_11111111_11111111_11111111_11111111L
+                || value == 9223372036854775807L
+                || value == -9223372036854775808L)
+            return FixedPoint.NO_VALUE;
+        return value;
+    }
+
+    //inverse of getScaledValue; exact for any value that came from the feed
+    long toMantissa(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            return FixedPoint.NO_VALUE;
+        return Math.round(value * divisor);
     }
 
     double getScaledValue(int value){
@@ -81,7 +79,7 @@ enum PriceType {
                 || value == 2147483647
                 || value == -2147483648)
             return Double.NaN;
-        return ((double) value) / ((double) getScale());
+        return ((double) value) / divisor;
     }
 
     double getScaledValue(long value){
@@ -89,6 +87,6 @@ enum PriceType {
                 || value == 9223372036854775807L
                 || value == -9223372036854775808L)
             return Double.NaN;
-        return ((double) value) / ((double) getScale());
+        return ((double) value) / divisor;
     }
 }
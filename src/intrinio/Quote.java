@@ -1,37 +1,24 @@
 package intrinio;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
-public record Quote(String contract, double askPrice, long askSize, double bidPrice, long bidSize, double timestamp) {
-	private static String formatContract(String functionalContract){
-		//Transform from server format to normal format
-		//From this: AAPL_201016C100.00 or ABC_201016C100.003
-		//To this:   AAPL__201016C00100000 or ABC___201016C00100003
-		char[] contractChars = new char[]{'_','_','_','_','_','_','2','2','0','1','0','1','C','0','0','0','0','0','0','0','0'};
-		int underscoreIndex = functionalContract.indexOf('_');
+public record Quote(String contract, double askPrice, long askSize, double bidPrice, long bidSize, double timestamp, PriceType priceType, long timestampNanos) {
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
 
-		//copy symbol
-		functionalContract.getChars(0, underscoreIndex, contractChars, 0);
-
-		//copy date
-		functionalContract.getChars(underscoreIndex + 1, underscoreIndex + 7, contractChars, 6);
-
-		//copy put/call
-		functionalContract.getChars(underscoreIndex + 7, underscoreIndex + 8, contractChars, 12);
-
-		int decimalIndex = functionalContract.indexOf('.', 9);
-
-		//whole number copy
-		functionalContract.getChars(underscoreIndex + 8, decimalIndex, contractChars, 18 - (decimalIndex - underscoreIndex - 8));
+	//Prices are taken to 4 decimal places and the timestamp to the nearest nanosecond
+	public Quote(String contract, double askPrice, long askSize, double bidPrice, long bidSize, double timestamp) {
+		this(contract, askPrice, askSize, bidPrice, bidSize, timestamp, PriceType.TenThousand, Math.round(timestamp * 1_000_000_000.0D));
+	}
 
-		//decimal number copy
-		functionalContract.getChars(decimalIndex + 1, functionalContract.length(), contractChars, 18);
+	//Fixed-point prices in units of priceType. FixedPoint.NO_VALUE where the double is NaN.
+	public long askPriceMantissa() {
+		return this.priceType.toMantissa(this.askPrice);
+	}
 
-		return new String(contractChars);
+	public long bidPriceMantissa() {
+		return this.priceType.toMantissa(this.bidPrice);
 	}
 
 	public float getStrikePrice() {
@@ -52,8 +39,7 @@ public record Quote(String contract, double askPrice, long askSize, double bidPr
 		int year = 2000 + (this.contract.charAt(6) - '0') * 10 + (this.contract.charAt(7) - '0');
 		int month = (this.contract.charAt(8) - '0') * 10 + (this.contract.charAt(9) - '0');
 		int day = (this.contract.charAt(10) - '0') * 10 + (this.contract.charAt(11) - '0');
-		ZoneId tz = ZoneId.of("America/New_York");
-		return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, tz);
+		return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, NEW_YORK);
 	}
 
 	public String getUnderlyingSymbol() {
@@ -61,6 +47,10 @@ public record Quote(String contract, double askPrice, long askSize, double bidPr
 		for (i = 5; i >= 0 && this.contract.charAt(i) == '_'; i--);
 		return this.contract.substring(0,i+1);
 	}
+
+	public OptionContract getOptionContract() {
+		return OptionContract.parse(this.contract);
+	}
 	
 	public String toString() {
 		return String.format("Quote (Contract: %s, AskPrice: %s, AskSize: %s, BidPrice: %s, BidSize: %s, Timestamp: %s)",
@@ -83,71 +73,34 @@ public record Quote(String contract, double askPrice, long askSize, double bidPr
 		// bid price [32-35]
 		// bid size [36-39]
 		// timestamp [40-47]
-
-		String contract = StandardCharsets.US_ASCII.decode(ByteBuffer.wrap(bytes, 1, bytes[0])).toString();
-
 		PriceType scaler = PriceType.fromInt(bytes[23]);
-		
-		ByteBuffer askPriceBuffer = ByteBuffer.wrap(bytes, 24, 4);
-		askPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double askPrice = scaler.getScaledValue(askPriceBuffer.getInt());
-		
-		ByteBuffer askSizeBuffer = ByteBuffer.wrap(bytes, 28, 4);
-		askSizeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long askSize = Integer.toUnsignedLong(askSizeBuffer.getInt());
-
-		ByteBuffer bidPriceBuffer = ByteBuffer.wrap(bytes, 32, 4);
-		bidPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double bidPrice = scaler.getScaledValue(bidPriceBuffer.getInt());
-
-		ByteBuffer bidSizeBuffer = ByteBuffer.wrap(bytes, 36, 4);
-		bidSizeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long bidSize = Integer.toUnsignedLong(bidSizeBuffer.getInt());
-		
-		ByteBuffer timeStampBuffer = ByteBuffer.wrap(bytes, 40, 8);
-		timeStampBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double timestamp = ((double) timeStampBuffer.getLong()) / 1_000_000_000.0D;
-
-		return new Quote(Quote.formatContract(contract), askPrice, askSize, bidPrice, bidSize, timestamp);
+		return new Quote(
+				OptionContract.intern(bytes, 0).toString(),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, 24)),
+				MessageDecoder.getUnsignedInt(bytes, 28),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, 32)),
+				MessageDecoder.getUnsignedInt(bytes, 36),
+				MessageDecoder.getTimestamp(bytes, 40),
+				scaler,
+				MessageDecoder.getLong(bytes, 40));
 	}
 
 	public static Quote parse(ByteBuffer bytes) {
-		//byte structure:
-		// contract length [0]
-		// contract [1-21]
-		// event type [22]
-		// price type [23]
-		// ask price [24-27]
-		// ask size [28-31]
-		// bid price [32-35]
-		// bid size [36-39]
-		// timestamp [40-47]
-
-		String contract = StandardCharsets.US_ASCII.decode(bytes.slice(1, bytes.get(0))).toString();
-
-		PriceType scaler = PriceType.fromInt(bytes.get(23));
-		
-		ByteBuffer askPriceBuffer = bytes.slice(24, 4);
-		askPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double askPrice = scaler.getScaledValue(askPriceBuffer.getInt());
-		
-		ByteBuffer askSizeBuffer = bytes.slice(28, 4);
-		askSizeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long askSize = Integer.toUnsignedLong(askSizeBuffer.getInt());
-
-		ByteBuffer bidPriceBuffer = bytes.slice(32, 4);
-		bidPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double bidPrice = scaler.getScaledValue(bidPriceBuffer.getInt());
-
-		ByteBuffer bidSizeBuffer = bytes.slice(36, 4);
-		bidSizeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long bidSize = Integer.toUnsignedLong(bidSizeBuffer.getInt());
-		
-		ByteBuffer timeStampBuffer = bytes.slice(40, 8);
-		timeStampBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double timestamp = ((double) timeStampBuffer.getLong()) / 1_000_000_000.0D;
+		return parse(bytes, 0);
+	}
 
-		return new Quote(Quote.formatContract(contract), askPrice, askSize, bidPrice, bidSize, timestamp);
+	static Quote parse(ByteBuffer bytes, int offset) {
+		//byte structure: see parse(byte[]), starting at offset
+		PriceType scaler = PriceType.fromInt(bytes.get(offset + 23));
+		return new Quote(
+				OptionContract.intern(bytes, offset).toString(),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 24)),
+				MessageDecoder.getUnsignedInt(bytes, offset + 28),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 32)),
+				MessageDecoder.getUnsignedInt(bytes, offset + 36),
+				MessageDecoder.getTimestamp(bytes, offset + 40),
+				scaler,
+				MessageDecoder.getLong(bytes, offset + 40));
 	}
 	
-}
+}
\ No newline at end of file
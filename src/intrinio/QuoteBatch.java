@@ -0,0 +1,95 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//All quotes of one frame as parallel arrays. Index i of every array is the i-th quote; only the first size() entries are valid.
+public final class QuoteBatch {
+	private int size = 0;
+	private OptionContract[] contracts;
+	private long[] contractKeys;
+	private PriceType[] priceTypes;
+	private double[] askPrices;
+	private long[] askSizes;
+	private double[] bidPrices;
+	private long[] bidSizes;
+	private long[] timestampNanos;
+
+	QuoteBatch(int capacity) {
+		allocate(capacity);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public OptionContract[] contracts() {
+		return contracts;
+	}
+
+	//OptionContract.getKey() of each contract
+	public long[] contractKeys() {
+		return contractKeys;
+	}
+
+	public PriceType[] priceTypes() {
+		return priceTypes;
+	}
+
+	public double[] askPrices() {
+		return askPrices;
+	}
+
+	public long[] askSizes() {
+		return askSizes;
+	}
+
+	public double[] bidPrices() {
+		return bidPrices;
+	}
+
+	public long[] bidSizes() {
+		return bidSizes;
+	}
+
+	public long[] timestampNanos() {
+		return timestampNanos;
+	}
+
+	public Quote toRecord(int index) {
+		return new Quote(contracts[index].toString(), askPrices[index], askSizes[index], bidPrices[index], bidSizes[index], timestampNanos[index] / 1_000_000_000.0D, priceTypes[index], timestampNanos[index]);
+	}
+
+	//byte structure: see Quote.parse(byte[]), starting at offset
+	void add(ByteBuffer buffer, int offset) {
+		if (size == contracts.length) {
+			allocate(size * 2);
+		}
+		OptionContract contract = OptionContract.intern(buffer, offset);
+		PriceType scaler = PriceType.fromInt(buffer.get(offset + 23));
+		contracts[size] = contract;
+		contractKeys[size] = contract.getKey();
+		priceTypes[size] = scaler;
+		askPrices[size] = scaler.getScaledValue(buffer.getInt(offset + 24));
+		askSizes[size] = Integer.toUnsignedLong(buffer.getInt(offset + 28));
+		bidPrices[size] = scaler.getScaledValue(buffer.getInt(offset + 32));
+		bidSizes[size] = Integer.toUnsignedLong(buffer.getInt(offset + 36));
+		timestampNanos[size] = buffer.getLong(offset + 40);
+		size++;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	private void allocate(int capacity) {
+		contracts = contracts == null ? new OptionContract[capacity] : Arrays.copyOf(contracts, capacity);
+		contractKeys = contractKeys == null ? new long[capacity] : Arrays.copyOf(contractKeys, capacity);
+		priceTypes = priceTypes == null ? new PriceType[capacity] : Arrays.copyOf(priceTypes, capacity);
+		askPrices = askPrices == null ? new double[capacity] : Arrays.copyOf(askPrices, capacity);
+		askSizes = askSizes == null ? new long[capacity] : Arrays.copyOf(askSizes, capacity);
+		bidPrices = bidPrices == null ? new double[capacity] : Arrays.copyOf(bidPrices, capacity);
+		bidSizes = bidSizes == null ? new long[capacity] : Arrays.copyOf(bidSizes, capacity);
+		timestampNanos = timestampNanos == null ? new long[capacity] : Arrays.copyOf(timestampNanos, capacity);
+	}
+}
@@ -0,0 +1,78 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Keeps only the latest quote of each contract until the quote handlers are ready for it.
+//Memory is bounded by the number of contracts: a slot is queued at most once while it holds an undelivered quote.
+final class QuoteConflator {
+	//a frame's message count is a single byte
+	static final int MAX_QUOTES_PER_FRAME = 127;
+
+	private static final class Slot {
+		final byte[] message = new byte[QuoteView.MESSAGE_SIZE];
+		long timestamp = Long.MIN_VALUE;
+		boolean isDirty = false;
+	}
+
+	private final ConcurrentHashMap<OptionContract, Slot> slots = new ConcurrentHashMap<OptionContract, Slot>();
+	private final LinkedBlockingQueue<Slot> updated = new LinkedBlockingQueue<Slot>();
+	private final AtomicLong conflatedCount = new AtomicLong(0L);
+
+	//byte structure: see Quote.parse(byte[]), starting at offset
+	void offer(ByteBuffer buffer, int offset) {
+		OptionContract contract = OptionContract.intern(buffer, offset);
+		Slot slot = slots.get(contract);
+		if (slot == null) {
+			slot = slots.computeIfAbsent(contract, c -> new Slot());
+		}
+		long timestamp = buffer.getLong(offset + 40);
+		synchronized (slot) {
+			if (timestamp < slot.timestamp) {
+				//older than what this contract already has - processing threads can race each other
+				conflatedCount.incrementAndGet();
+				return;
+			}
+			buffer.get(offset, slot.message);
+			slot.timestamp = timestamp;
+			if (slot.isDirty) {
+				//replaced a quote that was never delivered
+				conflatedCount.incrementAndGet();
+				return;
+			}
+			slot.isDirty = true;
+		}
+		updated.offer(slot);
+	}
+
+	//Copies the latest quote of up to MAX_QUOTES_PER_FRAME updated contracts into frame, in frame layout. Returns the number copied, 0 on timeout.
+	int drainTo(Frame frame, long timeout, TimeUnit unit) throws InterruptedException {
+		Slot slot = updated.poll(timeout, unit);
+		if (slot == null) {
+			return 0;
+		}
+		ByteBuffer buffer = frame.getBuffer();
+		int count = 0;
+		do {
+			synchronized (slot) {
+				buffer.put(1 + count * QuoteView.MESSAGE_SIZE, slot.message);
+				slot.isDirty = false;
+			}
+			count++;
+		} while (count < MAX_QUOTES_PER_FRAME && (slot = updated.poll()) != null);
+		buffer.put(0, (byte) count);
+		return count;
+	}
+
+	long getConflatedCount() {
+		return conflatedCount.get();
+	}
+
+	//contracts with a quote waiting to be delivered
+	int size() {
+		return updated.size();
+	}
+}
@@ -0,0 +1,52 @@
+package intrinio;
+
+public final class QuoteView extends MessageView {
+	static final int MESSAGE_SIZE = 52; //48 used + 4 pad
+
+	QuoteView() {}
+
+	public double askPrice() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 24));
+	}
+
+	public long askSize() {
+		return Integer.toUnsignedLong(buffer.getInt(offset + 28));
+	}
+
+	public double bidPrice() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 32));
+	}
+
+	public long bidSize() {
+		return Integer.toUnsignedLong(buffer.getInt(offset + 36));
+	}
+
+	public double timestamp() {
+		return ((double) buffer.getLong(offset + 40)) / 1_000_000_000.0D;
+	}
+
+	public PriceType priceType() {
+		return PriceType.fromInt(buffer.get(offset + 23));
+	}
+
+	//Fixed-point prices in units of priceType. FixedPoint.NO_VALUE where the feed has no value.
+	public long askPriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 24));
+	}
+
+	public long bidPriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 32));
+	}
+
+	public long timestampNanos() {
+		return buffer.getLong(offset + 40);
+	}
+
+	public Quote toRecord() {
+		return Quote.parse(buffer, offset);
+	}
+
+	public String toString() {
+		return toRecord().toString();
+	}
+}
@@ -0,0 +1,22 @@
+package intrinio;
+
+//How many messages per second the FeedSimulator sends, as a function of the seconds since a connection started streaming
+@FunctionalInterface
+public interface RateProfile {
+	double messagesPerSecond(double elapsedSeconds);
+
+	static RateProfile constant(double messagesPerSecond) {
+		return elapsedSeconds -> messagesPerSecond;
+	}
+
+	//Starts at startRate and rises linearly to endRate over the given seconds, then stays there.
+	//Ramp past what the client can handle to find its maximum sustainable rate.
+	static RateProfile ramp(double startRate, double endRate, double seconds) {
+		return elapsedSeconds -> elapsedSeconds >= seconds ? endRate : startRate + (endRate - startRate) * elapsedSeconds / seconds;
+	}
+
+	//A burst of peakRate at the start that decays exponentially (halving every halfLifeSeconds) to baseRate, like the opening bell
+	static RateProfile openingBell(double baseRate, double peakRate, double halfLifeSeconds) {
+		return elapsedSeconds -> baseRate + (peakRate - baseRate) * Math.pow(0.5, elapsedSeconds / halfLifeSeconds);
+	}
+}
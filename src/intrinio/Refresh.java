@@ -1,37 +1,32 @@
 package intrinio;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
-public record Refresh (String contract, long openInterest, double openPrice, double closePrice, double highPrice, double lowPrice){
-    private static String formatContract(String functionalContract){
-        //Transform from server format to normal format
-        //From this: AAPL_201016C100.00 or ABC_201016C100.003
-        //To this:   AAPL__201016C00100000 or ABC___201016C00100003
-        char[] contractChars = new char[]{'_','_','_','_','_','_','2','2','0','1','0','1','C','0','0','0','0','0','0','0','0'};
-        int underscoreIndex = functionalContract.indexOf('_');
+public record Refresh (String contract, long openInterest, double openPrice, double closePrice, double highPrice, double lowPrice, PriceType priceType){
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
 
-        //copy symbol
-        functionalContract.getChars(0, underscoreIndex, contractChars, 0);
-
-        //copy date
-        functionalContract.getChars(underscoreIndex + 1, underscoreIndex + 7, contractChars, 6);
-
-        //copy put/call
-        functionalContract.getChars(underscoreIndex + 7, underscoreIndex + 8, contractChars, 12);
+    //Prices are taken to 4 decimal places
+    public Refresh(String contract, long openInterest, double openPrice, double closePrice, double highPrice, double lowPrice) {
+        this(contract, openInterest, openPrice, closePrice, highPrice, lowPrice, PriceType.TenThousand);
+    }
 
-        int decimalIndex = functionalContract.indexOf('.', 9);
+    //Fixed-point prices in units of priceType. FixedPoint.NO_VALUE where the double is NaN.
+    public long openPriceMantissa() {
+        return this.priceType.toMantissa(this.openPrice);
+    }
 
-        //whole number copy
-        functionalContract.getChars(underscoreIndex + 8, decimalIndex, contractChars, 18 - (decimalIndex - underscoreIndex - 8));
+    public long closePriceMantissa() {
+        return this.priceType.toMantissa(this.closePrice);
+    }
 
-        //decimal number copy
-        functionalContract.getChars(decimalIndex + 1, functionalContract.length(), contractChars, 18);
+    public long highPriceMantissa() {
+        return this.priceType.toMantissa(this.highPrice);
+    }
 
-        return new String(contractChars);
+    public long lowPriceMantissa() {
+        return this.priceType.toMantissa(this.lowPrice);
     }
 
     public float getStrikePrice() {
@@ -52,8 +47,7 @@ public record Refresh (String contract, long openInterest, double openPrice, dou
         int year = 2000 + (this.contract.charAt(6) - '0') * 10 + (this.contract.charAt(7) - '0');
         int month = (this.contract.charAt(8) - '0') * 10 + (this.contract.charAt(9) - '0');
         int day = (this.contract.charAt(10) - '0') * 10 + (this.contract.charAt(11) - '0');
-        ZoneId tz = ZoneId.of("America/New_York");
-        return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, tz);
+        return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, NEW_YORK);
     }
 
     public String getUnderlyingSymbol() {
@@ -62,6 +56,10 @@ public record Refresh (String contract, long openInterest, double openPrice, dou
         return this.contract.substring(0,i+1);
     }
 
+    public OptionContract getOptionContract() {
+        return OptionContract.parse(this.contract);
+    }
+
     public String toString() {
         return String.format("Refresh (Contract: %s, OpenInterest: %s, OpenPrice: %s, ClosePrice: %s, HighPrice: %s, LowPrice: %s)",
                 this.contract,
@@ -83,70 +81,31 @@ public record Refresh (String contract, long openInterest, double openPrice, dou
         // close price [32-35]
         // high price [36-39]
         // low price [40-43]
-
-        String contract = StandardCharsets.US_ASCII.decode(ByteBuffer.wrap(bytes, 1, bytes[0])).toString();
-
         PriceType scaler = PriceType.fromInt(bytes[23]);
-
-        ByteBuffer openInterestBuffer = ByteBuffer.wrap(bytes, 24, 4);
-        openInterestBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        long openInterest = Integer.toUnsignedLong(openInterestBuffer.getInt());
-
-        ByteBuffer openPriceBuffer = ByteBuffer.wrap(bytes, 28, 4);
-        openPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double openPrice = scaler.getScaledValue(openPriceBuffer.getInt());
-
-        ByteBuffer closePriceBuffer = ByteBuffer.wrap(bytes, 32, 4);
-        closePriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double closePrice = scaler.getScaledValue(closePriceBuffer.getInt());
-
-        ByteBuffer highPriceBuffer = ByteBuffer.wrap(bytes, 36, 4);
-        highPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double highPrice = scaler.getScaledValue(highPriceBuffer.getInt());
-
-        ByteBuffer lowPriceBuffer = ByteBuffer.wrap(bytes, 40, 4);
-        lowPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double lowPrice = scaler.getScaledValue(lowPriceBuffer.getInt());
-
-        return new Refresh(Refresh.formatContract(contract), openInterest, openPrice, closePrice, highPrice, lowPrice);
+        return new Refresh(
+                OptionContract.intern(bytes, 0).toString(),
+                MessageDecoder.getUnsignedInt(bytes, 24),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, 28)),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, 32)),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, 36)),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, 40)),
+                scaler);
     }
 
     public static Refresh parse(ByteBuffer bytes) {
-        //byte structure:
-        // contract length [0]
-        // contract [1-21]
-        // event type [22]
-        // price type [23]
-        // open interest [24-27]
-        // open price [28-31]
-        // close price [32-35]
-        // high price [36-39]
-        // low price [40-43]
-
-        String contract = StandardCharsets.US_ASCII.decode(bytes.slice(1, bytes.get(0))).toString();
-
-        PriceType scaler = PriceType.fromInt(bytes.get(23));
-
-        ByteBuffer openInterestBuffer = bytes.slice(24, 4);
-        openInterestBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        long openInterest = Integer.toUnsignedLong(openInterestBuffer.getInt());
-
-        ByteBuffer openPriceBuffer = bytes.slice(28, 4);
-        openPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double openPrice = scaler.getScaledValue(openPriceBuffer.getInt());
-
-        ByteBuffer closePriceBuffer = bytes.slice(32, 4);
-        closePriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double closePrice = scaler.getScaledValue(closePriceBuffer.getInt());
-
-        ByteBuffer highPriceBuffer = bytes.slice(36, 4);
-        highPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double highPrice = scaler.getScaledValue(highPriceBuffer.getInt());
-
-        ByteBuffer lowPriceBuffer = bytes.slice(40, 4);
-        lowPriceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        double lowPrice = scaler.getScaledValue(lowPriceBuffer.getInt());
+        return parse(bytes, 0);
+    }
 
-        return new Refresh(Refresh.formatContract(contract), openInterest, openPrice, closePrice, highPrice, lowPrice);
+    static Refresh parse(ByteBuffer bytes, int offset) {
+        //byte structure: see parse(byte[]), starting at offset
+        PriceType scaler = PriceType.fromInt(bytes.get(offset + 23));
+        return new Refresh(
+                OptionContract.intern(bytes, offset).toString(),
+                MessageDecoder.getUnsignedInt(bytes, offset + 24),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 28)),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 32)),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 36)),
+                scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 40)),
+                scaler);
     }
 }
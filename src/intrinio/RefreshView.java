@@ -0,0 +1,56 @@
+package intrinio;
+
+public final class RefreshView extends MessageView {
+	static final int MESSAGE_SIZE = 52; //44 used + 8 pad
+
+	RefreshView() {}
+
+	public long openInterest() {
+		return Integer.toUnsignedLong(buffer.getInt(offset + 24));
+	}
+
+	public double openPrice() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 28));
+	}
+
+	public double closePrice() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 32));
+	}
+
+	public double highPrice() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 36));
+	}
+
+	public double lowPrice() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 40));
+	}
+
+	public PriceType priceType() {
+		return PriceType.fromInt(buffer.get(offset + 23));
+	}
+
+	//Fixed-point prices in units of priceType. FixedPoint.NO_VALUE where the feed has no value.
+	public long openPriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 28));
+	}
+
+	public long closePriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 32));
+	}
+
+	public long highPriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 36));
+	}
+
+	public long lowPriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 40));
+	}
+
+	public Refresh toRecord() {
+		return Refresh.parse(buffer, offset);
+	}
+
+	public String toString() {
+		return toRecord().toString();
+	}
+}
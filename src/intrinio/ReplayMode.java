@@ -0,0 +1,11 @@
+package intrinio;
+
+//How Client.replay paces recorded frames
+public enum ReplayMode {
+	//As they were received: the gaps between frames are reproduced
+	ORIGINAL,
+	//The gaps between frames divided by the speed, e.g. 10 replays an hour in 6 minutes
+	SCALED,
+	//No pacing at all
+	AS_FAST_AS_POSSIBLE
+}
@@ -0,0 +1,96 @@
+package intrinio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Bounded single-producer/multi-consumer ring of pre-allocated frames.
+//Each slot carries a sequence number: pos means free for the producer, pos + 1 means published for consumers,
+//and pos + capacity means released by the consumer and free again for the next lap.
+final class RingFrameQueue implements FrameQueue {
+	private final Frame[] slots;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong consumerPosition = new AtomicLong(0L);
+	private volatile long producerPosition = 0L;
+	private final WaitStrategy waitStrategy;
+
+	RingFrameQueue(int size, WaitStrategy waitStrategy) {
+		this.waitStrategy = waitStrategy;
+		int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+		this.slots = new Frame[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		this.mask = capacity - 1;
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new Frame();
+			sequences.set(i, i);
+		}
+	}
+
+	int capacity() {
+		return slots.length;
+	}
+
+	double getOccupancy() {
+		return Math.min(1.0D, (double) size() / slots.length);
+	}
+
+	public Frame claim() {
+		long position = producerPosition;
+		int index = (int) (position & mask);
+		int tries = 0;
+		while (sequences.get(index) != position) {
+			//ring is full - wait for the slowest consumer to hand this slot back
+			tries = waitStrategy.idle(tries);
+		}
+		Frame frame = slots[index];
+		frame.setSequence(position);
+		return frame;
+	}
+
+	public void publish(Frame frame) {
+		long position = frame.getSequence();
+		sequences.lazySet((int) (position & mask), position + 1);
+		producerPosition = position + 1;
+	}
+
+	public Frame poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int tries = 0;
+		while (true) {
+			long position = consumerPosition.get();
+			int index = (int) (position & mask);
+			long sequence = sequences.get(index);
+			if (sequence == position + 1) {
+				if (consumerPosition.compareAndSet(position, position + 1)) {
+					return slots[index];
+				}
+			}
+			else if (sequence <= position) {
+				//nothing published yet
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				if (System.nanoTime() - deadline >= 0) {
+					return null;
+				}
+				tries = waitStrategy.idle(tries);
+			}
+		}
+	}
+
+	public void release(Frame frame) {
+		long position = frame.getSequence();
+		frame.clear();
+		sequences.lazySet((int) (position & mask), position + slots.length);
+	}
+
+	//The slot still holds the producer's position, so the next claim gets the same frame again
+	public void abandon(Frame frame) {
+		frame.clear();
+	}
+
+	public int size() {
+		return (int) Math.max(0L, producerPosition - consumerPosition.get());
+	}
+}
@@ -0,0 +1,29 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+
+public enum ShardingMode {
+	NONE,
+	CONTRACT,
+	UNDERLYING;
+
+	//message layout: contract length [0], contract [1-21] in server format, e.g. AAPL_201016C100.00
+	int shardOf(ByteBuffer buffer, int messageOffset, int shardCount) {
+		return (hashOf(buffer, messageOffset) & 0x7FFFFFFF) % shardCount;
+	}
+
+	//FNV-1a of the contract, or with UNDERLYING of the symbol before the '_'
+	int hashOf(ByteBuffer buffer, int messageOffset) {
+		int start = messageOffset + 1;
+		int end = start + buffer.get(messageOffset);
+		int hash = 0x811C9DC5;
+		for (int i = start; i < end; i++) {
+			byte b = buffer.get(i);
+			if (this == UNDERLYING && b == '_') {
+				break;
+			}
+			hash = (hash ^ b) * 0x01000193;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,208 @@
+package intrinio;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+//Produces websocket frames in the server's binary layout (see the parse methods): a message count byte, then trades (72 bytes),
+//quotes (52), refreshes (52) and unusual activity (74), for a made up universe of contracts whose prices follow a random walk.
+//The same seed always produces the same contracts and events; only the timestamps come from the clock. Not thread safe.
+public final class SyntheticFrameGenerator {
+	public static final int MAX_MESSAGES_PER_FRAME = 127;
+	private static final int CONTRACTS_PER_UNDERLYING = 100;
+	private static final byte PRICE_TYPE = (byte) PriceType.TenThousand.ordinal();
+	private static final byte[] EXCHANGES = {'A', 'B', 'C', 'D', 'E', 'H', 'I', 'J', 'M', 'O', 'P', 'Q', 'T', 'U', 'W', 'X', 'Z'};
+	private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private final SplittableRandom random;
+	private final byte[][] contracts;
+	//per contract state, prices in ten thousandths
+	private final int[] bidPrices;
+	private final int[] spreads;
+	private final int[] underlyingPrices;
+	private final long[] totalVolumes;
+	private final int[] openInterests;
+	private double tradeShare = 0.08;
+	private double quoteShare = 0.90;
+	private double refreshShare = 0.01;
+	private final long epochNanosAtStart = System.currentTimeMillis() * 1_000_000L;
+	private final long nanoTimeAtStart = System.nanoTime();
+
+	public SyntheticFrameGenerator(int contractCount, long seed) throws Exception {
+		if (contractCount < 1) {
+			throw new Exception("The generator needs at least 1 contract");
+		}
+		this.random = new SplittableRandom(seed);
+		this.contracts = new byte[contractCount][];
+		this.bidPrices = new int[contractCount];
+		this.spreads = new int[contractCount];
+		this.underlyingPrices = new int[contractCount];
+		this.totalVolumes = new long[contractCount];
+		this.openInterests = new int[contractCount];
+		int underlyingPrice = 0;
+		for (int i = 0; i < contractCount; i++) {
+			int underlying = i / CONTRACTS_PER_UNDERLYING;
+			int series = i % CONTRACTS_PER_UNDERLYING;
+			if (series == 0) {
+				underlyingPrice = 10 + random.nextInt(990);
+			}
+			//10 expirations of 5 strikes around the underlying price, calls and puts
+			int strike = Math.max(1, underlyingPrice + (series / 2 % 5 - 2) * 5);
+			int month = 1 + series / 10;
+			boolean isPut = series % 2 == 1;
+			String contract = String.format("%s_24%02d15%c%d.00", symbol(underlying), month, isPut ? 'P' : 'C', strike);
+			contracts[i] = contract.getBytes(StandardCharsets.US_ASCII);
+			int intrinsic = Math.max(0, isPut ? strike - underlyingPrice : underlyingPrice - strike);
+			bidPrices[i] = intrinsic * 10_000 + 500 + random.nextInt(50_000);
+			spreads[i] = 100 * (1 + random.nextInt(20));
+			underlyingPrices[i] = underlyingPrice * 10_000;
+			openInterests[i] = random.nextInt(100_000);
+		}
+	}
+
+	//Shares of each event type, normalized to sum to 1. The default is 8% trades, 90% quotes, 1% refreshes, 1% unusual activity.
+	public void setMix(double trades, double quotes, double refreshes, double unusualActivity) throws Exception {
+		double total = trades + quotes + refreshes + unusualActivity;
+		if (trades < 0 || quotes < 0 || refreshes < 0 || unusualActivity < 0 || total <= 0) {
+			throw new Exception("The event mix must be non-negative and not all zero");
+		}
+		this.tradeShare = trades / total;
+		this.quoteShare = quotes / total;
+		this.refreshShare = refreshes / total;
+	}
+
+	public int getContractCount() {
+		return contracts.length;
+	}
+
+	//Server format, e.g. AB_240315C125.00
+	public String getContract(int index) {
+		return new String(contracts[index], StandardCharsets.US_ASCII);
+	}
+
+	//The most bytes a frame of this many messages can take
+	public static int getMaxFrameSize(int messages) {
+		return 1 + messages * UnusualActivityView.MESSAGE_SIZE;
+	}
+
+	public byte[] nextFrame(int messages) {
+		byte[] frame = new byte[getMaxFrameSize(messages)];
+		int length = nextFrame(frame, messages);
+		return length == frame.length ? frame : Arrays.copyOf(frame, length);
+	}
+
+	//Writes a frame of 1 to 127 messages to the start of frame, which must hold getMaxFrameSize(messages). Returns its length.
+	public int nextFrame(byte[] frame, int messages) {
+		messages = Math.max(1, Math.min(MAX_MESSAGES_PER_FRAME, messages));
+		long timestamp = epochNanosAtStart + (System.nanoTime() - nanoTimeAtStart);
+		frame[0] = (byte) messages;
+		int offset = 1;
+		for (int i = 0; i < messages; i++) {
+			//popular contracts get most of the events
+			double pick = random.nextDouble();
+			int contract = (int) (pick * pick * contracts.length);
+			double type = random.nextDouble();
+			if (type < quoteShare) offset += quote(frame, offset, contract, timestamp);
+			else if (type < quoteShare + tradeShare) offset += trade(frame, offset, contract, timestamp);
+			else if (type < quoteShare + tradeShare + refreshShare) offset += refresh(frame, offset, contract);
+			else offset += unusualActivity(frame, offset, contract, timestamp);
+		}
+		return offset;
+	}
+
+	//contract length [0], contract [1-21], event type [22]
+	private int header(byte[] frame, int offset, int contract, int type, int size) {
+		Arrays.fill(frame, offset, offset + size, (byte) 0);
+		byte[] raw = contracts[contract];
+		frame[offset] = (byte) raw.length;
+		System.arraycopy(raw, 0, frame, offset + 1, raw.length);
+		frame[offset + 22] = (byte) type;
+		return size;
+	}
+
+	private void move(int contract) {
+		int tick = random.nextInt(3) - 1;
+		bidPrices[contract] = Math.max(100, bidPrices[contract] + tick * 100);
+		underlyingPrices[contract] = Math.max(10_000, underlyingPrices[contract] + tick * 500);
+	}
+
+	private int trade(byte[] frame, int offset, int contract, long timestamp) {
+		move(contract);
+		int size = 1 + random.nextInt(50);
+		int bid = bidPrices[contract];
+		int ask = bid + spreads[contract];
+		totalVolumes[contract] += size;
+		header(frame, offset, contract, 0, TradeView.MESSAGE_SIZE);
+		frame[offset + 23] = PRICE_TYPE;
+		frame[offset + 24] = PRICE_TYPE;
+		INT.set(frame, offset + 25, random.nextBoolean() ? ask : bid);
+		INT.set(frame, offset + 29, size);
+		LONG.set(frame, offset + 33, timestamp);
+		LONG.set(frame, offset + 41, totalVolumes[contract]);
+		INT.set(frame, offset + 49, ask);
+		INT.set(frame, offset + 53, bid);
+		INT.set(frame, offset + 57, underlyingPrices[contract]);
+		frame[offset + 61] = (byte) 18;
+		frame[offset + 65] = EXCHANGES[random.nextInt(EXCHANGES.length)];
+		return TradeView.MESSAGE_SIZE;
+	}
+
+	private int quote(byte[] frame, int offset, int contract, long timestamp) {
+		move(contract);
+		int bid = bidPrices[contract];
+		header(frame, offset, contract, 1, QuoteView.MESSAGE_SIZE);
+		frame[offset + 23] = PRICE_TYPE;
+		INT.set(frame, offset + 24, bid + spreads[contract]);
+		INT.set(frame, offset + 28, 1 + random.nextInt(500));
+		INT.set(frame, offset + 32, bid);
+		INT.set(frame, offset + 36, 1 + random.nextInt(500));
+		LONG.set(frame, offset + 40, timestamp);
+		return QuoteView.MESSAGE_SIZE;
+	}
+
+	private int refresh(byte[] frame, int offset, int contract) {
+		int price = bidPrices[contract];
+		header(frame, offset, contract, 2, RefreshView.MESSAGE_SIZE);
+		frame[offset + 23] = PRICE_TYPE;
+		INT.set(frame, offset + 24, openInterests[contract]);
+		INT.set(frame, offset + 28, price);
+		INT.set(frame, offset + 32, price);
+		INT.set(frame, offset + 36, price + spreads[contract]);
+		INT.set(frame, offset + 40, Math.max(100, price - spreads[contract]));
+		return RefreshView.MESSAGE_SIZE;
+	}
+
+	private int unusualActivity(byte[] frame, int offset, int contract, long timestamp) {
+		int size = 100 + random.nextInt(5_000);
+		int bid = bidPrices[contract];
+		int ask = bid + spreads[contract];
+		int averagePrice = bid + random.nextInt(spreads[contract] + 1);
+		header(frame, offset, contract, 3 + random.nextInt(4), UnusualActivityView.MESSAGE_SIZE);
+		frame[offset + 23] = (byte) random.nextInt(3);
+		frame[offset + 24] = PRICE_TYPE;
+		frame[offset + 25] = PRICE_TYPE;
+		LONG.set(frame, offset + 26, (long) averagePrice * size * 100L);
+		INT.set(frame, offset + 34, size);
+		INT.set(frame, offset + 38, averagePrice);
+		INT.set(frame, offset + 42, ask);
+		INT.set(frame, offset + 46, bid);
+		INT.set(frame, offset + 50, underlyingPrices[contract]);
+		LONG.set(frame, offset + 54, timestamp);
+		return UnusualActivityView.MESSAGE_SIZE;
+	}
+
+	//0 -> A, 25 -> Z, 26 -> AA ... up to 5 letters
+	private static String symbol(int index) {
+		StringBuilder builder = new StringBuilder(5);
+		int i = index;
+		do {
+			builder.append((char) ('A' + i % 26));
+			i = i / 26 - 1;
+		} while (i >= 0);
+		return builder.reverse().toString();
+	}
+}
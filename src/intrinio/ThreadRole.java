@@ -0,0 +1,19 @@
+package intrinio;
+
+public enum ThreadRole {
+	//reads the websocket (NIO transport only; the HttpClient transport runs on its own executor)
+	WEBSOCKET_READER,
+	//hashes frames to shards when sharding
+	ROUTER,
+	//decodes frames and calls the event handlers
+	PROCESSOR,
+	//hands conflated quotes to the quote handlers
+	QUOTE_DELIVERY,
+	//writes received frames to the journal when journalDirectory is set
+	JOURNAL,
+	//call the handlers of one event lane when useLanes is set
+	TRADE_LANE,
+	QUOTE_LANE,
+	REFRESH_LANE,
+	UNUSUAL_ACTIVITY_LANE
+}
@@ -1,37 +1,32 @@
 package intrinio;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
-public record Trade(String contract, Exchange exchange, double price, long size, double timestamp, long totalVolume, Qualifiers qualifiers, double askPriceAtExecution, double bidPriceAtExecution, double underlyingPriceAtExecution) {
-	private static String formatContract(String functionalContract){
-		//Transform from server format to normal format
-		//From this: AAPL_201016C100.00 or ABC_201016C100.003
-		//To this:   AAPL__201016C00100000 or ABC___201016C00100003
-		char[] contractChars = new char[]{'_','_','_','_','_','_','2','2','0','1','0','1','C','0','0','0','0','0','0','0','0'};
-		int underscoreIndex = functionalContract.indexOf('_');
+public record Trade(String contract, Exchange exchange, double price, long size, double timestamp, long totalVolume, Qualifiers qualifiers, double askPriceAtExecution, double bidPriceAtExecution, double underlyingPriceAtExecution, PriceType priceType, PriceType underlyingPriceType, long timestampNanos) {
+	private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
 
-		//copy symbol
-		functionalContract.getChars(0, underscoreIndex, contractChars, 0);
-
-		//copy date
-		functionalContract.getChars(underscoreIndex + 1, underscoreIndex + 7, contractChars, 6);
-
-		//copy put/call
-		functionalContract.getChars(underscoreIndex + 7, underscoreIndex + 8, contractChars, 12);
+	//Prices are taken to 4 decimal places and the timestamp to the nearest nanosecond
+	public Trade(String contract, Exchange exchange, double price, long size, double timestamp, long totalVolume, Qualifiers qualifiers, double askPriceAtExecution, double bidPriceAtExecution, double underlyingPriceAtExecution) {
+		this(contract, exchange, price, size, timestamp, totalVolume, qualifiers, askPriceAtExecution, bidPriceAtExecution, underlyingPriceAtExecution, PriceType.TenThousand, PriceType.TenThousand, Math.round(timestamp * 1_000_000_000.0D));
+	}
 
-		int decimalIndex = functionalContract.indexOf('.', 9);
+	//Fixed-point prices in units of priceType (underlyingPriceType for the underlying). FixedPoint.NO_VALUE where the double is NaN.
+	public long priceMantissa() {
+		return this.priceType.toMantissa(this.price);
+	}
 
-		//whole number copy
-		functionalContract.getChars(underscoreIndex + 8, decimalIndex, contractChars, 18 - (decimalIndex - underscoreIndex - 8));
+	public long askPriceAtExecutionMantissa() {
+		return this.priceType.toMantissa(this.askPriceAtExecution);
+	}
 
-		//decimal number copy
-		functionalContract.getChars(decimalIndex + 1, functionalContract.length(), contractChars, 18);
+	public long bidPriceAtExecutionMantissa() {
+		return this.priceType.toMantissa(this.bidPriceAtExecution);
+	}
 
-		return new String(contractChars);
+	public long underlyingPriceAtExecutionMantissa() {
+		return this.underlyingPriceType.toMantissa(this.underlyingPriceAtExecution);
 	}
 
 	public float getStrikePrice() {
@@ -52,8 +47,7 @@ public record Trade(String contract, Exchange exchange, double price, long size,
 		int year = 2000 + (this.contract.charAt(6) - '0') * 10 + (this.contract.charAt(7) - '0');
 		int month = (this.contract.charAt(8) - '0') * 10 + (this.contract.charAt(9) - '0');
 		int day = (this.contract.charAt(10) - '0') * 10 + (this.contract.charAt(11) - '0');
-		ZoneId tz = ZoneId.of("America/New_York");
-		return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, tz);
+		return ZonedDateTime.of(year, month, day, 12, 0, 0, 0, NEW_YORK);
 	}
 
 	public String getUnderlyingSymbol() {
@@ -61,6 +55,10 @@ public record Trade(String contract, Exchange exchange, double price, long size,
 		for (i = 5; i >= 0 && this.contract.charAt(i) == '_'; i--);
 		return this.contract.substring(0,i+1);
 	}
+
+	public OptionContract getOptionContract() {
+		return OptionContract.parse(this.contract);
+	}
 	
 	public String toString() {
 		return String.format("Trade (Contract: %s, Exchange: %s, Price: %s, Size: %s, Timestamp: %s, TotalVolume: %s, Qualifiers: %s, AskPriceAtExecution: %s, BidPriceAtExecution: %s, UnderlyingPriceAtExecution: %s)",
@@ -92,103 +90,46 @@ public record Trade(String contract, Exchange exchange, double price, long size,
 		// underlying price at execution [57-60]
 		// qualifiers [61-64]
 		// exchange [65]
-		String contract = StandardCharsets.US_ASCII.decode(ByteBuffer.wrap(bytes, 1, bytes[0])).toString();
-
 		PriceType scaler = PriceType.fromInt(bytes[23]);
 		PriceType underlyingScaler = PriceType.fromInt(bytes[24]);
-
-		ByteBuffer priceBuffer = ByteBuffer.wrap(bytes, 25, 4);
-		priceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		int unscaledPrice = priceBuffer.getInt();
-		double price = scaler.getScaledValue(unscaledPrice);
-
-		ByteBuffer sizeBuffer = ByteBuffer.wrap(bytes, 29, 4);
-		sizeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long size = Integer.toUnsignedLong(sizeBuffer.getInt());
-		
-		ByteBuffer timeStampBuffer = ByteBuffer.wrap(bytes, 33, 8);
-		timeStampBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double timestamp = ((double) timeStampBuffer.getLong()) / 1_000_000_000.0D;
-		
-		ByteBuffer volumeBuffer = ByteBuffer.wrap(bytes, 41, 8);
-		volumeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long totalVolume = volumeBuffer.getLong();
-
-		ByteBuffer askPriceAtExecutionBuffer = ByteBuffer.wrap(bytes, 49, 4);
-		askPriceAtExecutionBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double askPriceAtExecution = scaler.getScaledValue(askPriceAtExecutionBuffer.getInt());
-
-		ByteBuffer bidPriceAtExecutionBuffer = ByteBuffer.wrap(bytes, 53, 4);
-		bidPriceAtExecutionBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double bidPriceAtExecution = scaler.getScaledValue(bidPriceAtExecutionBuffer.getInt());
-
-		ByteBuffer underlyingPriceAtExecutionBuffer = ByteBuffer.wrap(bytes, 57, 4);
-		underlyingPriceAtExecutionBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double underlyingPriceAtExecution = underlyingScaler.getScaledValue(underlyingPriceAtExecutionBuffer.getInt());
-		
-		Qualifiers qualifiers = new Qualifiers(bytes[61], bytes[62], bytes[63], bytes[64]);
-		
-		Exchange exchange = Exchange.valueOfCode(bytes[65]);
-		
-		return new Trade(Trade.formatContract(contract), exchange, price, size, timestamp, totalVolume, qualifiers, askPriceAtExecution, bidPriceAtExecution, underlyingPriceAtExecution);
+		return new Trade(
+				OptionContract.intern(bytes, 0).toString(),
+				Exchange.valueOfCode(bytes[65]),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, 25)),
+				MessageDecoder.getUnsignedInt(bytes, 29),
+				MessageDecoder.getTimestamp(bytes, 33),
+				MessageDecoder.getLong(bytes, 41),
+				new Qualifiers(bytes[61], bytes[62], bytes[63], bytes[64]),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, 49)),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, 53)),
+				underlyingScaler.getScaledValue(MessageDecoder.getInt(bytes, 57)),
+				scaler,
+				underlyingScaler,
+				MessageDecoder.getLong(bytes, 33));
 	}
 	
 	public static Trade parse(ByteBuffer bytes) {
-		//byte structure:
-		// contract length [0]
-		// contract [1-21]
-		// event type [22]
-		// price type [23]
-		// underlying price type [24]
-		// price [25-28]
-		// size [29-32]
-		// timestamp [33-40]
-		// total volume [41-48]
-		// ask price at execution [49-52]
-		// bid price at execution [53-56]
-		// underlying price at execution [57-60]
-		// qualifiers [61-64]
-		// exchange [65]
-
-		String contract = StandardCharsets.US_ASCII.decode(bytes.slice(1, bytes.get(0))).toString();
-
-		PriceType scaler = PriceType.fromInt(bytes.get(23));
-		PriceType underlyingScaler = PriceType.fromInt(bytes.get(24));
-
-		ByteBuffer priceBuffer = bytes.slice(25, 4);
-		priceBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		int unscaledPrice = priceBuffer.getInt();
-		double price = scaler.getScaledValue(unscaledPrice);
-		
-		ByteBuffer sizeBuffer = bytes.slice(29, 4);
-		sizeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long size = Integer.toUnsignedLong(sizeBuffer.getInt());
-		
-		ByteBuffer timeStampBuffer = bytes.slice(33, 8);
-		timeStampBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double timestamp = ((double) timeStampBuffer.getLong()) / 1_000_000_000.0D;
-		
-		ByteBuffer volumeBuffer = bytes.slice(41, 8);
-		volumeBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		long totalVolume = volumeBuffer.getLong();
-
-		ByteBuffer askPriceAtExecutionBuffer = bytes.slice(49, 4);
-		askPriceAtExecutionBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double askPriceAtExecution = scaler.getScaledValue(askPriceAtExecutionBuffer.getInt());
-
-		ByteBuffer bidPriceAtExecutionBuffer = bytes.slice(53, 4);
-		bidPriceAtExecutionBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double bidPriceAtExecution = scaler.getScaledValue(bidPriceAtExecutionBuffer.getInt());
-
-		ByteBuffer underyingPriceAtExecutionBuffer = bytes.slice(57, 4);
-		underyingPriceAtExecutionBuffer.order(ByteOrder.LITTLE_ENDIAN);
-		double underlyingPriceAtExecution = underlyingScaler.getScaledValue(underyingPriceAtExecutionBuffer.getInt());
-		
-		Qualifiers qualifiers = new Qualifiers(bytes.get(61), bytes.get(62), bytes.get(63), bytes.get(64));
-		
-		Exchange exchange = Exchange.valueOfCode(bytes.get(65));
+		return parse(bytes, 0);
+	}
 
-		return new Trade(Trade.formatContract(contract), exchange, price, size, timestamp, totalVolume, qualifiers, askPriceAtExecution, bidPriceAtExecution, underlyingPriceAtExecution);
+	static Trade parse(ByteBuffer bytes, int offset) {
+		//byte structure: see parse(byte[]), starting at offset
+		PriceType scaler = PriceType.fromInt(bytes.get(offset + 23));
+		PriceType underlyingScaler = PriceType.fromInt(bytes.get(offset + 24));
+		return new Trade(
+				OptionContract.intern(bytes, offset).toString(),
+				Exchange.valueOfCode(bytes.get(offset + 65)),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 25)),
+				MessageDecoder.getUnsignedInt(bytes, offset + 29),
+				MessageDecoder.getTimestamp(bytes, offset + 33),
+				MessageDecoder.getLong(bytes, offset + 41),
+				new Qualifiers(bytes.get(offset + 61), bytes.get(offset + 62), bytes.get(offset + 63), bytes.get(offset + 64)),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 49)),
+				scaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 53)),
+				underlyingScaler.getScaledValue(MessageDecoder.getInt(bytes, offset + 57)),
+				scaler,
+				underlyingScaler,
+				MessageDecoder.getLong(bytes, offset + 33));
 	}
 	
 }
\ No newline at end of file
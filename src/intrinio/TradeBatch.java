@@ -0,0 +1,146 @@
+package intrinio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//All trades of one frame as parallel arrays. Index i of every array is the i-th trade; only the first size() entries are valid.
+public final class TradeBatch {
+	private int size = 0;
+	private OptionContract[] contracts;
+	private long[] contractKeys;
+	private Exchange[] exchanges;
+	private PriceType[] priceTypes;
+	private PriceType[] underlyingPriceTypes;
+	private double[] prices;
+	private long[] sizes;
+	private long[] timestampNanos;
+	private long[] totalVolumes;
+	//the 4 qualifier bytes of each trade, qualifier 0 in the lowest byte
+	private int[] qualifiers;
+	private double[] askPricesAtExecution;
+	private double[] bidPricesAtExecution;
+	private double[] underlyingPricesAtExecution;
+
+	TradeBatch(int capacity) {
+		allocate(capacity);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public OptionContract[] contracts() {
+		return contracts;
+	}
+
+	//OptionContract.getKey() of each contract
+	public long[] contractKeys() {
+		return contractKeys;
+	}
+
+	public Exchange[] exchanges() {
+		return exchanges;
+	}
+
+	public PriceType[] priceTypes() {
+		return priceTypes;
+	}
+
+	public PriceType[] underlyingPriceTypes() {
+		return underlyingPriceTypes;
+	}
+
+	public double[] prices() {
+		return prices;
+	}
+
+	public long[] sizes() {
+		return sizes;
+	}
+
+	public long[] timestampNanos() {
+		return timestampNanos;
+	}
+
+	public long[] totalVolumes() {
+		return totalVolumes;
+	}
+
+	public int[] qualifiers() {
+		return qualifiers;
+	}
+
+	public double[] askPricesAtExecution() {
+		return askPricesAtExecution;
+	}
+
+	public double[] bidPricesAtExecution() {
+		return bidPricesAtExecution;
+	}
+
+	public double[] underlyingPricesAtExecution() {
+		return underlyingPricesAtExecution;
+	}
+
+	public Trade toRecord(int index) {
+		int q = qualifiers[index];
+		return new Trade(
+				contracts[index].toString(),
+				exchanges[index],
+				prices[index],
+				sizes[index],
+				timestampNanos[index] / 1_000_000_000.0D,
+				totalVolumes[index],
+				new Qualifiers((byte) q, (byte) (q >>> 8), (byte) (q >>> 16), (byte) (q >>> 24)),
+				askPricesAtExecution[index],
+				bidPricesAtExecution[index],
+				underlyingPricesAtExecution[index],
+				priceTypes[index],
+				underlyingPriceTypes[index],
+				timestampNanos[index]);
+	}
+
+	//byte structure: see Trade.parse(byte[]), starting at offset
+	void add(ByteBuffer buffer, int offset) {
+		if (size == contracts.length) {
+			allocate(size * 2);
+		}
+		OptionContract contract = OptionContract.intern(buffer, offset);
+		PriceType scaler = PriceType.fromInt(buffer.get(offset + 23));
+		PriceType underlyingScaler = PriceType.fromInt(buffer.get(offset + 24));
+		contracts[size] = contract;
+		contractKeys[size] = contract.getKey();
+		exchanges[size] = Exchange.valueOfCode(buffer.get(offset + 65));
+		priceTypes[size] = scaler;
+		underlyingPriceTypes[size] = underlyingScaler;
+		prices[size] = scaler.getScaledValue(buffer.getInt(offset + 25));
+		sizes[size] = Integer.toUnsignedLong(buffer.getInt(offset + 29));
+		timestampNanos[size] = buffer.getLong(offset + 33);
+		totalVolumes[size] = buffer.getLong(offset + 41);
+		qualifiers[size] = buffer.getInt(offset + 61);
+		askPricesAtExecution[size] = scaler.getScaledValue(buffer.getInt(offset + 49));
+		bidPricesAtExecution[size] = scaler.getScaledValue(buffer.getInt(offset + 53));
+		underlyingPricesAtExecution[size] = underlyingScaler.getScaledValue(buffer.getInt(offset + 57));
+		size++;
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	private void allocate(int capacity) {
+		contracts = contracts == null ? new OptionContract[capacity] : Arrays.copyOf(contracts, capacity);
+		contractKeys = contractKeys == null ? new long[capacity] : Arrays.copyOf(contractKeys, capacity);
+		exchanges = exchanges == null ? new Exchange[capacity] : Arrays.copyOf(exchanges, capacity);
+		priceTypes = priceTypes == null ? new PriceType[capacity] : Arrays.copyOf(priceTypes, capacity);
+		underlyingPriceTypes = underlyingPriceTypes == null ? new PriceType[capacity] : Arrays.copyOf(underlyingPriceTypes, capacity);
+		prices = prices == null ? new double[capacity] : Arrays.copyOf(prices, capacity);
+		sizes = sizes == null ? new long[capacity] : Arrays.copyOf(sizes, capacity);
+		timestampNanos = timestampNanos == null ? new long[capacity] : Arrays.copyOf(timestampNanos, capacity);
+		totalVolumes = totalVolumes == null ? new long[capacity] : Arrays.copyOf(totalVolumes, capacity);
+		qualifiers = qualifiers == null ? new int[capacity] : Arrays.copyOf(qualifiers, capacity);
+		askPricesAtExecution = askPricesAtExecution == null ? new double[capacity] : Arrays.copyOf(askPricesAtExecution, capacity);
+		bidPricesAtExecution = bidPricesAtExecution == null ? new double[capacity] : Arrays.copyOf(bidPricesAtExecution, capacity);
+		underlyingPricesAtExecution = underlyingPricesAtExecution == null ? new double[capacity] : Arrays.copyOf(underlyingPricesAtExecution, capacity);
+	}
+}
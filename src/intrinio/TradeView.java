@@ -0,0 +1,81 @@
+package intrinio;
+
+public final class TradeView extends MessageView {
+	static final int MESSAGE_SIZE = 72; //61 used + 11 pad
+
+	TradeView() {}
+
+	public Exchange exchange() {
+		return Exchange.valueOfCode(buffer.get(offset + 65));
+	}
+
+	public double price() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 25));
+	}
+
+	public long size() {
+		return Integer.toUnsignedLong(buffer.getInt(offset + 29));
+	}
+
+	public double timestamp() {
+		return ((double) buffer.getLong(offset + 33)) / 1_000_000_000.0D;
+	}
+
+	public long totalVolume() {
+		return buffer.getLong(offset + 41);
+	}
+
+	//index 0 to 3
+	public byte qualifier(int index) {
+		return buffer.get(offset + 61 + index);
+	}
+
+	public double askPriceAtExecution() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 49));
+	}
+
+	public double bidPriceAtExecution() {
+		return PriceType.fromInt(buffer.get(offset + 23)).getScaledValue(buffer.getInt(offset + 53));
+	}
+
+	public double underlyingPriceAtExecution() {
+		return PriceType.fromInt(buffer.get(offset + 24)).getScaledValue(buffer.getInt(offset + 57));
+	}
+
+	public PriceType priceType() {
+		return PriceType.fromInt(buffer.get(offset + 23));
+	}
+
+	public PriceType underlyingPriceType() {
+		return PriceType.fromInt(buffer.get(offset + 24));
+	}
+
+	//Fixed-point prices in units of priceType (underlyingPriceType for the underlying). FixedPoint.NO_VALUE where the feed has no value.
+	public long priceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 25));
+	}
+
+	public long askPriceAtExecutionMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 49));
+	}
+
+	public long bidPriceAtExecutionMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 53));
+	}
+
+	public long underlyingPriceAtExecutionMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 57));
+	}
+
+	public long timestampNanos() {
+		return buffer.getLong(offset + 33);
+	}
+
+	public Trade toRecord() {
+		return Trade.parse(buffer, offset);
+	}
+
+	public String toString() {
+		return toRecord().toString();
+	}
+}
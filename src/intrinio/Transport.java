@@ -0,0 +1,17 @@
+package intrinio;
+
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+
+//Opens the websocket connection. Every transport drives the same WebSocket.Listener and honours its demand.
+interface Transport {
+	CompletableFuture<WebSocket> connect(URI uri, WebSocket.Listener listener);
+
+	static Transport of(TransportType type, EventHandlers handlers) {
+		switch (type) {
+			case NIO: return new NioTransport(handlers);
+			default: return new HttpClientTransport();
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package intrinio;
+
+public enum TransportType {
+	//java.net.http.HttpClient's websocket
+	HTTP_CLIENT,
+	//SocketChannel (with SSLEngine for wss) reading into direct buffers, see NioWebSocket
+	NIO
+}
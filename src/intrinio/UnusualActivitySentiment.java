@@ -4,5 +4,14 @@ public enum UnusualActivitySentiment {
 	INVALID,
 	NEUTRAL,
 	BULLISH,
-	BEARISH
+	BEARISH;
+
+	static UnusualActivitySentiment fromCode(byte code) {
+		switch (code) {
+			case 0: return NEUTRAL;
+			case 1: return BULLISH;
+			case 2: return BEARISH;
+			default: return INVALID;
+		}
+	}
 }
@@ -5,5 +5,15 @@ public enum UnusualActivityType {
 	BLOCK,
 	SWEEP,
 	LARGE,
-	UNUSUAL_SWEEP
+	UNUSUAL_SWEEP;
+
+	static UnusualActivityType fromCode(byte code) {
+		switch (code) {
+			case 3: return BLOCK;
+			case 4: return SWEEP;
+			case 5: return LARGE;
+			case 6: return UNUSUAL_SWEEP;
+			default: return INVALID;
+		}
+	}
 }
@@ -0,0 +1,84 @@
+package intrinio;
+
+public final class UnusualActivityView extends MessageView {
+	static final int MESSAGE_SIZE = 74; //62 used + 12 pad
+
+	UnusualActivityView() {}
+
+	public UnusualActivityType type() {
+		return UnusualActivityType.fromCode(buffer.get(offset + 22));
+	}
+
+	public UnusualActivitySentiment sentiment() {
+		return UnusualActivitySentiment.fromCode(buffer.get(offset + 23));
+	}
+
+	public double totalValue() {
+		return PriceType.fromInt(buffer.get(offset + 24)).getScaledValue(buffer.getLong(offset + 26));
+	}
+
+	public long totalSize() {
+		return Integer.toUnsignedLong(buffer.getInt(offset + 34));
+	}
+
+	public double averagePrice() {
+		return PriceType.fromInt(buffer.get(offset + 24)).getScaledValue(buffer.getInt(offset + 38));
+	}
+
+	public double askPriceAtExecution() {
+		return PriceType.fromInt(buffer.get(offset + 24)).getScaledValue(buffer.getInt(offset + 42));
+	}
+
+	public double bidPriceAtExecution() {
+		return PriceType.fromInt(buffer.get(offset + 24)).getScaledValue(buffer.getInt(offset + 46));
+	}
+
+	public double underlyingPriceAtExecution() {
+		return PriceType.fromInt(buffer.get(offset + 25)).getScaledValue(buffer.getInt(offset + 50));
+	}
+
+	public double timestamp() {
+		return ((double) buffer.getLong(offset + 54)) / 1_000_000_000.0D;
+	}
+
+	public PriceType priceType() {
+		return PriceType.fromInt(buffer.get(offset + 24));
+	}
+
+	public PriceType underlyingPriceType() {
+		return PriceType.fromInt(buffer.get(offset + 25));
+	}
+
+	//Fixed-point prices in units of priceType (underlyingPriceType for the underlying). FixedPoint.NO_VALUE where the feed has no value.
+	public long totalValueMantissa() {
+		return PriceType.getMantissa(buffer.getLong(offset + 26));
+	}
+
+	public long averagePriceMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 38));
+	}
+
+	public long askPriceAtExecutionMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 42));
+	}
+
+	public long bidPriceAtExecutionMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 46));
+	}
+
+	public long underlyingPriceAtExecutionMantissa() {
+		return PriceType.getMantissa(buffer.getInt(offset + 50));
+	}
+
+	public long timestampNanos() {
+		return buffer.getLong(offset + 54);
+	}
+
+	public UnusualActivity toRecord() {
+		return UnusualActivity.parse(buffer, offset);
+	}
+
+	public String toString() {
+		return toRecord().toString();
+	}
+}
@@ -0,0 +1,69 @@
+package intrinio;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+//How a processing thread waits for the next frame. Lower latency costs more CPU.
+public enum WaitStrategy {
+	//Park until data arrives. Idle threads use no CPU, but every hand-off pays a wake-up of several microseconds.
+	BLOCKING,
+	//Spin, then yield, then sleep in short fixed naps. Little CPU when idle, no wake-up call needed on hand-off.
+	SLEEPING,
+	//Spin, then yield the core to other runnable threads. Near busy-spin latency when cores are not oversubscribed.
+	YIELDING,
+	//Never give up the core. Lowest latency; give each processing thread its own core.
+	BUSY_SPIN;
+
+	private static final int SPIN_TRIES = 100;
+	private static final int YIELD_TRIES = 200;
+	private static final long SLEEP_NANOS = 50_000L;
+	private static final long MAX_PARK_NANOS = 1_000_000L;
+
+	//Called by a thread that found nothing to do; tries counts the calls since it last found work. Returns tries + 1.
+	int idle(int tries) {
+		switch (this) {
+			case BUSY_SPIN:
+				Thread.onSpinWait();
+				break;
+			case YIELDING:
+				if (tries < SPIN_TRIES) Thread.onSpinWait();
+				else Thread.yield();
+				break;
+			case SLEEPING:
+				if (tries < SPIN_TRIES) Thread.onSpinWait();
+				else if (tries < YIELD_TRIES) Thread.yield();
+				else LockSupport.parkNanos(SLEEP_NANOS);
+				break;
+			default:
+				//backs off to longer parks for queues that have no wake-up signal of their own
+				if (tries < SPIN_TRIES) Thread.onSpinWait();
+				else LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(10, tries - SPIN_TRIES)));
+				break;
+		}
+		return tries + 1;
+	}
+
+	//BLOCKING waits on the queue's own signal; the other strategies poll it in a loop
+	<T> T poll(BlockingQueue<T> queue, long timeout, TimeUnit unit) throws InterruptedException {
+		if (this == BLOCKING) {
+			return queue.poll(timeout, unit);
+		}
+		T item = queue.poll();
+		if (item != null) {
+			return item;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int tries = 0;
+		while ((item = queue.poll()) == null) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (System.nanoTime() - deadline >= 0) {
+				return null;
+			}
+			tries = idle(tries);
+		}
+		return item;
+	}
+}
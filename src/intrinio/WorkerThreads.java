@@ -0,0 +1,63 @@
+package intrinio;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+//Creates the client's processing threads. Thread.ofVirtual is looked up reflectively so the SDK still builds for release 16.
+final class WorkerThreads {
+	private static final MethodHandle ofVirtual;
+	private static final MethodHandle unstarted;
+
+	static {
+		MethodHandle ofVirtualHandle = null;
+		MethodHandle unstartedHandle = null;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			ofVirtualHandle = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+			unstartedHandle = lookup.findVirtual(builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+		} catch (ReflectiveOperationException e) {
+			//JDK without virtual threads
+		}
+		ofVirtual = ofVirtualHandle;
+		unstarted = unstartedHandle;
+	}
+
+	private WorkerThreads() {}
+
+	static boolean isVirtualSupported() {
+		return ofVirtual != null;
+	}
+
+	//Unstarted thread of the requested kind (platform when virtual threads are not available), named intrinio-<role>-<index>,
+	//that calls onThreadStart before running the task
+	static Thread create(ExecutionMode mode, ThreadRole role, int index, OnThreadStart onThreadStart, Runnable task) {
+		Runnable run = () -> {
+			try {
+				onThreadStart.onThreadStart(role, index);
+			} catch (Exception e) {
+				Client.Log("Thread start hook failed for %s. %s", Thread.currentThread().getName(), e.getMessage());
+			}
+			task.run();
+		};
+		Thread thread = null;
+		if (mode == ExecutionMode.VIRTUAL && isVirtualSupported()) {
+			try {
+				thread = (Thread) unstarted.invoke(ofVirtual.invoke(), run);
+			} catch (Throwable e) {
+				Client.Log("Could not create a virtual thread. %s", e.getMessage());
+			}
+		}
+		if (thread == null) {
+			thread = new Thread(run);
+		}
+		thread.setName(getName(role, index));
+		return thread;
+	}
+
+	static String getName(ThreadRole role, int index) {
+		return "intrinio-" + role.name().toLowerCase().replace('_', '-') + "-" + index;
+	}
+}
@@ -0,0 +1,79 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchiveConverterTest {
+	@TempDir
+	Path directory;
+
+	//The partition of a contract in the standard format
+	private static int partitionOf(String contract, int partitionCount) {
+		byte[] serverFormat = OptionContract.parse(contract).toServerFormat().getBytes(StandardCharsets.US_ASCII);
+		ByteBuffer message = ByteBuffer.allocate(serverFormat.length + 1).put((byte) serverFormat.length).put(serverFormat);
+		return ArchiveConverter.partitionOf(message, 0, partitionCount);
+	}
+
+	//The events of each partition, in the order they were delivered
+	private static Client collectingClient(List<List<String>> events) throws Exception {
+		for (int i = 0; i < 3; i++) {
+			events.add(new ArrayList<String>());
+		}
+		Client client = new Client(new Config("key", Provider.MANUAL, "127.0.0.1:1", new String[0], 1));
+		client.setOnTrade(trade -> events.get(partitionOf(trade.contract(), 3)).add(trade.toString()));
+		client.setOnQuote(quote -> events.get(partitionOf(quote.contract(), 3)).add(quote.toString()));
+		client.setOnRefresh(refresh -> events.get(partitionOf(refresh.contract(), 3)).add(refresh.toString()));
+		client.setOnUnusualActivity(activity -> events.get(partitionOf(activity.contract(), 3)).add(activity.toString()));
+		return client;
+	}
+
+	@Test
+	void archiveHoldsEveryJournaledMessageInRecordedOrder() throws Exception {
+		String journalDirectory = JournalFixtures.record(directory.resolve("journal"), 2000, 3L, 8000, 60);
+		String archiveDirectory = directory.resolve("archive").toString();
+		long archived = ArchiveConverter.convert(journalDirectory, archiveDirectory, 3);
+		assertEquals(8000L * 60L, archived);
+
+		List<List<String>> journaled = new ArrayList<List<String>>();
+		assertEquals(archived, collectingClient(journaled).replay(journalDirectory, ReplayMode.AS_FAST_AS_POSSIBLE, 1.0D));
+		List<List<String>> replayed = new ArrayList<List<String>>();
+		assertEquals(archived, collectingClient(replayed).replayArchive(archiveDirectory, null));
+		//partitions only change the order across underlyings
+		for (int i = 0; i < 3; i++) {
+			assertTrue(journaled.get(i).size() > ArchiveWriter.BLOCK_EVENTS);
+			assertEquals(journaled.get(i), replayed.get(i));
+		}
+
+		//e.g. Trade (Contract: R_____241015P00879000, ...
+		String first = journaled.get(0).get(0);
+		String underlying = first.substring(first.indexOf("Contract: ") + 10).substring(0, 6).replace("_", "");
+		String prefix = "Contract: " + (underlying + "______").substring(0, 6);
+		List<String> expected = new ArrayList<String>();
+		for (String event : journaled.get(0)) {
+			if (event.contains(prefix)) {
+				expected.add(event);
+			}
+		}
+		List<List<String>> filtered = new ArrayList<List<String>>();
+		assertEquals(expected.size(), collectingClient(filtered).replayArchive(archiveDirectory, underlying));
+		assertEquals(expected, filtered.get(0));
+	}
+
+	@Test
+	void refusesToOverwriteAnArchive() throws Exception {
+		String journalDirectory = JournalFixtures.record(directory.resolve("journal"), 2000, 3L, 8000, 60);
+		String archiveDirectory = directory.resolve("archive").toString();
+		ArchiveConverter.convert(journalDirectory, archiveDirectory, 2);
+		assertThrows(Exception.class, () -> ArchiveConverter.convert(journalDirectory, archiveDirectory, 2));
+	}
+}
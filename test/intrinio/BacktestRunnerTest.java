@@ -0,0 +1,55 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BacktestRunnerTest {
+	@TempDir
+	Path directory;
+
+	//The events each partition saw, in the order it saw them
+	private static List<List<String>> run(List<String> days, int partitionCount, int parallelism) throws Exception {
+		BacktestRunner runner = new BacktestRunner(days, partitionCount);
+		runner.setParallelism(parallelism);
+		List<List<String>> events = new ArrayList<List<String>>();
+		for (int i = 0; i < partitionCount; i++) {
+			events.add(new ArrayList<String>());
+		}
+		List<BacktestPartition> partitions = runner.run(partition -> {
+			List<String> seen = events.get(partition.getPartition());
+			partition.setOnTrade(trade -> seen.add(trade.toString()));
+			partition.setOnQuote(quote -> seen.add(quote.toString()));
+			partition.setOnRefresh(refresh -> seen.add(refresh.toString()));
+			partition.setOnUnusualActivity(activity -> seen.add(activity.toString()));
+		});
+		for (BacktestPartition partition : partitions) {
+			assertEquals(events.get(partition.getPartition()).size(), partition.getMessageCount());
+		}
+		return events;
+	}
+
+	@Test
+	void resultsDependOnlyOnThePartitionCount() throws Exception {
+		String journalDirectory = JournalFixtures.record(directory.resolve("journal"), 500, 11L, 10000, 20);
+		List<String> days = List.of(journalDirectory, journalDirectory);
+		List<List<String>> single = run(days, 7, 1);
+		assertEquals(single, run(days, 7, 4));
+
+		List<String> all = new ArrayList<String>();
+		for (List<String> partition : single) {
+			all.addAll(partition);
+		}
+		assertEquals(2 * 10000 * 20, all.size());
+		List<String> together = run(days, 1, 1).get(0);
+		Collections.sort(all);
+		Collections.sort(together);
+		assertEquals(together, all);
+	}
+}
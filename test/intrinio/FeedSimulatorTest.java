@@ -0,0 +1,73 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+//End to end over loopback: authorizes and connects through Provider.MANUAL, joins, and decodes what the simulator streams
+class FeedSimulatorTest {
+	private static final int CONTRACTS = 500;
+
+	@ParameterizedTest
+	@EnumSource(TransportType.class)
+	void clientReceivesAndDecodesSimulatedFrames(TransportType transportType) throws Exception {
+		SyntheticFrameGenerator generator = new SyntheticFrameGenerator(CONTRACTS, 7L);
+		Set<OptionContract> contracts = new HashSet<OptionContract>();
+		for (int i = 0; i < CONTRACTS; i++) {
+			contracts.add(OptionContract.parse(generator.getContract(i)));
+		}
+		FeedSimulator simulator = new FeedSimulator(0, generator, RateProfile.constant(20_000));
+		simulator.start();
+		Client client = null;
+		try {
+			Config config = new Config("key", Provider.MANUAL, simulator.getAddress(), new String[0], 2);
+			config.setTransportType(transportType);
+			client = new Client(config);
+			LinkedBlockingQueue<Trade> trades = new LinkedBlockingQueue<Trade>();
+			LinkedBlockingQueue<Quote> quotes = new LinkedBlockingQueue<Quote>();
+			CountDownLatch tradesReceived = new CountDownLatch(20);
+			CountDownLatch quotesReceived = new CountDownLatch(200);
+			client.setOnTrade(trade -> {
+				trades.add(trade);
+				tradesReceived.countDown();
+			});
+			client.setOnQuote(quote -> {
+				quotes.add(quote);
+				quotesReceived.countDown();
+			});
+			client.start();
+			client.join(OptionContract.parse(generator.getContract(0)));
+			assertTrue(tradesReceived.await(10, TimeUnit.SECONDS), "no trades received");
+			assertTrue(quotesReceived.await(10, TimeUnit.SECONDS), "no quotes received");
+
+			double now = System.currentTimeMillis() / 1000.0D;
+			for (Trade trade : trades) {
+				assertTrue(contracts.contains(OptionContract.parse(trade.contract())), trade.contract());
+				assertNotNull(trade.exchange());
+				assertTrue(trade.price() > 0.0D && trade.size() > 0L, trade.toString());
+				assertTrue(Math.abs(trade.timestamp() - now) < 60.0D, trade.toString());
+			}
+			for (Quote quote : quotes) {
+				assertTrue(contracts.contains(OptionContract.parse(quote.contract())), quote.contract());
+				assertTrue(quote.askPrice() > quote.bidPrice(), quote.toString());
+				assertTrue(Math.abs(quote.timestamp() - now) < 60.0D, quote.toString());
+			}
+			assertEquals(0L, client.getMetrics().getDroppedMessages());
+			assertTrue(client.getMetrics().getFrames() > 0L);
+		} finally {
+			if (client != null) {
+				client.stop();
+			}
+			simulator.stop();
+		}
+	}
+}
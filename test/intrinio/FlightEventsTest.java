@@ -0,0 +1,17 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class FlightEventsTest {
+	@Test
+	void recordsNothingWithoutTheEventsJar() {
+		assertSame(FlightEvents.class, FlightEvents.INSTANCE.getClass());
+		assertNull(FlightEvents.INSTANCE.beginFrameDecoded());
+		assertNull(FlightEvents.INSTANCE.beginReconnect());
+		assertFalse(FlightEvents.INSTANCE.isTracingHandlers());
+	}
+}
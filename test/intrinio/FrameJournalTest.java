@@ -0,0 +1,117 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FrameJournalTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void copyingJournalRecordsFramesAsReceivedWithoutHoldingThem() throws Exception {
+		DequeFrameQueue queue = new DequeFrameQueue(4, WaitStrategy.BUSY_SPIN);
+		FrameJournal journal = new FrameJournal(directory.toString(), 1 << 16, 0L, queue, true);
+		journal.start((role, index) -> {});
+		byte[] received = new byte[] { 1, 10, 20, 30 };
+		Frame frame = queue.claim();
+		frame.append(ByteBuffer.wrap(received));
+		frame.setReceivedNanos(1234L);
+		journal.append(frame);
+		//free to be changed straight away, as dropping quotes does
+		assertFalse(frame.isShared());
+		frame.getBuffer().put(1, (byte) 99);
+		journal.stop();
+
+		FrameJournalReader reader = new FrameJournalReader(directory.toString());
+		assertTrue(reader.next());
+		byte[] recorded = new byte[reader.getFrameLength()];
+		reader.getBuffer().get(reader.getFrameOffset(), recorded);
+		assertArrayEquals(received, recorded);
+		assertEquals(1234L, reader.getReceivedNanos());
+		assertFalse(reader.next());
+		assertEquals(1L, journal.getJournaledCount());
+	}
+
+	//Holds the journal thread until released
+	private static OnThreadStart stall(CountDownLatch latch) {
+		return (role, index) -> {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {}
+		};
+	}
+
+	@Test
+	void stalledJournalNeverHoldsUpTheRing() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(8, WaitStrategy.YIELDING);
+		FrameJournal journal = new FrameJournal(directory.toString(), 1 << 20, 0L, queue, false);
+		CountDownLatch stalled = new CountDownLatch(1);
+		journal.start(stall(stalled));
+		//many more frames than the ring has slots, none of them written yet
+		CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+			for (int i = 0; i < 100; i++) {
+				Frame frame = queue.claim();
+				frame.append(ByteBuffer.wrap(new byte[] { 1, (byte) i }));
+				journal.append(frame);
+				queue.publish(frame);
+				try {
+					Frame processed = queue.poll(1, TimeUnit.SECONDS);
+					if (processed.dereference()) {
+						queue.release(processed);
+					}
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		});
+		try {
+			producer.get(10, TimeUnit.SECONDS);
+		} finally {
+			stalled.countDown();
+		}
+		journal.stop();
+		assertEquals(100L, journal.getJournaledCount());
+		assertEquals(0L, journal.getSkippedCount());
+
+		FrameJournalReader reader = new FrameJournalReader(directory.toString());
+		for (int i = 0; i < 100; i++) {
+			assertTrue(reader.next());
+			assertEquals((byte) i, reader.getBuffer().get(reader.getFrameOffset() + 1));
+		}
+		assertFalse(reader.next());
+	}
+
+	@Test
+	void framesStillPendingWhenStoppedAreWrittenAndLetGo() throws Exception {
+		DequeFrameQueue queue = new DequeFrameQueue(4, WaitStrategy.BUSY_SPIN);
+		FrameJournal journal = new FrameJournal(directory.toString(), 1 << 20, 0L, queue, false);
+		CountDownLatch stalled = new CountDownLatch(1);
+		journal.start(stall(stalled));
+		Frame frame = queue.claim();
+		frame.append(ByteBuffer.wrap(new byte[] { 1, 2 }));
+		journal.append(frame);
+		assertTrue(frame.isShared());
+		//the writer only gets going once it has been told to stop
+		CompletableFuture<Void> stopping = CompletableFuture.runAsync(journal::stop);
+		Thread.sleep(50);
+		stalled.countDown();
+		stopping.get(10, TimeUnit.SECONDS);
+		assertEquals(1L, journal.getJournaledCount());
+		assertFalse(frame.isShared());
+		//nothing is taken once stopped
+		journal.append(frame);
+		assertFalse(frame.isShared());
+		assertEquals(0L, journal.getSkippedCount());
+	}
+}
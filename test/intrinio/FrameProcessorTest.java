@@ -0,0 +1,44 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class FrameProcessorTest {
+	@Test
+	void timesAShardedFrameOnce() throws Exception {
+		SyntheticFrameGenerator generator = new SyntheticFrameGenerator(100, 5L);
+		LatencyRecorder latency = new LatencyRecorder();
+		FrameProcessor processor = new FrameProcessor(new EventHandlers(), ShardingMode.CONTRACT, null, latency, null);
+		boolean[] hasWork = new boolean[4];
+		for (int i = 0; i < 50; i++) {
+			Frame frame = new Frame();
+			frame.append(ByteBuffer.wrap(generator.nextFrame(32)));
+			frame.setFirstFragmentNanos(1000L);
+			frame.setReceivedNanos(2000L);
+			assertTrue(FrameProcessor.assignShards(frame, ShardingMode.CONTRACT, hasWork) > 1);
+			for (int shard = 0; shard < hasWork.length; shard++) {
+				if (hasWork[shard]) {
+					processor.process(frame, shard, hasWork.length);
+				}
+			}
+			//the event types of the frame
+			int lanes = 0;
+			ByteBuffer buffer = frame.getBuffer();
+			for (int m = 0, offset = 1; m < frame.getMessageCount(); m++) {
+				byte type = buffer.get(offset + 22);
+				lanes |= 1 << EventLane.of(type).ordinal();
+				offset += FrameProcessor.getMessageSize(type);
+			}
+			for (EventLane lane : EventLane.values()) {
+				if ((lanes & (1 << lane.ordinal())) != 0) {
+					assertEquals(1L, latency.snapshot(LatencyStage.REASSEMBLY, lane, true).getCount(), lane.toString());
+					assertEquals(1L, latency.snapshot(LatencyStage.QUEUE_WAIT, lane, true).getCount(), lane.toString());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+//Journals recorded from synthetic frames, for the tests that read them back
+final class JournalFixtures {
+	private JournalFixtures() {}
+
+	//Records frames of messagesPerFrame messages each, over a generator of contracts contracts, into directory. Returns its path.
+	static String record(Path directory, int contracts, long seed, int frames, int messagesPerFrame) throws Exception {
+		SyntheticFrameGenerator generator = new SyntheticFrameGenerator(contracts, seed);
+		DequeFrameQueue queue = new DequeFrameQueue(64, WaitStrategy.BUSY_SPIN);
+		FrameJournal journal = new FrameJournal(directory.toString(), 64 << 20, 0L, queue, true);
+		journal.start((role, index) -> {});
+		for (int i = 0; i < frames; i++) {
+			Frame frame = queue.claim();
+			frame.append(ByteBuffer.wrap(generator.nextFrame(messagesPerFrame)));
+			journal.append(frame);
+			queue.release(frame);
+			//never far enough behind to skip a frame
+			while (journal.getJournaledCount() + journal.getSkippedCount() < i - 1000) {
+				Thread.onSpinWait();
+			}
+		}
+		journal.stop();
+		assertEquals(0L, journal.getSkippedCount());
+		return directory.toString();
+	}
+}
@@ -0,0 +1,134 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalQueryTest {
+	private static final long BUCKET_NANOS = 1000L;
+	private static final int FRAMES = 3000;
+
+	@TempDir
+	Path directory;
+
+	private final List<byte[]> recorded = new ArrayList<byte[]>();
+
+	//Frames 137 ns apart, so records straddle bucket boundaries, over segments small enough to need several
+	private FrameJournal record(Path journalDirectory) throws Exception {
+		SyntheticFrameGenerator generator = new SyntheticFrameGenerator(60, 17L);
+		DequeFrameQueue queue = new DequeFrameQueue(64, WaitStrategy.BUSY_SPIN);
+		FrameJournal journal = new FrameJournal(journalDirectory.toString(), 1 << 20, BUCKET_NANOS, queue, true);
+		journal.start((role, index) -> {});
+		for (int i = 0; i < FRAMES; i++) {
+			byte[] bytes = generator.nextFrame(10);
+			recorded.add(bytes);
+			Frame frame = queue.claim();
+			frame.append(ByteBuffer.wrap(bytes));
+			frame.setReceivedNanos(receivedNanos(i));
+			journal.append(frame);
+			queue.release(frame);
+			while (journal.getJournaledCount() < i - 1000) {
+				Thread.onSpinWait();
+			}
+		}
+		while (journal.getJournaledCount() < FRAMES) {
+			Thread.onSpinWait();
+		}
+		assertEquals(0L, journal.getSkippedCount());
+		return journal;
+	}
+
+	private static long receivedNanos(int frame) {
+		return 1_000_000L + frame * 137L;
+	}
+
+	//What a full scan of the recorded frames finds
+	private List<String> scan(String underlying, long fromNanos, long toNanos, EventLane lane) {
+		List<String> events = new ArrayList<String>();
+		for (int i = 0; i < recorded.size(); i++) {
+			if (receivedNanos(i) < fromNanos || receivedNanos(i) > toNanos) {
+				continue;
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(recorded.get(i)).order(ByteOrder.LITTLE_ENDIAN);
+			int offset = 1;
+			for (int m = 0; m < buffer.get(0); m++) {
+				byte type = buffer.get(offset + 22);
+				String contract = new String(recorded.get(i), offset + 1, buffer.get(offset));
+				if (EventLane.of(type) == lane && contract.startsWith(underlying + "_")) {
+					events.add(lane == EventLane.TRADE ? Trade.parse(buffer, offset).toString() : Quote.parse(buffer, offset).toString());
+				}
+				offset += FrameProcessor.getMessageSize(type);
+			}
+		}
+		return events;
+	}
+
+	private String firstUnderlying() {
+		byte[] frame = recorded.get(0);
+		String contract = new String(frame, 2, frame[1]);
+		return contract.substring(0, contract.indexOf('_'));
+	}
+
+	private void assertMatchesScan(Path journalDirectory) throws Exception {
+		JournalQuery query = new JournalQuery(journalDirectory.toString());
+		String underlying = firstUnderlying();
+		long end = receivedNanos(FRAMES - 1);
+		//whole buckets, windows that start and end inside buckets, and the tail the index has not covered yet
+		long[][] windows = { { 0L, Long.MAX_VALUE }, { 1_000_000L, 1_050_000L }, { 1_020_500L, 1_140_250L }, { end - 4_321L, end }, { 1_100_001L, 1_100_999L } };
+		for (long[] window : windows) {
+			List<String> trades = new ArrayList<String>();
+			long found = query.forEachTrade(underlying, window[0], window[1], trade -> trades.add(trade.toString()));
+			assertEquals(trades.size(), found);
+			assertEquals(scan(underlying, window[0], window[1], EventLane.TRADE), trades);
+			List<String> quotes = new ArrayList<String>();
+			found = query.forEachQuote(underlying, window[0], window[1], quote -> quotes.add(quote.toString()));
+			assertEquals(quotes.size(), found);
+			assertEquals(scan(underlying, window[0], window[1], EventLane.QUOTE), quotes);
+		}
+		assertTrue(scan(underlying, 0L, Long.MAX_VALUE, EventLane.TRADE).size() > 10);
+		assertTrue(scan(underlying, 0L, Long.MAX_VALUE, EventLane.QUOTE).size() > 100);
+	}
+
+	@Test
+	void findsWhatAFullScanFinds() throws Exception {
+		Path journalDirectory = directory.resolve("journal");
+		FrameJournal journal = record(journalDirectory);
+		assertTrue(FrameJournal.getSegments(journalDirectory).size() > 1);
+		try {
+			//the open segment's last bucket is not written to its index yet
+			assertMatchesScan(journalDirectory);
+		} finally {
+			journal.stop();
+		}
+		assertMatchesScan(journalDirectory);
+	}
+
+	@Test
+	void scansPastAPartlyWrittenBucket() throws Exception {
+		Path journalDirectory = directory.resolve("journal");
+		record(journalDirectory).stop();
+		for (Path segment : FrameJournal.getSegments(journalDirectory)) {
+			//cut each index off in the middle of a bucket's entries
+			try (FileChannel index = FileChannel.open(JournalIndexWriter.getIndexPath(segment), StandardOpenOption.WRITE)) {
+				index.truncate(index.size() * 2 / 3 + 5);
+			}
+		}
+		assertMatchesScan(journalDirectory);
+		//and with no index at all
+		for (Path segment : FrameJournal.getSegments(journalDirectory)) {
+			Files.delete(JournalIndexWriter.getIndexPath(segment));
+		}
+		assertMatchesScan(journalDirectory);
+	}
+}
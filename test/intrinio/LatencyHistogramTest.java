@@ -0,0 +1,77 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+	@Test
+	void smallValuesGetABucketEach() {
+		for (long value = 0L; value < 128L; value++) {
+			assertEquals((int) value, LatencyHistogram.indexOf(value));
+			assertEquals(value, LatencyHistogram.highestValueOf((int) value));
+		}
+	}
+
+	@Test
+	void bucketsAreContiguousAndNarrowerThanASixtyFourthOfTheirValues() {
+		assertEquals(128, LatencyHistogram.indexOf(128L));
+		assertEquals(128L, LatencyHistogram.highestValueOf(127) + 1L);
+		for (int index = 128; index < LatencyHistogram.BUCKET_COUNT; index++) {
+			long lowest = LatencyHistogram.highestValueOf(index - 1) + 1L;
+			long highest = LatencyHistogram.highestValueOf(index);
+			assertEquals(index, LatencyHistogram.indexOf(lowest));
+			assertEquals(index, LatencyHistogram.indexOf(highest));
+			assertEquals(index + 1, LatencyHistogram.indexOf(highest + 1L));
+			assertTrue((highest - lowest + 1L) * 64L <= lowest, Integer.toString(index));
+		}
+		assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.BUCKET_COUNT - 1));
+	}
+
+	@Test
+	void recordsOutOfRangeValuesAtTheEnds() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5L);
+		histogram.record(Long.MAX_VALUE);
+		LatencySnapshot snapshot = histogram.snapshot(false);
+		assertEquals(2L, snapshot.getCount());
+		assertEquals(0L, snapshot.getValueAtPercentile(50.0D));
+		assertEquals(LatencyHistogram.MAX_VALUE, snapshot.getMax());
+		assertEquals(LatencyHistogram.MAX_VALUE, snapshot.getValueAtPercentile(100.0D));
+	}
+
+	@Test
+	void percentilesAreWithinABucketOfTheTrueValue() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long value = 1L; value <= 100000L; value++) {
+			histogram.record(value * 10L);
+		}
+		LatencySnapshot snapshot = histogram.snapshot(false);
+		assertEquals(100000L, snapshot.getCount());
+		assertEquals(1000000L, snapshot.getMax());
+		assertEquals(10L, snapshot.getValueAtPercentile(0.0D));
+		assertEquals(1000000L, snapshot.getValueAtPercentile(100.0D));
+		for (double percentile : new double[] { 1.0D, 25.0D, 50.0D, 90.0D, 99.0D, 99.9D }) {
+			long actual = (long) Math.ceil(percentile * 1000.0D) * 10L;
+			long reported = snapshot.getValueAtPercentile(percentile);
+			//the highest value of the bucket holding the true one
+			assertTrue(reported >= actual && reported - actual <= actual / 64L, percentile + ": " + reported);
+		}
+	}
+
+	@Test
+	void emptyAndResetSnapshots() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0L, histogram.snapshot(false).getValueAtPercentile(99.0D));
+		histogram.record(300L);
+		histogram.record(700L);
+		LatencySnapshot taken = histogram.snapshot(true);
+		assertEquals(2L, taken.getCount());
+		assertEquals(303L, taken.getP50());
+		assertEquals(700L, taken.getMax());
+		LatencySnapshot after = histogram.snapshot(false);
+		assertEquals(0L, after.getCount());
+		assertEquals(0L, after.getMax());
+	}
+}
@@ -0,0 +1,62 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsServerTest {
+	private static MetricsSnapshot snapshot() {
+		MetricsSnapshot snapshot = new MetricsSnapshot();
+		snapshot.frameSizeCounts = new long[] { 5, 4, 3, 2, 1, 1 };
+		//summed a moment after the buckets, so already ahead of them
+		snapshot.frames = 20;
+		snapshot.frameBytes = 123456;
+		return snapshot;
+	}
+
+	@Test
+	void histogramTotalsComeFromTheBuckets() {
+		String text = snapshot().toPrometheus();
+		assertTrue(text.contains("intrinio_frame_size_bytes_bucket{le=\"256\"} 5\n"), text);
+		assertTrue(text.contains("intrinio_frame_size_bytes_bucket{le=\"65536\"} 15\n"), text);
+		assertTrue(text.contains("intrinio_frame_size_bytes_bucket{le=\"+Inf\"} 16\n"), text);
+		assertTrue(text.contains("intrinio_frame_size_bytes_count 16\n"), text);
+		assertTrue(text.contains("intrinio_frame_size_bytes_sum 123456\n"), text);
+	}
+
+	@Test
+	void servesOnTheLoopbackAddressByDefault() throws Exception {
+		MetricsServer server = new MetricsServer(null, 0, MetricsServerTest::snapshot);
+		server.start();
+		try {
+			InetSocketAddress address = server.getAddress();
+			assertTrue(address.getAddress().isLoopbackAddress(), address.toString());
+			HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + address.getPort() + "/metrics").openConnection();
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+			try (InputStream in = connection.getInputStream()) {
+				assertEquals(snapshot().toPrometheus(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	void servesOnAConfiguredBindAddress() throws Exception {
+		MetricsServer server = new MetricsServer("0.0.0.0", 0, MetricsServerTest::snapshot);
+		server.start();
+		try {
+			assertTrue(server.getAddress().getAddress().isAnyLocalAddress(), server.getAddress().toString());
+		} finally {
+			server.stop();
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+//Drives NioWebSocket against a scripted loopback server that reads and writes raw RFC 6455 frames
+class NioWebSocketTest {
+	private static final class ServerFrame {
+		final int opcode;
+		final boolean isMasked;
+		final byte[] payload;
+
+		ServerFrame(int opcode, boolean isMasked, byte[] payload) {
+			this.opcode = opcode;
+			this.isMasked = isMasked;
+			this.payload = payload;
+		}
+	}
+
+	//Records what the client's listener is called with, as "type:payload"
+	private static final class RecordingListener implements WebSocket.Listener {
+		final LinkedBlockingQueue<String> events = new LinkedBlockingQueue<String>();
+		final LinkedBlockingQueue<Throwable> errors = new LinkedBlockingQueue<Throwable>();
+		private final ByteArrayOutputStream binary = new ByteArrayOutputStream();
+
+		public void onOpen(WebSocket webSocket) {
+			webSocket.request(Long.MAX_VALUE);
+		}
+
+		public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+			events.add("text:" + data);
+			return null;
+		}
+
+		public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+			byte[] bytes = new byte[data.remaining()];
+			data.get(bytes);
+			binary.writeBytes(bytes);
+			if (last) {
+				events.add("binary:" + binary.toString(StandardCharsets.US_ASCII));
+				binary.reset();
+			}
+			return null;
+		}
+
+		public CompletionStage<?> onPing(WebSocket webSocket, ByteBuffer message) {
+			events.add("ping:" + StandardCharsets.US_ASCII.decode(message));
+			return null;
+		}
+
+		public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+			events.add("close:" + statusCode + " " + reason);
+			return null;
+		}
+
+		public void onError(WebSocket webSocket, Throwable error) {
+			errors.add(error);
+		}
+
+		String next() throws InterruptedException {
+			return events.poll(5, TimeUnit.SECONDS);
+		}
+	}
+
+	private ServerSocket serverSocket;
+	private Socket socket;
+	private InputStream in;
+	private OutputStream out;
+	private RecordingListener listener;
+	private NioWebSocket ws;
+
+	@BeforeEach
+	void connect() throws Exception {
+		serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+		CompletableFuture<Socket> accepted = CompletableFuture.supplyAsync(() -> {
+			try {
+				Socket socket = serverSocket.accept();
+				upgrade(socket);
+				return socket;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		listener = new RecordingListener();
+		ws = NioWebSocket.connect(URI.create("ws://127.0.0.1:" + serverSocket.getLocalPort() + "/socket/websocket"), listener, (role, index) -> {});
+		socket = accepted.get(5, TimeUnit.SECONDS);
+		socket.setSoTimeout(5000);
+		in = new BufferedInputStream(socket.getInputStream());
+		out = socket.getOutputStream();
+	}
+
+	@AfterEach
+	void disconnect() throws IOException {
+		ws.abort();
+		socket.close();
+		serverSocket.close();
+	}
+
+	private static void upgrade(Socket socket) throws Exception {
+		InputStream in = socket.getInputStream();
+		String key = null;
+		for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+			if (line.regionMatches(true, 0, "Sec-WebSocket-Key:", 0, 18)) {
+				key = line.substring(18).trim();
+			}
+		}
+		String accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII)));
+		socket.getOutputStream().write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		for (int b = in.read(); b >= 0 && b != '\n'; b = in.read()) {
+			if (b != '\r') builder.append((char) b);
+		}
+		return builder.toString();
+	}
+
+	private ServerFrame readFrame() throws IOException {
+		int first = in.read();
+		int second = in.read();
+		if (first < 0 || second < 0) {
+			return null;
+		}
+		long length = second & 0x7F;
+		if (length == 126) {
+			length = (in.read() << 8) | in.read();
+		} else if (length == 127) {
+			length = 0L;
+			for (int i = 0; i < 8; i++) length = (length << 8) | in.read();
+		}
+		boolean isMasked = (second & 0x80) != 0;
+		byte[] mask = isMasked ? in.readNBytes(4) : null;
+		byte[] payload = in.readNBytes((int) length);
+		if (isMasked) {
+			for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+		}
+		return new ServerFrame(first & 0x0F, isMasked, payload);
+	}
+
+	private void writeFrame(int opcode, boolean isFinal, byte[] payload) throws IOException {
+		out.write((isFinal ? 0x80 : 0) | opcode);
+		if (payload.length < 126) {
+			out.write(payload.length);
+		} else {
+			out.write(126);
+			out.write(payload.length >>> 8);
+			out.write(payload.length & 0xFF);
+		}
+		out.write(payload);
+		out.flush();
+	}
+
+	private static byte[] ascii(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	@Test
+	void masksEveryClientFrame() throws Exception {
+		ws.sendText("hello", true);
+		byte[] large = new byte[300];
+		for (int i = 0; i < large.length; i++) large[i] = (byte) i;
+		ws.sendBinary(ByteBuffer.wrap(large), true);
+		ServerFrame text = readFrame();
+		assertEquals(0x1, text.opcode);
+		assertTrue(text.isMasked);
+		assertEquals("hello", new String(text.payload, StandardCharsets.US_ASCII));
+		ServerFrame binary = readFrame();
+		assertEquals(0x2, binary.opcode);
+		assertTrue(binary.isMasked);
+		assertArrayEquals(large, binary.payload);
+	}
+
+	@Test
+	void reassemblesFragmentedMessages() throws Exception {
+		writeFrame(0x2, false, ascii("frag"));
+		writeFrame(0x0, false, ascii("men"));
+		writeFrame(0x0, true, ascii("ted"));
+		writeFrame(0x1, true, ascii("text"));
+		assertEquals("binary:fragmented", listener.next());
+		assertEquals("text:text", listener.next());
+	}
+
+	@Test
+	void answersPingsWithAMaskedPong() throws Exception {
+		writeFrame(0x9, true, ascii("are you there"));
+		ServerFrame pong = readFrame();
+		assertEquals(0xA, pong.opcode);
+		assertTrue(pong.isMasked);
+		assertEquals("are you there", new String(pong.payload, StandardCharsets.US_ASCII));
+		assertEquals("ping:are you there", listener.next());
+	}
+
+	@Test
+	void echoesTheServersCloseAndDisconnects() throws Exception {
+		byte[] close = new byte[] { 0x03, (byte) 0xE8, 'b', 'y', 'e' };
+		writeFrame(0x8, true, close);
+		assertEquals("close:1000 bye", listener.next());
+		ServerFrame echo = readFrame();
+		assertEquals(0x8, echo.opcode);
+		assertTrue(echo.isMasked);
+		assertArrayEquals(new byte[] { 0x03, (byte) 0xE8 }, echo.payload);
+		assertEquals(-1, in.read());
+		assertTrue(ws.isInputClosed());
+		assertTrue(ws.isOutputClosed());
+	}
+
+	@Test
+	void rejectsMaskedServerFrames() throws Exception {
+		out.write(new byte[] { (byte) 0x82, (byte) 0x81, 1, 2, 3, 4, 5 });
+		out.flush();
+		assertInstanceOf(ProtocolException.class, listener.errors.poll(5, TimeUnit.SECONDS));
+		assertEquals(-1, in.read());
+	}
+}
@@ -0,0 +1,97 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class OptionContractTest {
+	private static byte[] raw(String serverFormat) {
+		byte[] bytes = serverFormat.getBytes(StandardCharsets.US_ASCII);
+		byte[] raw = new byte[bytes.length + 1];
+		raw[0] = (byte) bytes.length;
+		System.arraycopy(bytes, 0, raw, 1, bytes.length);
+		return raw;
+	}
+
+	@Test
+	void formatsTheServerFormatFromTheKey() {
+		assertEquals("AAPL_201016C100.00", OptionContract.parse("AAPL__201016C00100000").toServerFormat());
+		assertEquals("ABC_201016P100.003", OptionContract.parse("ABC___201016P00100003").toServerFormat());
+		assertEquals("XYZ_991231C0.50", OptionContract.parse("XYZ___991231C00000500").toServerFormat());
+		assertSame(OptionContract.parse("AAPL_201016C100.00"), OptionContract.parse("AAPL__201016C00100000"));
+	}
+
+	@Test
+	void leavesWhatIsNotAStandardContractAsItIs() {
+		assertEquals("AAPL", OptionContractDictionary.toServerFormat("AAPL"));
+		assertEquals("AAPL__2X1016C0010000X", OptionContractDictionary.toServerFormat("AAPL__2X1016C0010000X"));
+		assertEquals("AAPL__201016C001", OptionContractDictionary.toServerFormat("AAPL__201016C001"));
+		assertEquals("AAPL_201016C100.00", OptionContractDictionary.toServerFormat("AAPL__201016C00100000"));
+	}
+
+	@Test
+	void parseRejectsMalformedContracts() {
+		assertThrows(IllegalArgumentException.class, () -> OptionContract.parse("AAPL__2X1016C0010000X"));
+		assertThrows(IllegalArgumentException.class, () -> OptionContract.parse("AAPL_201016X100.00"));
+		assertThrows(IllegalArgumentException.class, () -> OptionContract.parse("AAPL"));
+	}
+
+	@Test
+	void dropsContractsExpiredByTheDateOfTheDataBeforeGrowing() {
+		OptionContractDictionary dictionary = new OptionContractDictionary(8, 1 << 10);
+		OptionContract old = dictionary.intern(raw("OLD_010105C1.00"), 0);
+		for (int i = 2; i <= 4; i++) {
+			dictionary.intern(raw("OLD_010105C" + i + ".00"), 0);
+		}
+		//a later day of data
+		for (int i = 1; i <= 4; i++) {
+			dictionary.intern(raw("NEW_991231C" + i + ".00"), 0);
+		}
+		assertEquals(8, dictionary.size());
+		OptionContract live = dictionary.intern(raw("NEW_991231C5.00"), 0);
+		//the ninth contract needed room, and the ones expired before that day made it
+		assertEquals(5, dictionary.size());
+		assertSame(live, dictionary.intern(raw("NEW_991231C5.00"), 0));
+		assertEquals(old, dictionary.intern(raw("OLD_010105C1.00"), 0));
+	}
+
+	@Test
+	void keepsContractsOfARecordedDayThatHasPassed() {
+		OptionContractDictionary dictionary = new OptionContractDictionary(8, 1 << 10);
+		OptionContract[] contracts = new OptionContract[100];
+		for (int i = 0; i < contracts.length; i++) {
+			contracts[i] = dictionary.intern(raw("OLD_010105C" + (i + 1) + ".00"), 0);
+		}
+		assertEquals(100, dictionary.size());
+		for (int i = 0; i < contracts.length; i++) {
+			assertSame(contracts[i], dictionary.intern(raw("OLD_010105C" + (i + 1) + ".00"), 0));
+		}
+	}
+
+	@Test
+	void knowsTheContractThatClearedTheTableByAnySpelling() {
+		OptionContractDictionary dictionary = new OptionContractDictionary(8, 16);
+		for (int i = 1; i <= 16; i++) {
+			dictionary.intern(raw("NEW_991231C" + i + ".00"), 0);
+		}
+		//the seventeenth contract clears the table
+		OptionContract contract = dictionary.intern(raw("NEW_991231C17.00"), 0);
+		assertEquals(1, dictionary.size());
+		assertSame(contract, dictionary.intern(raw("NEW_991231C17.000"), 0));
+	}
+
+	@Test
+	void neverGrowsPastMaxEntries() {
+		OptionContractDictionary dictionary = new OptionContractDictionary(8, 16);
+		for (int i = 1; i <= 1000; i++) {
+			OptionContract contract = dictionary.intern(raw("NEW_991231C" + i + ".00"), 0);
+			assertEquals(i * 1000, contract.getStrikePriceThousandths());
+			assertTrue(dictionary.size() <= 16);
+		}
+	}
+}
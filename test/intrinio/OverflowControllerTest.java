@@ -0,0 +1,93 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class OverflowControllerTest {
+	//a frame of one quote, byte structure: see Quote.parse(byte[])
+	private static Frame claimQuote(FrameQueue queue, String contract, long timestamp) {
+		byte[] message = new byte[QuoteView.MESSAGE_SIZE];
+		byte[] name = contract.getBytes(StandardCharsets.US_ASCII);
+		message[0] = (byte) name.length;
+		System.arraycopy(name, 0, message, 1, name.length);
+		message[22] = 1;
+		ByteBuffer.wrap(message).order(ByteOrder.LITTLE_ENDIAN).putLong(40, timestamp);
+		Frame frame = queue.claim();
+		frame.append(ByteBuffer.wrap(new byte[] { 1 }));
+		frame.append(ByteBuffer.wrap(message));
+		return frame;
+	}
+
+	//Fills the queue to capacity, then publishes quote-only frames the policy strips to nothing
+	private static void publishPastCapacity(FrameQueue queue, OverflowController controller) throws Exception {
+		CompletableFuture<Void> publishing = CompletableFuture.runAsync(() -> {
+			try {
+				for (int i = 0; i < 2; i++) {
+					controller.publish(claimQuote(queue, "KEEP_991231C1.00", i));
+				}
+				for (int i = 0; i < 20; i++) {
+					controller.publish(claimQuote(queue, "DROP_991231C" + (i + 1) + ".00", i));
+				}
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		//with the emptied frames released rather than handed back, claim waits forever on a slot never published
+		publishing.get(5, TimeUnit.SECONDS);
+		assertEquals(2, queue.size());
+		for (int i = 0; i < 2; i++) {
+			Frame frame = queue.poll(1, TimeUnit.SECONDS);
+			assertEquals(1, frame.getMessageCount());
+			assertEquals((long) i, frame.getBuffer().getLong(1 + 40));
+			queue.release(frame);
+		}
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	private static void roundTrip(FrameQueue queue) throws InterruptedException {
+		for (int i = 0; i < 8; i++) {
+			Frame frame = claimQuote(queue, "KEEP_991231C1.00", i);
+			queue.publish(frame);
+			assertSame(frame, queue.poll(1, TimeUnit.SECONDS));
+			queue.release(frame);
+		}
+	}
+
+	@Test
+	void dropQuotesHandsEmptiedRingSlotsBack() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(4, WaitStrategy.YIELDING);
+		OverflowController controller = new OverflowController(queue, 2, OverflowPolicy.DROP_QUOTES, null, new DemandController(queue, 1, 2));
+		publishPastCapacity(queue, controller);
+		assertEquals(20L, controller.getDroppedCount());
+		//the ring is usable again afterwards
+		roundTrip(queue);
+	}
+
+	@Test
+	void conflateHandsEmptiedRingSlotsBack() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(4, WaitStrategy.YIELDING);
+		QuoteConflator conflator = new QuoteConflator();
+		OverflowController controller = new OverflowController(queue, 2, OverflowPolicy.CONFLATE, conflator, new DemandController(queue, 1, 2));
+		publishPastCapacity(queue, controller);
+		assertEquals(0L, controller.getDroppedCount());
+		assertEquals(20, conflator.size());
+		roundTrip(queue);
+	}
+
+	@Test
+	void dropQuotesReturnsEmptiedDequeFramesToThePool() throws Exception {
+		DequeFrameQueue queue = new DequeFrameQueue(4, WaitStrategy.YIELDING);
+		OverflowController controller = new OverflowController(queue, 2, OverflowPolicy.DROP_QUOTES, null, new DemandController(queue, 1, 2));
+		publishPastCapacity(queue, controller);
+		assertEquals(20L, controller.getDroppedCount());
+	}
+}
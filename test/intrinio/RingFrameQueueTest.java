@@ -0,0 +1,115 @@
+package intrinio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+class RingFrameQueueTest {
+	private static void publish(FrameQueue queue, int value) {
+		Frame frame = queue.claim();
+		frame.append(ByteBuffer.wrap(new byte[] { (byte) value }));
+		queue.publish(frame);
+	}
+
+	private static Frame poll(FrameQueue queue) throws InterruptedException {
+		return queue.poll(1, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void roundsSizeUpToAPowerOfTwo() {
+		assertEquals(4, new RingFrameQueue(3, WaitStrategy.BUSY_SPIN).capacity());
+		assertEquals(4, new RingFrameQueue(4, WaitStrategy.BUSY_SPIN).capacity());
+		assertEquals(8, new RingFrameQueue(5, WaitStrategy.BUSY_SPIN).capacity());
+	}
+
+	@Test
+	void keepsOrderAcrossManyLaps() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(4, WaitStrategy.BUSY_SPIN);
+		for (int i = 0; i < 100; i++) {
+			publish(queue, i);
+			publish(queue, i + 1);
+			assertEquals(2, queue.size());
+			Frame first = poll(queue);
+			Frame second = poll(queue);
+			assertEquals((byte) i, first.getBuffer().get(0));
+			assertEquals((byte) (i + 1), second.getBuffer().get(0));
+			queue.release(first);
+			queue.release(second);
+			assertEquals(0, queue.size());
+		}
+	}
+
+	@Test
+	void pollTimesOutWhenEmpty() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(4, WaitStrategy.BUSY_SPIN);
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void claimWaitsForASlotWhenFull() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(4, WaitStrategy.YIELDING);
+		for (int i = 0; i < 4; i++) {
+			publish(queue, i);
+		}
+		CompletableFuture<Frame> claimed = CompletableFuture.supplyAsync(queue::claim);
+		assertThrows(TimeoutException.class, () -> claimed.get(200, TimeUnit.MILLISECONDS));
+		Frame oldest = poll(queue);
+		queue.release(oldest);
+		//the slot handed back is the one claimed next
+		assertSame(oldest, claimed.get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void claimWaitsForItsOwnSlotWhenReleasedOutOfOrder() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(4, WaitStrategy.YIELDING);
+		for (int i = 0; i < 4; i++) {
+			publish(queue, i);
+		}
+		Frame[] frames = new Frame[4];
+		for (int i = 0; i < 4; i++) {
+			frames[i] = poll(queue);
+		}
+		queue.release(frames[3]);
+		queue.release(frames[1]);
+		CompletableFuture<Frame> claimed = CompletableFuture.supplyAsync(queue::claim);
+		assertThrows(TimeoutException.class, () -> claimed.get(200, TimeUnit.MILLISECONDS));
+		queue.release(frames[0]);
+		assertSame(frames[0], claimed.get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void releasedFramesAreCleared() throws Exception {
+		RingFrameQueue queue = new RingFrameQueue(2, WaitStrategy.BUSY_SPIN);
+		publish(queue, 7);
+		Frame frame = poll(queue);
+		frame.retain(1);
+		queue.release(frame);
+		assertEquals(0, frame.getLength());
+		assertFalse(frame.isShared());
+	}
+
+	@Test
+	void configRejectsARingNoLargerThanTheQueueCapacity() throws Exception {
+		Config config = new Config("key", Provider.MANUAL, "127.0.0.1:1", new String[0], 1);
+		config.setUseRingBuffer(true);
+		config.setRingBufferSize(8);
+		config.setQueueCapacity(8);
+		assertThrows(Exception.class, config::validate);
+		config.setQueueCapacity(7);
+		config.validate();
+		config.setUseLanes(true);
+		config.setLaneConfig(EventLane.QUOTE, new LaneConfig(1, 16, OverflowPolicy.DROP_OLDEST));
+		assertThrows(Exception.class, config::validate);
+		config.setLaneConfig(EventLane.QUOTE, new LaneConfig(1, 4, OverflowPolicy.DROP_OLDEST));
+		config.validate();
+	}
+}